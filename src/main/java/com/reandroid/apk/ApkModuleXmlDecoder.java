@@ -20,13 +20,21 @@ import com.reandroid.archive.InputSource;
 import com.reandroid.arsc.chunk.Overlayable;
 import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.chunk.xml.ResXmlDocument;
+import com.reandroid.arsc.coder.xml.ValuesDirectorySerializer;
 import com.reandroid.arsc.coder.xml.XmlCoder;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.list.OverlayableList;
 import com.reandroid.utils.io.IOUtil;
 import com.reandroid.arsc.value.*;
+import com.reandroid.common.BytesOutputStream;
 import com.reandroid.json.JSONObject;
+import com.reandroid.utils.collection.IntObjectMap;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
+import com.reandroid.utils.concurrent.OrderedTaskQueue;
 import com.reandroid.xml.XMLFactory;
 import com.reandroid.xml.XmlIndentingSerializer;
 import org.xmlpull.v1.XmlSerializer;
@@ -34,15 +42,18 @@ import org.xmlpull.v1.XmlSerializer;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Predicate;
 
 public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<Entry> {
-    private final Map<Integer, Set<ResConfig>> decodedEntries;
+    private final IntObjectMap<Set<ResConfig>> decodedEntries;
     private boolean keepResPath;
+    private int threadCount = 1;
 
     public ApkModuleXmlDecoder(ApkModule apkModule){
         super(apkModule);
-        this.decodedEntries = new HashMap<>();
+        this.decodedEntries = new IntObjectMap<>();
     }
     public void setKeepResPath(boolean keepResPath){
         this.keepResPath = keepResPath;
@@ -50,6 +61,17 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     public boolean keepResPath() {
         return keepResPath;
     }
+    /**
+     * Sets number of threads used to decode res files and values xml, default is 1 (sequential).
+     * Values less than 1 are treated as number of available processors.
+     * Output files are identical regardless of thread count.
+     * */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+    }
+    public int getThreadCount() {
+        return threadCount;
+    }
 
     @Override
     void initialize(){
@@ -91,10 +113,58 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
             logMessage("Res files: " + TableBlock.DIRECTORY_NAME);
         }
         List<ResFile> resFileList = getApkModule().listResFiles();
+        if(getThreadCount() > 1){
+            decodeResFilesParallel(mainDirectory, resFileList);
+            return;
+        }
         for(ResFile resFile:resFileList){
             decodeResFile(mainDirectory, resFile);
         }
     }
+    // Reading inputs, renaming res paths and bookkeeping of decoded entries and paths are
+    // done on the calling thread in order, only parsing and serializing of xml runs on workers.
+    private void decodeResFilesParallel(File mainDirectory, List<ResFile> resFileList)
+            throws IOException {
+        int threadCount = getThreadCount();
+        logMessage("Decode threads: " + threadCount);
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "res-decode");
+        OrderedTaskQueue<ResXmlTask> queue = new OrderedTaskQueue<>(executor, threadCount * 2);
+        try {
+            for(ResFile resFile : resFileList){
+                if(!resFile.isBinaryXml()){
+                    decodeResFile(mainDirectory, resFile);
+                    continue;
+                }
+                while (queue.isFull()){
+                    onResXmlDecoded(queue.takeNext());
+                }
+                ResXmlTask task = new ResXmlTask(resFile);
+                try{
+                    task.prepare(mainDirectory);
+                }catch (Exception ex){
+                    logOrThrow("Failed to decode: " + resFile.getFilePath(), ex);
+                    continue;
+                }
+                queue.submit(task);
+            }
+            while (queue.hasPending()){
+                onResXmlDecoded(queue.takeNext());
+            }
+        } finally {
+            queue.cancelAll();
+            executor.shutdownNow();
+        }
+    }
+    private void onResXmlDecoded(ResXmlTask task) throws IOException {
+        if(task.error != null){
+            logOrThrow("Failed to decode: " + task.resFile.getFilePath(), task.error);
+            return;
+        }
+        if(!keepResPath()){
+            addDecodedEntry(task.entry);
+        }
+        addDecodedPath(task.inputSource.getAlias());
+    }
     private void decodeResFile(File mainDirectory, ResFile resFile)
             throws IOException{
         if(resFile.isBinaryXml()){
@@ -283,8 +353,58 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     private void decodeValues(File mainDirectory, TableBlock tableBlock) throws IOException {
         File resourcesDir = new File(mainDirectory, TableBlock.DIRECTORY_NAME);
         XmlCoder xmlCoder = XmlCoder.getInstance();
+        if(getThreadCount() > 1){
+            decodeValuesParallel(resourcesDir, xmlCoder.VALUES_XML, tableBlock);
+            return;
+        }
         xmlCoder.VALUES_XML.decodeTable(resourcesDir, tableBlock, this);
     }
+    // Type blocks are grouped by values directory and each group is decoded by one worker,
+    // empty files and directories are deleted on finish thus a directory must not be shared
+    // between workers
+    private void decodeValuesParallel(File resourcesDir, XmlCoder.ValuesXml valuesXml,
+                                      TableBlock tableBlock) throws IOException {
+        logMessage("Resource table ...");
+        Map<String, List<TypeBlock>> valuesDirectories = new LinkedHashMap<>();
+        for(PackageBlock packageBlock : tableBlock.listPackages()){
+            packageBlock.sortTypes();
+            String packageDirectory = packageBlock.buildDecodeDirectoryName();
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()){
+                for(ResConfig resConfig : specTypePair.listResConfig()){
+                    String key = packageDirectory + File.separator + resConfig.getQualifiers();
+                    valuesDirectories.computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(specTypePair.getTypeBlock(resConfig));
+                }
+            }
+        }
+        ValuesDirectorySerializer serializerFactory = new ValuesDirectorySerializer(resourcesDir);
+        int threadCount = getThreadCount();
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "values-decode");
+        OrderedTaskQueue<Object> queue = new OrderedTaskQueue<>(executor, threadCount * 2);
+        try {
+            for(List<TypeBlock> typeBlockList : valuesDirectories.values()){
+                while (queue.isFull()){
+                    queue.takeNext();
+                }
+                queue.submit(() -> {
+                    for(TypeBlock typeBlock : typeBlockList){
+                        XmlSerializer serializer = serializerFactory.createSerializer(typeBlock);
+                        int entriesCount = valuesXml.decode(serializer,
+                                typeBlock.getParentSpecTypePair(), typeBlock.getResConfig(), this);
+                        serializerFactory.onFinish(serializer, entriesCount);
+                    }
+                    return null;
+                });
+            }
+            while (queue.hasPending()){
+                queue.takeNext();
+            }
+        } finally {
+            queue.cancelAll();
+            executor.shutdownNow();
+        }
+        logMessage("Finished resource table");
+    }
     private void decodeOverlayable(File mainDirectory, TableBlock tableBlock) throws IOException {
         for (PackageBlock packageBlock : tableBlock) {
             decodeOverlayable(mainDirectory, packageBlock);
@@ -308,4 +428,45 @@ public class ApkModuleXmlDecoder extends ApkModuleDecoder implements Predicate<E
     public boolean test(Entry entry) {
         return containsDecodedEntry(entry);
     }
+
+    class ResXmlTask implements Callable<ResXmlTask> {
+
+        final ResFile resFile;
+        Entry entry;
+        InputSource inputSource;
+        private PackageBlock packageBlock;
+        private File file;
+        private byte[] bytes;
+        Exception error;
+
+        ResXmlTask(ResFile resFile){
+            this.resFile = resFile;
+        }
+        void prepare(File mainDirectory) throws IOException {
+            Entry entry = resFile.pickOne();
+            PackageBlock packageBlock = entry.getPackageBlock();
+            this.file = toDecodeResFile(mainDirectory, resFile, packageBlock);
+            InputSource inputSource = resFile.getInputSource();
+            logVerbose(inputSource.getAlias());
+            BytesOutputStream outputStream = new BytesOutputStream((int) inputSource.getLength());
+            inputSource.write(outputStream);
+            this.bytes = outputStream.toByteArray();
+            this.entry = entry;
+            this.packageBlock = packageBlock;
+            this.inputSource = inputSource;
+        }
+        @Override
+        public ResXmlTask call() {
+            try {
+                ResXmlDocument document = new ResXmlDocument();
+                document.readBytes(new BlockReader(bytes));
+                this.bytes = null;
+                document.setPackageBlock(packageBlock);
+                serializeXml(packageBlock, document, file);
+            } catch (Exception ex) {
+                this.error = ex;
+            }
+            return this;
+        }
+    }
 }
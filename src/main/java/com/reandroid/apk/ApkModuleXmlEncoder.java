@@ -23,20 +23,40 @@ import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.value.Entry;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
+import com.reandroid.utils.concurrent.OrderedTaskQueue;
 import com.reandroid.xml.source.XMLFileParserSource;
 import com.reandroid.xml.source.XMLParserSource;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 public class ApkModuleXmlEncoder extends ApkModuleEncoder{
     private final XMLTableBlockEncoder tableBlockEncoder;
+    private final List<XMLEncodeSource> xmlEncodeSourceList;
+    private int threadCount = 1;
     public ApkModuleXmlEncoder(){
         this.tableBlockEncoder = new XMLTableBlockEncoder();
+        this.xmlEncodeSourceList = new ArrayList<>();
     }
     public ApkModuleXmlEncoder(ApkModule module, TableBlock tableBlock){
         this.tableBlockEncoder = new XMLTableBlockEncoder(module, tableBlock);
+        this.xmlEncodeSourceList = new ArrayList<>();
+    }
+
+    /**
+     * Sets number of threads used to encode xml files, default is 1 (xml files are encoded
+     * lazily while writing). Values less than 1 are treated as number of available processors.
+     * Encoded files are identical regardless of thread count.
+     * */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+    }
+    public int getThreadCount() {
+        return threadCount;
     }
 
     @Override
@@ -45,12 +65,45 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         buildTableBlock(mainDirectory);
         encodeManifestXml(mainDirectory);
         scanResFilesDirectory(mainDirectory);
+        encodeXmlSources();
     }
     @Override
     public ApkModule getApkModule(){
         return tableBlockEncoder.getApkModule();
     }
 
+    // The resource table is complete at this point and only read while encoding, xml sources
+    // are submitted and collected in registration order thus logs and errors are deterministic.
+    private void encodeXmlSources() throws IOException {
+        List<XMLEncodeSource> sourceList = this.xmlEncodeSourceList;
+        int threadCount = getThreadCount();
+        if(threadCount <= 1 || sourceList.size() < 2){
+            sourceList.clear();
+            return;
+        }
+        logMessage("Encode threads: " + threadCount);
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "xml-encode");
+        OrderedTaskQueue<XMLEncodeSource> queue = new OrderedTaskQueue<>(executor, threadCount * 2);
+        try {
+            for(XMLEncodeSource xmlEncodeSource : sourceList){
+                while (queue.isFull()){
+                    queue.takeNext();
+                }
+                logVerbose("Encoding: " + xmlEncodeSource.getAlias());
+                queue.submit(() -> {
+                    xmlEncodeSource.encodeNow();
+                    return xmlEncodeSource;
+                });
+            }
+            while (queue.hasPending()){
+                queue.takeNext();
+            }
+        } finally {
+            queue.cancelAll();
+            executor.shutdownNow();
+            sourceList.clear();
+        }
+    }
     private void buildTableBlock(File mainDirectory) throws IOException {
         XMLTableBlockEncoder tableBlockEncoder = this.tableBlockEncoder;
         tableBlockEncoder.scanMainDirectory(mainDirectory);
@@ -95,6 +148,7 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
         xmlEncodeSource.setMethod(Archive.STORED);
         xmlEncodeSource.setSort(0);
         getApkModule().add(xmlEncodeSource);
+        xmlEncodeSourceList.add(xmlEncodeSource);
     }
     private void scanResFilesDirectory(File mainDirectory) {
         File resFilesDirectory = new File(mainDirectory, TableBlock.RES_FILES_DIRECTORY_NAME);
@@ -122,6 +176,7 @@ public class ApkModuleXmlEncoder extends ApkModuleEncoder{
                     new XMLEncodeSource(entry.getPackageBlock(), xmlSource);
             xmlEncodeSource.setApkLogger(getApkLogger());
             getApkModule().add(xmlEncodeSource);
+            xmlEncodeSourceList.add(xmlEncodeSource);
         }else {
             FileInputSource inputSource = new FileInputSource(file, path);
             getApkModule().add(inputSource);
@@ -0,0 +1,205 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.apk.framework;
+
+import com.reandroid.apk.FrameworkApk;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Thread safe cache of loaded frameworks keyed by version. The most recently used
+ * frameworks are strongly held up to max size, evicted ones are kept as soft references
+ * until the garbage collector claims them. Loading is serialized per version only.
+ */
+public class FrameworkCache {
+
+    private final Object mLock = new Object();
+    private final LinkedHashMap<Integer, FrameworkApk> strongMap;
+    private final Map<Integer, SoftReference<FrameworkApk>> softMap;
+    private final Map<Integer, Object> versionLocks;
+    private int maxSize;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public FrameworkCache(int maxSize){
+        this.strongMap = new LinkedHashMap<>(16, 0.75f, true);
+        this.softMap = new HashMap<>();
+        this.versionLocks = new HashMap<>();
+        this.maxSize = Math.max(1, maxSize);
+    }
+    public FrameworkCache(){
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public FrameworkApk get(int version, Loader loader) throws IOException {
+        FrameworkApk frameworkApk = getCached(version);
+        if(frameworkApk != null){
+            return frameworkApk;
+        }
+        synchronized (getVersionLock(version)){
+            frameworkApk = peek(version);
+            if(frameworkApk != null){
+                return frameworkApk;
+            }
+            frameworkApk = loader.load(version);
+            if(frameworkApk != null){
+                // parse table before publishing, so that sharing threads don't race on lazy load
+                frameworkApk.getTableBlock();
+                put(version, frameworkApk);
+            }
+            return frameworkApk;
+        }
+    }
+    public FrameworkApk getCached(int version){
+        synchronized (mLock){
+            FrameworkApk frameworkApk = peekUnlocked(version);
+            if(frameworkApk != null){
+                hitCount ++;
+            }else {
+                missCount ++;
+            }
+            return frameworkApk;
+        }
+    }
+    private FrameworkApk peek(int version){
+        synchronized (mLock){
+            return peekUnlocked(version);
+        }
+    }
+    private FrameworkApk peekUnlocked(int version){
+        FrameworkApk frameworkApk = strongMap.get(version);
+        if(frameworkApk != null){
+            if(!frameworkApk.isDestroyed()){
+                return frameworkApk;
+            }
+            strongMap.remove(version);
+        }
+        SoftReference<FrameworkApk> reference = softMap.remove(version);
+        if(reference == null){
+            return null;
+        }
+        frameworkApk = reference.get();
+        if(frameworkApk == null || frameworkApk.isDestroyed()){
+            return null;
+        }
+        putUnlocked(version, frameworkApk);
+        return frameworkApk;
+    }
+    public void put(int version, FrameworkApk frameworkApk){
+        synchronized (mLock){
+            putUnlocked(version, frameworkApk);
+        }
+    }
+    private void putUnlocked(int version, FrameworkApk frameworkApk){
+        softMap.remove(version);
+        strongMap.put(version, frameworkApk);
+        trimUnlocked();
+    }
+    private void trimUnlocked(){
+        Iterator<Map.Entry<Integer, FrameworkApk>> iterator = strongMap.entrySet().iterator();
+        int excess = strongMap.size() - maxSize;
+        while (excess > 0 && iterator.hasNext()){
+            Map.Entry<Integer, FrameworkApk> eldest = iterator.next();
+            iterator.remove();
+            softMap.put(eldest.getKey(), new SoftReference<>(eldest.getValue()));
+            evictionCount ++;
+            excess --;
+        }
+        Iterator<SoftReference<FrameworkApk>> softIterator = softMap.values().iterator();
+        while (softIterator.hasNext()){
+            if(softIterator.next().get() == null){
+                softIterator.remove();
+            }
+        }
+    }
+    private Object getVersionLock(int version){
+        synchronized (versionLocks){
+            return versionLocks.computeIfAbsent(version, key -> new Object());
+        }
+    }
+    public void remove(int version){
+        synchronized (mLock){
+            strongMap.remove(version);
+            softMap.remove(version);
+        }
+    }
+    public void clear(){
+        synchronized (mLock){
+            strongMap.clear();
+            softMap.clear();
+        }
+    }
+    public int size(){
+        synchronized (mLock){
+            return strongMap.size();
+        }
+    }
+    public int getMaxSize(){
+        synchronized (mLock){
+            return maxSize;
+        }
+    }
+    public void setMaxSize(int maxSize){
+        synchronized (mLock){
+            this.maxSize = Math.max(1, maxSize);
+            trimUnlocked();
+        }
+    }
+    public long getHitCount(){
+        synchronized (mLock){
+            return hitCount;
+        }
+    }
+    public long getMissCount(){
+        synchronized (mLock){
+            return missCount;
+        }
+    }
+    public long getEvictionCount(){
+        synchronized (mLock){
+            return evictionCount;
+        }
+    }
+    public void resetStatistics(){
+        synchronized (mLock){
+            hitCount = 0;
+            missCount = 0;
+            evictionCount = 0;
+        }
+    }
+    @Override
+    public String toString(){
+        synchronized (mLock){
+            return "size=" + strongMap.size() + "/" + maxSize
+                    + ", soft=" + softMap.size()
+                    + ", hits=" + hitCount
+                    + ", misses=" + missCount
+                    + ", evictions=" + evictionCount;
+        }
+    }
+
+    public interface Loader {
+        FrameworkApk load(int version) throws IOException;
+    }
+
+    public static final int DEFAULT_MAX_SIZE = 4;
+}
@@ -28,10 +28,16 @@ public class InternalFrameworks extends FrameworkManager{
 
     public static final InternalFrameworks INSTANCE = new InternalFrameworks();
 
+    private final FrameworkCache frameworkCache;
     private Map<Integer, String> resourcePaths;
 
     private InternalFrameworks(){
         super();
+        this.frameworkCache = new FrameworkCache();
+    }
+
+    public FrameworkCache getFrameworkCache() {
+        return frameworkCache;
     }
 
     @Override
@@ -43,38 +49,25 @@ public class InternalFrameworks extends FrameworkManager{
         if(nearest == null){
             return null;
         }
-        synchronized (AndroidFrameworks.class){
-            int best = nearest;
-            FrameworkApk current = getCurrent();
-            if(current != null && best == current.getVersionCode()){
-                return current;
-            }
-            try {
-                return loadResource(best);
-            } catch (IOException exception) {
-                throw new RuntimeException(exception);
-            }
+        int best = nearest;
+        FrameworkApk current = getCurrent();
+        if(current != null && best == current.getVersionCode()){
+            return current;
         }
+        return loadCached(best);
     }
     @Override
     public FrameworkApk getLatest() {
-        synchronized (AndroidFrameworks.class){
-            int latest = getLatestVersion();
-            FrameworkApk current = getCurrent();
-            if(current != null && latest == current.getVersionCode()){
-                return current;
-            }
-            FrameworkApk frameworkApk;
-            try {
-                frameworkApk = loadResource(latest);
-            } catch (IOException exception) {
-                throw new RuntimeException(exception);
-            }
-            if(current == null){
-                setCurrent(frameworkApk);
-            }
-            return frameworkApk;
+        int latest = getLatestVersion();
+        FrameworkApk current = getCurrent();
+        if(current != null && latest == current.getVersionCode()){
+            return current;
+        }
+        FrameworkApk frameworkApk = loadCached(latest);
+        if(current == null){
+            setCurrent(frameworkApk);
         }
+        return frameworkApk;
     }
     @Override
     public Integer getNearestVersion(int version) {
@@ -130,6 +123,13 @@ public class InternalFrameworks extends FrameworkManager{
             return resourcePaths;
         }
     }
+    private FrameworkApk loadCached(int version) {
+        try {
+            return frameworkCache.get(version, this::loadResource);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
     private FrameworkApk loadResource(int version) throws IOException {
         String path = getResourcePaths().get(version);
         if(path == null){
@@ -57,21 +57,34 @@ public class XMLEncodeSource extends ByteInputSource {
     public void disposeInputSource(){
         array = DISPOSED;
     }
+    /**
+     * Encodes now instead of on first read, does nothing if already encoded.
+     * Can be called from a worker thread as long as this source is not read
+     * by other threads meanwhile.
+     * */
+    public void encodeNow() throws IOException{
+        if(array == null){
+            array = encodeBytes();
+        }
+    }
     private byte[] getArray() throws IOException{
         if(array != null){
             return array;
         }
+        logVerbose("Encoding: " + parserSource.getPath());
+        array = encodeBytes();
+        return array;
+    }
+    private byte[] encodeBytes() throws IOException{
         try {
-            array = encode().getBytes();
+            return encode().getBytes();
         } catch (XmlPullParserException ex) {
             throw new IOException(ex);
         }
-        return array;
     }
     private ResXmlDocument encode() throws XmlPullParserException, IOException {
         XMLParserSource parserSource = this.parserSource;
         String path = parserSource.getPath();
-        logVerbose("Encoding: " + path);
         XmlPullParser parser = parserSource.getParser();
         ResXmlDocument resXmlDocument;
         if (AndroidManifest.FILE_NAME.equals(path)) {
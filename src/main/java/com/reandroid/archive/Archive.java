@@ -39,17 +39,46 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
     private final T zipInput;
     private final ArchiveEntry[] entryList;
     private final EndRecord endRecord;
-    private final ApkSignatureBlock apkSignatureBlock;
+    private ApkSignatureBlock apkSignatureBlock;
+    private volatile CentralFileDirectory mLazyDirectory;
+    private volatile ArchiveNameIndex mNameIndex;
 
     public Archive(T zipInput) throws IOException {
+        this(zipInput, false);
+    }
+    /**
+     * @param centralDirectoryOnly when true only end record and central directory are read,
+     *                             local file headers are read on first access of each entry
+     *                             and signature block on first call of {@link #getApkSignatureBlock()}
+     *                             (entry getters then throw {@link IllegalStateException}
+     *                             if local header can not be read)
+     * */
+    public Archive(T zipInput, boolean centralDirectoryOnly) throws IOException {
         this.zipInput = zipInput;
         CentralFileDirectory cfd = new CentralFileDirectory();
-        cfd.visit(zipInput);
+        cfd.visit(zipInput, !centralDirectoryOnly);
         this.endRecord = cfd.getEndRecord();
-        LocalFileDirectory lfd = new LocalFileDirectory(cfd);
-        lfd.visit(zipInput);
-        this.entryList  = lfd.buildArchiveEntryList();
-        this.apkSignatureBlock = lfd.getApkSigBlock();
+        if(centralDirectoryOnly){
+            this.entryList = buildLazyEntryList(cfd);
+            this.mLazyDirectory = cfd;
+        }else {
+            LocalFileDirectory lfd = new LocalFileDirectory(cfd);
+            lfd.visit(zipInput);
+            this.entryList  = lfd.buildArchiveEntryList();
+            this.apkSignatureBlock = lfd.getApkSigBlock();
+            for(ArchiveEntry entry : entryList){
+                entry.setArchive(this);
+            }
+        }
+    }
+    private ArchiveEntry[] buildLazyEntryList(CentralFileDirectory cfd){
+        List<CentralEntryHeader> headerList = cfd.getHeaderList();
+        int size = headerList.size();
+        ArchiveEntry[] entryList = new ArchiveEntry[size];
+        for(int i = 0; i < size; i++){
+            entryList[i] = new LazyArchiveEntry(this, headerList.get(i), i);
+        }
+        return entryList;
     }
 
     public ZipEntryMap createZipEntryMap(){
@@ -93,25 +122,49 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
 
     abstract InputSource createInputSource(ArchiveEntry entry);
     public InputSource getEntrySource(String path){
+        ArchiveEntry entry = getEntry(path);
+        if(entry != null){
+            return createInputSource(entry);
+        }
+        return null;
+    }
+    public ArchiveEntry getEntry(String path){
         if(path == null){
             return null;
         }
-        ArchiveEntry[] entryList = this.entryList;
-        int length = entryList.length;
-        for(int i = 0; i < length; i++){
-            ArchiveEntry entry = entryList[i];
-            if(entry.isDirectory()){
-                continue;
-            }
-            if(path.equals(entry.getName())){
-                return createInputSource(entry);
+        return getNameIndex().find(path);
+    }
+    private ArchiveNameIndex getNameIndex(){
+        ArchiveNameIndex nameIndex = this.mNameIndex;
+        if(nameIndex == null){
+            synchronized (this){
+                nameIndex = this.mNameIndex;
+                if(nameIndex == null){
+                    nameIndex = new ArchiveNameIndex(this.entryList);
+                    this.mNameIndex = nameIndex;
+                }
             }
         }
-        return null;
+        return nameIndex;
+    }
+    void onEntryRenamed(){
+        synchronized (this){
+            this.mNameIndex = null;
+        }
     }
     public InputStream openRawInputStream(ArchiveEntry archiveEntry) throws IOException {
         return zipInput.getInputStream(archiveEntry.getFileOffset(), archiveEntry.getDataSize());
     }
+    /**
+     * Opens raw entry stream that does not share read position with any other stream
+     * of this archive, safe to read concurrently.
+     * */
+    InputStream openIndependentRawStream(ArchiveEntry archiveEntry) throws IOException {
+        return openIndependentStream(archiveEntry.getFileOffset(), archiveEntry.getDataSize());
+    }
+    InputStream openIndependentStream(long offset, long length) throws IOException {
+        return zipInput.getInputStream(offset, length);
+    }
     public InputStream openInputStream(ArchiveEntry archiveEntry) throws IOException {
         InputStream rawInputStream = openRawInputStream(archiveEntry);
         if(!archiveEntry.isCompressed()){
@@ -133,6 +186,20 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         return entryList.length;
     }
     public ApkSignatureBlock getApkSignatureBlock() {
+        CentralFileDirectory cfd = this.mLazyDirectory;
+        if(cfd != null){
+            synchronized (this){
+                if(this.mLazyDirectory != null){
+                    try {
+                        cfd.loadSignatureFooter(zipInput);
+                        this.apkSignatureBlock = LocalFileDirectory.readApkSigBlock(cfd, zipInput);
+                    } catch (IOException exception) {
+                        throw new IllegalStateException("Failed to read signature block", exception);
+                    }
+                    this.mLazyDirectory = null;
+                }
+            }
+        }
         return apkSignatureBlock;
     }
     public EndRecord getEndRecord() {
@@ -149,14 +216,18 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         return extractAll(dir, filter, null);
     }
     public int extractAll(File dir, Predicate<ArchiveEntry> filter, APKLogger logger) throws IOException {
-        Iterator<ArchiveEntry> iterator = iterator(filter);
-        int result = 0;
-        while (iterator.hasNext()){
-            ArchiveEntry archiveEntry = iterator.next();
-            extract(toFile(dir, archiveEntry), archiveEntry, logger);
-            result ++;
-        }
-        return result;
+        return extractAll(dir, filter, logger, 1);
+    }
+    /**
+     * Extracts entries using the given number of threads, values less than 1 are
+     * treated as number of available processors.
+     * */
+    public int extractAll(File dir, Predicate<ArchiveEntry> filter, APKLogger logger, int threadCount) throws IOException {
+        ArchiveExtractor extractor = new ArchiveExtractor(this, dir);
+        extractor.setFilter(filter);
+        extractor.setAPKLogger(logger);
+        extractor.setThreadCount(threadCount);
+        return extractor.extractAll();
     }
     public void extract(File file, ArchiveEntry archiveEntry) throws IOException{
         extract(file, archiveEntry, null);
@@ -182,7 +253,7 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         applyAttributes(archiveEntry, file);
     }
     @SuppressWarnings("ResultOfMethodCallIgnored")
-    private void applyAttributes(ArchiveEntry archiveEntry, File file) {
+    void applyAttributes(ArchiveEntry archiveEntry, File file) {
         FilePermissions permissions = archiveEntry.getFilePermissions();
         if(permissions.get() != 0) {
             permissions.apply(file);
@@ -190,15 +261,14 @@ public abstract class Archive<T extends ZipInput> implements Closeable {
         long time = Archive.dosToJavaDate(archiveEntry.getDosTime()).getTime();
         file.setLastModified(time);
     }
+    /**
+     * Writes STORED entry to file, implementations should be safe to call concurrently
+     * */
     abstract void extractStored(File file, ArchiveEntry archiveEntry) throws IOException;
     private void extractCompressed(File file, ArchiveEntry archiveEntry) throws IOException {
         FileOutputStream outputStream = new FileOutputStream(file);
         IOUtil.writeAll(openInputStream(archiveEntry), outputStream);
     }
-    private File toFile(File dir, ArchiveEntry archiveEntry){
-        String name = archiveEntry.getName().replace('/', File.separatorChar);
-        return new File(dir, name);
-    }
     @Override
     public void close() throws IOException {
         this.zipInput.close();
@@ -29,6 +29,9 @@ public class ArchiveBytes extends Archive<ZipByteInput>{
     public ArchiveBytes(ZipByteInput zipInput) throws IOException {
         super(zipInput);
     }
+    public ArchiveBytes(ZipByteInput zipInput, boolean centralDirectoryOnly) throws IOException {
+        super(zipInput, centralDirectoryOnly);
+    }
     public ArchiveBytes(byte[] array) throws IOException {
         super(new ZipByteInput(array));
     }
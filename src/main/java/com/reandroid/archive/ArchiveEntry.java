@@ -21,10 +21,13 @@ import com.reandroid.utils.HexUtil;
 import com.reandroid.utils.io.FilePermissions;
 
 public class ArchiveEntry {
-    private final LocalFileHeader localFileHeader;
+    private volatile LocalFileHeader localFileHeader;
+    private Archive<?> mArchive;
     public ArchiveEntry(LocalFileHeader lfh){
         this.localFileHeader = lfh;
     }
+    ArchiveEntry(){
+    }
     public long getDataSize(){
         if(getMethod() != Archive.DEFLATED){
             return getSize();
@@ -36,49 +39,53 @@ public class ArchiveEntry {
         return getMethod() == Archive.DEFLATED;
     }
     public int getMethod(){
-        return localFileHeader.getMethod();
+        return getLocalFileHeader().getMethod();
     }
     public void setMethod(int method){
-        localFileHeader.setMethod(method);
+        getLocalFileHeader().setMethod(method);
         getCentralEntryHeader().setMethod(method);
     }
     public long getSize() {
-        return localFileHeader.getSize();
+        return getLocalFileHeader().getSize();
     }
     public void setSize(long size) {
-        localFileHeader.setSize(size);
+        getLocalFileHeader().setSize(size);
         getCentralEntryHeader().setSize(size);
     }
     public long getCrc() {
-        return localFileHeader.getCrc();
+        return getLocalFileHeader().getCrc();
     }
     public void setCrc(long crc) {
-        localFileHeader.setCrc(crc);
+        getLocalFileHeader().setCrc(crc);
         getCentralEntryHeader().setCrc(crc);
     }
     public long getCompressedSize() {
-        return localFileHeader.getCompressedSize();
+        return getLocalFileHeader().getCompressedSize();
     }
     public void setCompressedSize(long csize) {
-        localFileHeader.setCompressedSize(csize);
+        getLocalFileHeader().setCompressedSize(csize);
         getCentralEntryHeader().setCompressedSize(csize);
     }
     public long getFileOffset() {
-        return localFileHeader.getFileOffset();
+        return getLocalFileHeader().getFileOffset();
     }
     public String getName(){
-        return localFileHeader.getFileName();
+        return getLocalFileHeader().getFileName();
     }
     public String getSanitizedName(){
-        String name = ArchiveUtil.sanitizePath(localFileHeader.getFileName());
+        String name = ArchiveUtil.sanitizePath(getName());
         if(name == null){
-            name = ".error_file_path_" + localFileHeader.getIndex();
+            name = ".error_file_path_" + getHeaderIndex();
         }
         return name;
     }
     public void setName(String name){
-        localFileHeader.setFileName(name);
+        getLocalFileHeader().setFileName(name);
         getCentralEntryHeader().setFileName(name);
+        Archive<?> archive = this.mArchive;
+        if(archive != null){
+            archive.onEntryRenamed();
+        }
     }
     public String getComment(){
         return getCentralEntryHeader().getComment();
@@ -96,6 +103,7 @@ public class ArchiveEntry {
         return getCentralEntryHeader().getFilePermissions();
     }
     public CentralEntryHeader getCentralEntryHeader(){
+        LocalFileHeader localFileHeader = getLocalFileHeader();
         CentralEntryHeader ceh = localFileHeader.getCentralEntryHeader();
         if(ceh == null){
             ceh = CentralEntryHeader.fromLocalFileHeader(localFileHeader);
@@ -106,6 +114,24 @@ public class ArchiveEntry {
     public LocalFileHeader getLocalFileHeader() {
         return localFileHeader;
     }
+    /**
+     * Returns local file header if already read, never reads it
+     * */
+    LocalFileHeader peekLocalFileHeader() {
+        return localFileHeader;
+    }
+    void setLocalFileHeader(LocalFileHeader localFileHeader) {
+        this.localFileHeader = localFileHeader;
+    }
+    Archive<?> getArchive(){
+        return mArchive;
+    }
+    void setArchive(Archive<?> archive){
+        this.mArchive = archive;
+    }
+    int getHeaderIndex(){
+        return getLocalFileHeader().getIndex();
+    }
     public long getDosTime(){
         return getCentralEntryHeader().getDosTime();
     }
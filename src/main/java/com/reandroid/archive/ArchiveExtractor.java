@@ -0,0 +1,278 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.apk.APKLogger;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Extracts archive entries to directory. Directories are created once per
+ * {@link PathTree} node before extraction, then entries are shared across
+ * workers each owning its own {@link Inflater} and copy buffer. Every worker reads
+ * entries using independent positional streams, thus never shares channel position.
+ * */
+public class ArchiveExtractor {
+    private final Archive<?> archive;
+    private final File dir;
+    private Predicate<? super ArchiveEntry> filter;
+    private APKLogger apkLogger;
+    private int threadCount = 1;
+    private Executor executor;
+
+    private ArchiveEntry[] entries;
+    private final AtomicInteger nextIndex;
+    private final AtomicInteger extractedCount;
+
+    public ArchiveExtractor(Archive<?> archive, File dir){
+        this.archive = archive;
+        this.dir = dir;
+        this.nextIndex = new AtomicInteger();
+        this.extractedCount = new AtomicInteger();
+    }
+
+    public void setFilter(Predicate<? super ArchiveEntry> filter) {
+        this.filter = filter;
+    }
+    public void setAPKLogger(APKLogger logger) {
+        this.apkLogger = logger;
+    }
+    /**
+     * Number of extracting threads, values less than 1 are treated as number of
+     * available processors
+     * */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+    }
+    public int getThreadCount() {
+        return threadCount;
+    }
+    /**
+     * Executor to run extracting workers, not shutdown by this class
+     * */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public int extractAll() throws IOException {
+        Iterator<ArchiveEntry> iterator = archive.iterator(filter);
+        List<ArchiveEntry> entryList = new ArrayList<>(archive.size());
+        int result = 0;
+        while (iterator.hasNext()){
+            ArchiveEntry archiveEntry = iterator.next();
+            result ++;
+            if(archiveEntry.isDirectory()){
+                // directories are made from parents of extracted files
+                continue;
+            }
+            entryList.add(archiveEntry);
+        }
+        this.entries = entryList.toArray(new ArchiveEntry[0]);
+        this.nextIndex.set(0);
+        this.extractedCount.set(0);
+        createDirectories();
+        int threadCount = getThreadCount();
+        if(threadCount <= 1 && executor == null || entries.length < 2){
+            new Worker().call();
+        }else {
+            logMessage("Extracting: " + entries.length + ", threads = " + threadCount);
+            runWorkers(threadCount);
+        }
+        return result;
+    }
+    private void runWorkers(int threadCount) throws IOException {
+        Executor executor = this.executor;
+        ExecutorService ownExecutor = null;
+        if(executor == null){
+            ownExecutor = ConcurrentUtil.newFixedPool(threadCount, "archive-extract");
+            executor = ownExecutor;
+        }
+        List<FutureTask<Void>> taskList = new ArrayList<>(threadCount);
+        try {
+            for(int i = 0; i < threadCount; i++){
+                FutureTask<Void> task = new FutureTask<>(new Worker());
+                taskList.add(task);
+                executor.execute(task);
+            }
+            for(Future<Void> future : taskList){
+                future.get();
+            }
+        } catch (ExecutionException exception) {
+            throw ConcurrentUtil.toIOException(exception);
+        } catch (InterruptedException exception) {
+            throw ConcurrentUtil.toIOException(exception);
+        } finally {
+            nextIndex.set(entries.length);
+            for(Future<Void> future : taskList){
+                future.cancel(true);
+            }
+            if(ownExecutor != null){
+                ownExecutor.shutdownNow();
+            }
+        }
+    }
+    private void createDirectories() {
+        PathTree<ArchiveEntry> root = PathTree.newRoot();
+        ArchiveEntry[] entries = this.entries;
+        for(ArchiveEntry archiveEntry : entries){
+            root.add(archiveEntry.getName(), archiveEntry);
+        }
+        File dir = this.dir;
+        if(!dir.isDirectory()){
+            dir.mkdirs();
+        }
+        createDirectories(dir, root);
+    }
+    private void createDirectories(File parent, PathTree<ArchiveEntry> pathTree) {
+        for(PathTree<ArchiveEntry> element : pathTree){
+            if(!element.isDirectory() || element.size() == 0){
+                continue;
+            }
+            String name = element.getName();
+            if(name.length() < 2){
+                continue;
+            }
+            File file = new File(parent, name.substring(0, name.length() - 1));
+            if(!file.mkdir() && !file.isDirectory()){
+                continue;
+            }
+            createDirectories(file, element);
+        }
+    }
+    private ArchiveEntry nextEntry(){
+        ArchiveEntry[] entries = this.entries;
+        int index = nextIndex.getAndIncrement();
+        if(index < entries.length){
+            return entries[index];
+        }
+        return null;
+    }
+    private void onExtracted(ArchiveEntry archiveEntry){
+        int count = extractedCount.incrementAndGet();
+        APKLogger logger = this.apkLogger;
+        if(logger == null){
+            return;
+        }
+        long size = archiveEntry.getDataSize();
+        if(size > LOG_LARGE_FILE_SIZE){
+            logVerbose("Extracted ["
+                    + FileUtil.toReadableFileSize(size) + "] "+ archiveEntry.getName());
+        }else if(count % LOG_INTERVAL == 0){
+            logVerbose("Extracted: " + count + "/" + entries.length);
+        }
+    }
+    private File toFile(ArchiveEntry archiveEntry){
+        String name = archiveEntry.getName().replace('/', File.separatorChar);
+        return new File(dir, name);
+    }
+    private void logMessage(String msg) {
+        APKLogger logger = this.apkLogger;
+        if(logger != null){
+            synchronized (logger){
+                logger.logMessage(msg);
+            }
+        }
+    }
+    private void logVerbose(String msg) {
+        APKLogger logger = this.apkLogger;
+        if(logger != null){
+            synchronized (logger){
+                logger.logVerbose(msg);
+            }
+        }
+    }
+
+    class Worker implements Callable<Void> {
+        private final Inflater inflater;
+        private final byte[] buffer;
+        Worker(){
+            this.inflater = new Inflater(true);
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+        @Override
+        public Void call() throws IOException {
+            try {
+                extractEntries();
+            } finally {
+                inflater.end();
+            }
+            return null;
+        }
+        void extractEntries() throws IOException {
+            ArchiveEntry archiveEntry;
+            while (!Thread.currentThread().isInterrupted()
+                    && (archiveEntry = nextEntry()) != null){
+                File file = toFile(archiveEntry);
+                try {
+                    extract(file, archiveEntry);
+                } catch (FileNotFoundException ignored) {
+                    FileUtil.ensureParentDirectory(file);
+                    extract(file, archiveEntry);
+                }
+                archive.applyAttributes(archiveEntry, file);
+                onExtracted(archiveEntry);
+            }
+        }
+        private void extract(File file, ArchiveEntry archiveEntry) throws IOException {
+            if(archiveEntry.getMethod() == Archive.STORED){
+                archive.extractStored(file, archiveEntry);
+                return;
+            }
+            InputStream inputStream = archive.openIndependentRawStream(archiveEntry);
+            Inflater inflater = null;
+            if(archiveEntry.isCompressed()){
+                inflater = this.inflater;
+                inflater.reset();
+                inputStream = new InflaterInputStream(inputStream, inflater, INFLATER_BUFFER_SIZE);
+            }
+            OutputStream outputStream = new FileOutputStream(file);
+            try {
+                byte[] buffer = this.buffer;
+                int read;
+                while ((read = inputStream.read(buffer, 0, buffer.length)) > 0){
+                    outputStream.write(buffer, 0, read);
+                }
+            } finally {
+                outputStream.close();
+                inputStream.close();
+            }
+        }
+    }
+    private static final int BUFFER_SIZE = 1024 * 64;
+    private static final int INFLATER_BUFFER_SIZE = 1024 * 16;
+    private static final int LOG_INTERVAL = 500;
+    private static final long LOG_LARGE_FILE_SIZE = 1024 * 1000 * 20;
+}
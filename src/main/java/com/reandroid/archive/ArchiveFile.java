@@ -16,11 +16,13 @@
 package com.reandroid.archive;
 
 import com.reandroid.archive.io.ArchiveFileEntrySource;
+import com.reandroid.archive.io.PositionalInputStream;
 import com.reandroid.archive.io.ZipFileInput;
 import com.reandroid.utils.io.FileUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.channels.FileChannel;
 
 public class ArchiveFile extends Archive<ZipFileInput>{
@@ -28,20 +30,38 @@ public class ArchiveFile extends Archive<ZipFileInput>{
     public ArchiveFile(ZipFileInput zipInput) throws IOException {
         super(zipInput);
     }
+    public ArchiveFile(ZipFileInput zipInput, boolean centralDirectoryOnly) throws IOException {
+        super(zipInput, centralDirectoryOnly);
+    }
     public ArchiveFile(File file) throws IOException {
         this(new ZipFileInput(file));
     }
+    public ArchiveFile(File file, boolean centralDirectoryOnly) throws IOException {
+        this(new ZipFileInput(file), centralDirectoryOnly);
+    }
 
     @Override
     InputSource createInputSource(ArchiveEntry entry) {
         return new ArchiveFileEntrySource(getZipInput(), entry);
     }
     @Override
+    InputStream openIndependentStream(long offset, long length) throws IOException {
+        return new PositionalInputStream(getZipInput().getFileChannel(), offset, length);
+    }
+    @Override
     void extractStored(File file, ArchiveEntry archiveEntry) throws IOException {
         FileChannel outputChannel = FileUtil.openWriteChannel(file);
         FileChannel fileChannel = getZipInput().getFileChannel();
-        fileChannel.position(archiveEntry.getFileOffset());
-        outputChannel.transferFrom(fileChannel, 0, archiveEntry.getDataSize());
+        long offset = archiveEntry.getFileOffset();
+        long remaining = archiveEntry.getDataSize();
+        while (remaining > 0){
+            long count = fileChannel.transferTo(offset, remaining, outputChannel);
+            if(count <= 0){
+                break;
+            }
+            offset += count;
+            remaining -= count;
+        }
         outputChannel.close();
     }
 }
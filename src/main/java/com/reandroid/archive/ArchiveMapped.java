@@ -0,0 +1,66 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.io.ArchiveMappedEntrySource;
+import com.reandroid.archive.io.ZipMappedInput;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Archive over memory mapped file, entries can be read concurrently
+ * and STORED entries are available as zero-copy {@link ByteBuffer} slices.
+ * */
+public class ArchiveMapped extends Archive<ZipMappedInput> {
+
+    public ArchiveMapped(ZipMappedInput zipInput) throws IOException {
+        super(zipInput);
+    }
+    public ArchiveMapped(ZipMappedInput zipInput, boolean centralDirectoryOnly) throws IOException {
+        super(zipInput, centralDirectoryOnly);
+    }
+    public ArchiveMapped(File file) throws IOException {
+        this(new ZipMappedInput(file));
+    }
+    public ArchiveMapped(File file, boolean centralDirectoryOnly) throws IOException {
+        this(new ZipMappedInput(file), centralDirectoryOnly);
+    }
+
+    public ByteBuffer getRawByteBuffer(ArchiveEntry archiveEntry) throws IOException {
+        return getZipInput().getByteBuffer(archiveEntry.getFileOffset(),
+                archiveEntry.getDataSize());
+    }
+    public ByteBuffer getByteBuffer(ArchiveEntry archiveEntry) throws IOException {
+        return new ArchiveMappedEntrySource(getZipInput(), archiveEntry).getByteBuffer();
+    }
+    @Override
+    InputSource createInputSource(ArchiveEntry entry) {
+        return new ArchiveMappedEntrySource(getZipInput(), entry);
+    }
+    @Override
+    void extractStored(File file, ArchiveEntry archiveEntry) throws IOException {
+        FileChannel outputChannel = FileUtil.openWriteChannel(file);
+        ByteBuffer buffer = getRawByteBuffer(archiveEntry);
+        while (buffer.hasRemaining()){
+            outputChannel.write(buffer);
+        }
+        outputChannel.close();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.block.CentralEntryHeader;
+import com.reandroid.archive.block.CommonHeader;
+import com.reandroid.archive.block.LocalFileHeader;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Open addressing hash index of entry names as returned by {@link ArchiveEntry#getName()}.
+ * Names are hashed and compared directly from raw central directory bytes, so building
+ * the index neither decodes names nor reads local headers of lazy entries. Entries whose
+ * name is not plain ASCII, or whose already read local header name differs from central,
+ * are indexed by {@link ArchiveEntry#getName()} instead.
+ * The owning archive drops the index whenever an entry is renamed.
+ * */
+class ArchiveNameIndex {
+    private final ArchiveEntry[] entries;
+    private final boolean[] byName;
+    private final int[] slots;
+    private final int[] hashes;
+    private final int mask;
+
+    ArchiveNameIndex(ArchiveEntry[] entries){
+        this.entries = entries;
+        int length = entries.length;
+        int capacity = 8;
+        while (capacity < length * 2){
+            capacity = capacity << 1;
+        }
+        this.mask = capacity - 1;
+        this.slots = new int[capacity];
+        this.hashes = new int[capacity];
+        boolean[] byName = new boolean[length];
+        this.byName = byName;
+        for(int i = 0; i < length; i++){
+            ArchiveEntry entry = entries[i];
+            if(entry == null){
+                continue;
+            }
+            CentralEntryHeader ceh = entry.getCentralEntryHeader();
+            LocalFileHeader lfh = entry.peekLocalFileHeader();
+            int hash;
+            if(ceh.isAsciiFileName() && (lfh == null || ceh.equalsFileName(lfh))){
+                hash = ceh.hashFileName();
+            }else {
+                byName[i] = true;
+                hash = hashName(entry.getName());
+            }
+            put(i, hash);
+        }
+    }
+    private void put(int index, int hash){
+        int[] slots = this.slots;
+        int mask = this.mask;
+        int i = mix(hash) & mask;
+        while (slots[i] != 0){
+            i = (i + 1) & mask;
+        }
+        slots[i] = index + 1;
+        hashes[i] = hash;
+    }
+    /**
+     * Returns first non-directory entry in archive order with the given name
+     * */
+    ArchiveEntry find(String name){
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = CommonHeader.hashName(nameBytes, 0, nameBytes.length);
+        int[] slots = this.slots;
+        int[] hashes = this.hashes;
+        int mask = this.mask;
+        int i = mix(hash) & mask;
+        int slot;
+        while ((slot = slots[i]) != 0){
+            if(hashes[i] == hash){
+                int index = slot - 1;
+                ArchiveEntry entry = entries[index];
+                if(matches(index, entry, name, nameBytes) && !entry.isDirectory()){
+                    return entry;
+                }
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+    private boolean matches(int index, ArchiveEntry entry, String name, byte[] nameBytes){
+        if(byName[index]){
+            return name.equals(entry.getName());
+        }
+        return entry.getCentralEntryHeader().equalsFileName(nameBytes);
+    }
+    private static int hashName(String name){
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        return CommonHeader.hashName(nameBytes, 0, nameBytes.length);
+    }
+    private static int mix(int hash){
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive;
+
+import com.reandroid.archive.block.CentralEntryHeader;
+import com.reandroid.archive.block.LocalFileHeader;
+import com.reandroid.archive.model.LocalFileDirectory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Archive entry backed only by its central directory header, the local file header is
+ * read on first access to anything that needs it (e.g. data offset).
+ * Until then name, sizes and method are taken from central directory, thus looking up,
+ * filtering or listing entries does not read any local header. Once resolved, the name
+ * is taken from local file header as {@link ArchiveEntry#getName()} does; if it differs
+ * from the central name the archive name index is dropped.
+ * If reading local file header fails, the getter throws {@link IllegalStateException}
+ * wrapping the cause {@link IOException}.
+ * */
+class LazyArchiveEntry extends ArchiveEntry {
+    private final CentralEntryHeader centralEntryHeader;
+    private final int index;
+
+    LazyArchiveEntry(Archive<?> archive, CentralEntryHeader ceh, int index){
+        super();
+        setArchive(archive);
+        this.centralEntryHeader = ceh;
+        this.index = index;
+    }
+
+    boolean isResolved(){
+        return peekLocalFileHeader() != null;
+    }
+    @Override
+    public LocalFileHeader getLocalFileHeader() {
+        LocalFileHeader lfh = peekLocalFileHeader();
+        if(lfh == null){
+            lfh = resolveLocalFileHeader();
+        }
+        return lfh;
+    }
+    private synchronized LocalFileHeader resolveLocalFileHeader() {
+        LocalFileHeader lfh = peekLocalFileHeader();
+        if(lfh != null){
+            return lfh;
+        }
+        CentralEntryHeader ceh = this.centralEntryHeader;
+        long offset = ceh.getLocalRelativeOffset();
+        Archive<?> archive = getArchive();
+        try {
+            InputStream inputStream = archive.openIndependentStream(offset,
+                    archive.getZipInput().getLength() - offset);
+            lfh = LocalFileDirectory.readLocalFileHeader(inputStream, offset, ceh, index);
+            inputStream.close();
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to read local file header of: "
+                    + ceh.getFileName(), exception);
+        }
+        setLocalFileHeader(lfh);
+        if(!ceh.equalsFileName(lfh)){
+            archive.onEntryRenamed();
+        }
+        return lfh;
+    }
+    @Override
+    public CentralEntryHeader getCentralEntryHeader() {
+        return centralEntryHeader;
+    }
+    @Override
+    public int getMethod() {
+        if(isResolved()){
+            return super.getMethod();
+        }
+        return centralEntryHeader.getMethod();
+    }
+    @Override
+    public long getSize() {
+        if(isResolved()){
+            return super.getSize();
+        }
+        return centralEntryHeader.getSize();
+    }
+    @Override
+    public long getCrc() {
+        if(isResolved()){
+            return super.getCrc();
+        }
+        return centralEntryHeader.getCrc();
+    }
+    @Override
+    public long getCompressedSize() {
+        if(isResolved()){
+            return super.getCompressedSize();
+        }
+        return centralEntryHeader.getCompressedSize();
+    }
+    @Override
+    public String getName() {
+        if(isResolved()){
+            return super.getName();
+        }
+        return centralEntryHeader.getFileName();
+    }
+    @Override
+    int getHeaderIndex() {
+        return index;
+    }
+}
@@ -305,6 +305,70 @@ public abstract class CommonHeader extends ZipHeader {
         System.arraycopy(nameBytes, 0, bytes, offsetFileName, length);
         mFileName = fileName;
     }
+    /**
+     * Hash of raw file name bytes, same as {@link #hashName(byte[], int, int)} of UTF-8
+     * encoded file name but computed without decoding.
+     * */
+    public int hashFileName(){
+        byte[] bytes = getBytesInternal();
+        return hashName(bytes, offsetFileName, getFileNameBytesLength(bytes));
+    }
+    public boolean equalsFileName(byte[] nameBytes){
+        byte[] bytes = getBytesInternal();
+        int length = getFileNameBytesLength(bytes);
+        if(length != nameBytes.length){
+            return false;
+        }
+        int offset = offsetFileName;
+        for(int i = 0; i < length; i++){
+            if(bytes[offset + i] != nameBytes[i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    public boolean equalsFileName(CommonHeader header){
+        byte[] bytes = getBytesInternal();
+        byte[] bytes2 = header.getBytesInternal();
+        int length = getFileNameBytesLength(bytes);
+        if(length != header.getFileNameBytesLength(bytes2)){
+            return false;
+        }
+        int offset = offsetFileName;
+        int offset2 = header.offsetFileName;
+        for(int i = 0; i < length; i++){
+            if(bytes[offset + i] != bytes2[offset2 + i]){
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Returns true if all raw file name bytes are ASCII, thus decoded name has
+     * exactly the same UTF-8 bytes
+     * */
+    public boolean isAsciiFileName(){
+        byte[] bytes = getBytesInternal();
+        int offset = offsetFileName;
+        int end = offset + getFileNameBytesLength(bytes);
+        for(int i = offset; i < end; i++){
+            if(bytes[i] < 0){
+                return false;
+            }
+        }
+        return true;
+    }
+    private int getFileNameBytesLength(byte[] bytes){
+        int length = getFileNameLength();
+        int max = bytes.length - offsetFileName;
+        if(max <= 0){
+            return 0;
+        }
+        if(length > max){
+            length = max;
+        }
+        return length;
+    }
     public boolean isUtf8(){
         return getGeneralPurposeFlag().getUtf8();
     }
@@ -377,6 +441,15 @@ public abstract class CommonHeader extends ZipHeader {
         return builder.toString();
     }
 
+    public static int hashName(byte[] bytes, int offset, int length){
+        int hash = 0x811c9dc5;
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            hash ^= bytes[i] & 0xff;
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
     static boolean isZip64Value(long value){
         return value == 0xffffffffL || (value & 0xffffffff00000000L) != 0;
     }
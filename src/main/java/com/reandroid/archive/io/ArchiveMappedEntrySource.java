@@ -0,0 +1,118 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import com.reandroid.archive.Archive;
+import com.reandroid.archive.ArchiveEntry;
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class ArchiveMappedEntrySource extends ArchiveEntrySource<ZipMappedInput> {
+
+    public ArchiveMappedEntrySource(ZipMappedInput zipInput, ArchiveEntry archiveEntry){
+        super(zipInput, archiveEntry);
+        setSort(archiveEntry.getIndex());
+    }
+
+    /**
+     * Returns read-only slice of raw entry data as stored in archive (possibly deflated)
+     * */
+    public ByteBuffer getRawByteBuffer() throws IOException {
+        ArchiveEntry archiveEntry = getArchiveEntry();
+        return getZipSource().getByteBuffer(archiveEntry.getFileOffset(),
+                archiveEntry.getDataSize());
+    }
+    /**
+     * Returns read-only buffer of uncompressed entry data, for STORED entries this is
+     * a zero-copy slice of the mapped file.
+     * */
+    public ByteBuffer getByteBuffer() throws IOException {
+        if(isStored()){
+            return getRawByteBuffer();
+        }
+        long size = getArchiveEntry().getSize();
+        if(size < 0 || size > Integer.MAX_VALUE){
+            throw new IOException("Too large to buffer: " + size);
+        }
+        byte[] bytes = new byte[(int) size];
+        int read = readFully(bytes);
+        return ByteBuffer.wrap(bytes, 0, read).asReadOnlyBuffer();
+    }
+    @Override
+    public byte[] getBytes(int length) throws IOException {
+        if(!isStored()){
+            return super.getBytes(length);
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = getRawByteBuffer();
+        if(length > buffer.remaining()){
+            length = buffer.remaining();
+        }
+        buffer.get(bytes, 0, length);
+        return bytes;
+    }
+    @Override
+    public long write(OutputStream outputStream) throws IOException {
+        if(!isStored()){
+            return super.write(outputStream);
+        }
+        ByteBuffer buffer = getRawByteBuffer();
+        long result = buffer.remaining();
+        byte[] bytes = new byte[(int) Math.min(result, BUFFER_SIZE)];
+        while (buffer.hasRemaining()){
+            int length = Math.min(bytes.length, buffer.remaining());
+            buffer.get(bytes, 0, length);
+            outputStream.write(bytes, 0, length);
+        }
+        return result;
+    }
+    @Override
+    public void write(File file) throws IOException {
+        if(!isStored()){
+            super.write(file);
+            return;
+        }
+        FileChannel outputChannel = FileUtil.openWriteChannel(file);
+        ByteBuffer buffer = getRawByteBuffer();
+        while (buffer.hasRemaining()){
+            outputChannel.write(buffer);
+        }
+        outputChannel.close();
+    }
+    private int readFully(byte[] bytes) throws IOException {
+        InputStream inputStream = openStream();
+        int length = bytes.length;
+        int result = 0;
+        int read;
+        while (result < length && (read = inputStream.read(bytes, result, length - result)) > 0){
+            result += read;
+        }
+        inputStream.close();
+        return result;
+    }
+    private boolean isStored(){
+        return getMethod() == Archive.STORED
+                && getArchiveEntry().getMethod() == Archive.STORED;
+    }
+
+    private static final int BUFFER_SIZE = 1024 * 1000;
+}
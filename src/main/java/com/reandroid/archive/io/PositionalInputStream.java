@@ -0,0 +1,111 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of file channel using absolute positional reads, the channel position
+ * is never touched thus many streams can read the same channel concurrently.
+ * */
+public class PositionalInputStream extends InputStream {
+    private final FileChannel fileChannel;
+    private final long offset;
+    private final long length;
+    private long position;
+    private long mark;
+
+    public PositionalInputStream(FileChannel fileChannel, long offset, long length){
+        this.fileChannel = fileChannel;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] bytes = new byte[1];
+        if(read(bytes, 0, 1) != 1){
+            return -1;
+        }
+        return bytes[0] & 0xff;
+    }
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        long available = length - position;
+        if(available <= 0){
+            return -1;
+        }
+        if(len > available){
+            len = (int) available;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, off, len);
+        int result = 0;
+        while (buffer.hasRemaining()){
+            int read = fileChannel.read(buffer, offset + position + result);
+            if(read < 0){
+                break;
+            }
+            result += read;
+        }
+        if(result == 0){
+            return -1;
+        }
+        position += result;
+        return result;
+    }
+    @Override
+    public long skip(long amount) {
+        if(amount <= 0){
+            return 0;
+        }
+        long available = length - position;
+        if(amount > available){
+            amount = available;
+        }
+        position += amount;
+        return amount;
+    }
+    @Override
+    public int available() {
+        long available = length - position;
+        if(available > Integer.MAX_VALUE){
+            return Integer.MAX_VALUE;
+        }
+        return (int) available;
+    }
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    @Override
+    public synchronized void mark(int readLimit) {
+        this.mark = position;
+    }
+    @Override
+    public synchronized void reset() {
+        this.position = mark;
+    }
+    @Override
+    public void close() {
+        position = length;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.archive.io;
+
+import com.reandroid.utils.io.FileUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only zip input backed by memory mapped chunks of the file. Streams and buffers
+ * returned from this class do not share any position, so many threads can read
+ * different entries at the same time.
+ * */
+public class ZipMappedInput extends ZipInput {
+    private final File file;
+    private final int chunkSize;
+    private volatile MappedChunks mappedChunks;
+    private long position;
+
+    public ZipMappedInput(File file, int chunkSize){
+        if(chunkSize <= 0){
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+    public ZipMappedInput(File file){
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    public File getFile(){
+        return file;
+    }
+    /**
+     * Returns read-only buffer of the given range, position and limit are independent of
+     * any other reader. The returned buffer shares content with the mapped file unless
+     * the range crosses chunk boundary.
+     * */
+    public ByteBuffer getByteBuffer(long offset, long length) throws IOException {
+        if(length > Integer.MAX_VALUE){
+            throw new IOException("Too large to buffer: " + length);
+        }
+        checkRange(offset, length);
+        int size = (int) length;
+        if(size == 0){
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        MappedByteBuffer[] chunks = getMappedChunks().buffers;
+        int index = (int) (offset / chunkSize);
+        int start = (int) (offset % chunkSize);
+        if(start + size <= chunks[index].capacity()){
+            ByteBuffer buffer = chunks[index].duplicate();
+            buffer.position(start);
+            buffer.limit(start + size);
+            return buffer.slice().asReadOnlyBuffer();
+        }
+        byte[] bytes = new byte[size];
+        read(offset, bytes, 0, size);
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+    public int read(long offset, byte[] bytes, int off, int length) throws IOException {
+        MappedChunks mappedChunks = getMappedChunks();
+        long available = mappedChunks.length - offset;
+        if(available <= 0){
+            return -1;
+        }
+        if(length > available){
+            length = (int) available;
+        }
+        MappedByteBuffer[] chunks = mappedChunks.buffers;
+        int result = 0;
+        while (length > 0){
+            int index = (int) (offset / chunkSize);
+            int start = (int) (offset % chunkSize);
+            ByteBuffer buffer = chunks[index].duplicate();
+            int count = buffer.capacity() - start;
+            if(count > length){
+                count = length;
+            }
+            buffer.position(start);
+            buffer.get(bytes, off, count);
+            offset += count;
+            off += count;
+            length -= count;
+            result += count;
+        }
+        return result;
+    }
+    @Override
+    public long position() {
+        return position;
+    }
+    @Override
+    public void position(long pos) {
+        this.position = pos;
+    }
+    @Override
+    public long getLength() throws IOException {
+        return getMappedChunks().length;
+    }
+    @Override
+    public InputStream getInputStream(long offset, long length) throws IOException {
+        checkRange(offset, length);
+        return new MappedInputStream(this, offset, length);
+    }
+    @Override
+    public byte[] getFooter(int minLength) throws IOException {
+        long length = getLength();
+        if(minLength > length){
+            minLength = (int) length;
+        }
+        byte[] bytes = new byte[minLength];
+        read(length - minLength, bytes, 0, minLength);
+        return bytes;
+    }
+    private void checkRange(long offset, long length) throws IOException {
+        long fileLength = getLength();
+        if(offset < 0 || length < 0 || offset + length > fileLength){
+            throw new IOException("Out of range: offset = " + offset
+                    + ", length = " + length + ", file length = " + fileLength);
+        }
+    }
+    private MappedChunks getMappedChunks() throws IOException {
+        MappedChunks mappedChunks = this.mappedChunks;
+        if(mappedChunks != null){
+            return mappedChunks;
+        }
+        synchronized (this){
+            mappedChunks = this.mappedChunks;
+            if(mappedChunks == null){
+                mappedChunks = mapChunks();
+                this.mappedChunks = mappedChunks;
+            }
+            return mappedChunks;
+        }
+    }
+    private MappedChunks mapChunks() throws IOException {
+        FileChannel fileChannel = FileUtil.openReadChannel(file);
+        try {
+            long length = fileChannel.size();
+            int chunkSize = this.chunkSize;
+            int count = (int) ((length + chunkSize - 1) / chunkSize);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for(int i = 0; i < count; i++){
+                long offset = (long) i * chunkSize;
+                long size = length - offset;
+                if(size > chunkSize){
+                    size = chunkSize;
+                }
+                chunks[i] = fileChannel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+            }
+            return new MappedChunks(chunks, length);
+        } finally {
+            fileChannel.close();
+        }
+    }
+    @Override
+    public void close() {
+        synchronized (this){
+            this.mappedChunks = null;
+        }
+    }
+    @Override
+    public boolean isOpen() {
+        return mappedChunks != null;
+    }
+    @Override
+    public String toString(){
+        return "Mapped: " + this.file;
+    }
+
+    // buffers and length are published together, readers never see one without the other
+    static class MappedChunks {
+        final MappedByteBuffer[] buffers;
+        final long length;
+
+        MappedChunks(MappedByteBuffer[] buffers, long length){
+            this.buffers = buffers;
+            this.length = length;
+        }
+    }
+
+    static class MappedInputStream extends InputStream {
+        private final ZipMappedInput zipInput;
+        private final long offset;
+        private final long length;
+        private long position;
+        private long mark;
+
+        MappedInputStream(ZipMappedInput zipInput, long offset, long length){
+            this.zipInput = zipInput;
+            this.offset = offset;
+            this.length = length;
+        }
+        @Override
+        public int read() throws IOException {
+            byte[] bytes = new byte[1];
+            if(read(bytes, 0, 1) != 1){
+                return -1;
+            }
+            return bytes[0] & 0xff;
+        }
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if(len == 0){
+                return 0;
+            }
+            long available = length - position;
+            if(available <= 0){
+                return -1;
+            }
+            if(len > available){
+                len = (int) available;
+            }
+            int read = zipInput.read(offset + position, bytes, off, len);
+            if(read > 0){
+                position += read;
+            }
+            return read;
+        }
+        @Override
+        public long skip(long amount) {
+            if(amount <= 0){
+                return 0;
+            }
+            long available = length - position;
+            if(amount > available){
+                amount = available;
+            }
+            position += amount;
+            return amount;
+        }
+        @Override
+        public int available() {
+            long available = length - position;
+            if(available > Integer.MAX_VALUE){
+                return Integer.MAX_VALUE;
+            }
+            return (int) available;
+        }
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+        @Override
+        public synchronized void mark(int readLimit) {
+            this.mark = position;
+        }
+        @Override
+        public synchronized void reset() {
+            this.position = mark;
+        }
+        @Override
+        public void close() {
+            position = length;
+        }
+    }
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+}
@@ -44,13 +44,23 @@ public class CentralFileDirectory {
         return endRecord;
     }
     public void visit(ZipInput zipInput) throws IOException {
+        visit(zipInput, true);
+    }
+    public void visit(ZipInput zipInput, boolean findSignatureFooter) throws IOException {
         EndRecord endRecord = new EndRecord();
         endRecord.findEndRecord(zipInput);
         InputStream inputStream = zipInput.getInputStream(endRecord.getOffsetOfCentralDirectory(),
                 endRecord.getLengthOfCentralDirectory());
         this.endRecord = endRecord;
         this.headerList = loadCentralFileHeaders(inputStream, endRecord.getTotalNumberOfDirectories());
-        this.signatureFooter = tryFindSignatureFooter(zipInput, endRecord);
+        if(findSignatureFooter){
+            loadSignatureFooter(zipInput);
+        }
+    }
+    public SignatureFooter loadSignatureFooter(ZipInput zipInput) throws IOException {
+        SignatureFooter signatureFooter = tryFindSignatureFooter(zipInput, getEndRecord());
+        this.signatureFooter = signatureFooter;
+        return signatureFooter;
     }
     private List<CentralEntryHeader> loadCentralFileHeaders(InputStream inputStream, int capacity) throws IOException {
         List<CentralEntryHeader> headerList = new ArrayList<>(capacity);
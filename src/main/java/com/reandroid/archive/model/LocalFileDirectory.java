@@ -50,45 +50,55 @@ public class LocalFileDirectory {
             offset = ceh.getLocalRelativeOffset();
             inputStream.reset();
             offset = inputStream.skip(offset);
-            LocalFileHeader lfh = LocalFileHeader.read(inputStream);
-            if(lfh == null){
-                throw new ArchiveException("Error reading LFH at "
-                        + offset + ", for CEH = " + ceh.getFileName());
-            }
-            offset = offset + lfh.countBytes();
-            ceh.setFileOffset(offset);
-
-            lfh.setCentralEntryHeader(ceh);
-
-            inputStream.skip(lfh.getDataSize());
-
-            lfh.updateDataDescriptor();
-            DataDescriptor dataDescriptor = lfh.getDataDescriptor();
-            if(dataDescriptor != null) {
-                int read = dataDescriptor.readBytes(inputStream);
-                if(read != dataDescriptor.countBytes()) {
-                    lfh.setHasDataDescriptor(false);
-                }
-            }
-            lfh.setIndex(index);
+            LocalFileHeader lfh = readLocalFileHeader(inputStream, offset, ceh, index);
 
             headerList.add(lfh);
 
             index++;
         }
     }
-    private void visitApkSigBlock(ZipInput zipInput) throws IOException{
-        CentralFileDirectory cfd = getCentralFileDirectory();
+    /**
+     * Reads local file header (and data descriptor if any) of the given central entry,
+     * the stream should be positioned at the start of local header i.e. at offset.
+     * */
+    public static LocalFileHeader readLocalFileHeader(InputStream inputStream, long offset,
+                                                      CentralEntryHeader ceh, int index) throws IOException {
+        LocalFileHeader lfh = LocalFileHeader.read(inputStream);
+        if(lfh == null){
+            throw new ArchiveException("Error reading LFH at "
+                    + offset + ", for CEH = " + ceh.getFileName());
+        }
+        offset = offset + lfh.countBytes();
+        ceh.setFileOffset(offset);
+
+        lfh.setCentralEntryHeader(ceh);
+
+        lfh.updateDataDescriptor();
+        DataDescriptor dataDescriptor = lfh.getDataDescriptor();
+        if(dataDescriptor != null) {
+            inputStream.skip(lfh.getDataSize());
+            int read = dataDescriptor.readBytes(inputStream);
+            if(read != dataDescriptor.countBytes()) {
+                lfh.setHasDataDescriptor(false);
+            }
+        }
+        lfh.setIndex(index);
+        return lfh;
+    }
+    public void visitApkSigBlock(ZipInput zipInput) throws IOException{
+        this.apkSignatureBlock = readApkSigBlock(getCentralFileDirectory(), zipInput);
+    }
+    public static ApkSignatureBlock readApkSigBlock(CentralFileDirectory cfd, ZipInput zipInput) throws IOException{
         SignatureFooter footer = cfd.getSignatureFooter();
         if(footer == null || !footer.isValid()){
-            return;
+            return null;
         }
         EndRecord endRecord = cfd.getEndRecord();
         long length = footer.getSignatureSize() + 8;
         long offset = endRecord.getOffsetOfCentralDirectory() - length;
         ApkSignatureBlock apkSignatureBlock = new ApkSignatureBlock(footer);
         apkSignatureBlock.readBytes(new BlockReader(zipInput.getInputStream(offset, length)));
-        this.apkSignatureBlock = apkSignatureBlock;
+        return apkSignatureBlock;
     }
     public ApkSignatureBlock getApkSigBlock() {
         return apkSignatureBlock;
@@ -20,15 +20,51 @@ import com.reandroid.archive.RenamedInputSource;
 import com.reandroid.archive.io.ArchiveFileEntrySource;
 import com.reandroid.archive.io.ZipFileOutput;
 import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
+import com.reandroid.utils.concurrent.OrderedTaskQueue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
     private BufferFileInput buffer;
+    private int threadCount = 1;
+    private Executor executor;
     public ApkFileWriter(File file, InputSource[] sources) throws IOException {
         super(new ZipFileOutput(file), sources);
     }
+
+    /**
+     * Sets number of threads used to compress changed files, default is 1 (sequential).
+     * Values less than 1 are treated as number of available processors.
+     * Output bytes are identical regardless of thread count.
+     * */
+    public void setThreadCount(int threadCount) {
+        if(threadCount <= 0){
+            threadCount = ConcurrentUtil.availableProcessors();
+        }
+        this.threadCount = threadCount;
+    }
+    public int getThreadCount() {
+        return threadCount;
+    }
+    /**
+     * Sets executor for compressing changed files, when non-null a parallel compression
+     * is used with at most {@link #getThreadCount()} * 2 entries buffered in memory.
+     * The executor is not shutdown by this writer.
+     * */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+    public Executor getExecutor() {
+        return executor;
+    }
+    private boolean isParallel(){
+        return getExecutor() != null || getThreadCount() > 1;
+    }
     @Override
     void closeBuffer() throws IOException{
         buffer.close();
@@ -66,6 +102,16 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         File bufferFile = getBufferFile();
         BufferFileOutput output = new BufferFileOutput(bufferFile);
         BufferFileInput input = new BufferFileInput(bufferFile);
+        if(isParallel()){
+            writeBufferParallel(input, output, outputList);
+        }else {
+            writeBuffer(input, output, outputList);
+        }
+        output.close();
+        return input;
+    }
+    private void writeBuffer(BufferFileInput input, BufferFileOutput output,
+                             FileOutputSource[] outputList) throws IOException {
         FileOutputSource tableSource = null;
         int length = outputList.length;
         for(int i = 0; i < length; i++){
@@ -83,8 +129,61 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         if(tableSource != null){
             tableSource.makeBuffer(input, output);
         }
-        output.close();
-        return input;
+    }
+    private void writeBufferParallel(BufferFileInput input, BufferFileOutput output,
+                                     FileOutputSource[] outputList) throws IOException {
+        Executor executor = getExecutor();
+        ExecutorService ownExecutor = null;
+        if(executor == null){
+            ownExecutor = ConcurrentUtil.newFixedPool(getThreadCount(), "apk-compress");
+            executor = ownExecutor;
+        }
+        logMessage("Compress threads: " + getThreadCount());
+        OrderedTaskQueue<FileOutputSource> queue =
+                new OrderedTaskQueue<>(executor, getThreadCount() * 2);
+        try {
+            FileOutputSource tableSource = null;
+            int length = outputList.length;
+            for(int i = 0; i < length; i++){
+                FileOutputSource fileOutputSource = outputList[i];
+                InputSource inputSource = fileOutputSource.getInputSource();
+                if(tableSource == null && TableBlock.FILE_NAME.equals(inputSource.getAlias())){
+                    tableSource = fileOutputSource;
+                    continue;
+                }
+                if(fileOutputSource.makeBufferFromEntry()){
+                    onCompressFileProgress(inputSource.getAlias(),
+                            inputSource.getMethod(),
+                            output.position());
+                    continue;
+                }
+                while (queue.isFull()){
+                    appendCompressed(input, output, queue);
+                }
+                byte[] raw = fileOutputSource.readRawBytes();
+                queue.submit(new CompressTask(fileOutputSource, raw));
+            }
+            while (queue.hasPending()){
+                appendCompressed(input, output, queue);
+            }
+            if(tableSource != null){
+                tableSource.makeBuffer(input, output);
+            }
+        } finally {
+            queue.cancelAll();
+            if(ownExecutor != null){
+                ownExecutor.shutdownNow();
+            }
+        }
+    }
+    private void appendCompressed(BufferFileInput input, BufferFileOutput output,
+                                  OrderedTaskQueue<FileOutputSource> queue) throws IOException {
+        FileOutputSource fileOutputSource = queue.takeNext();
+        InputSource inputSource = fileOutputSource.getInputSource();
+        onCompressFileProgress(inputSource.getAlias(),
+                inputSource.getMethod(),
+                output.position());
+        fileOutputSource.appendBuffer(input, output);
     }
     private File getBufferFile(){
         File file = getZipOutput().getFile();
@@ -100,4 +199,20 @@ public class ApkFileWriter extends ApkWriter<ZipFileOutput, FileOutputSource> {
         bufFile.deleteOnExit();
         return bufFile;
     }
+
+    static class CompressTask implements Callable<FileOutputSource> {
+        private final FileOutputSource fileOutputSource;
+        private byte[] raw;
+        CompressTask(FileOutputSource fileOutputSource, byte[] raw){
+            this.fileOutputSource = fileOutputSource;
+            this.raw = raw;
+        }
+        @Override
+        public FileOutputSource call() throws IOException {
+            FileOutputSource fileOutputSource = this.fileOutputSource;
+            fileOutputSource.compressRawBytes(raw);
+            this.raw = null;
+            return fileOutputSource;
+        }
+    }
 }
@@ -15,16 +15,21 @@
  */
 package com.reandroid.archive.writer;
 
+import com.reandroid.archive.ByteInputSource;
+import com.reandroid.archive.FileInputSource;
 import com.reandroid.archive.InputSource;
 import com.reandroid.archive.block.LocalFileHeader;
 import com.reandroid.archive.io.ZipFileOutput;
+import com.reandroid.archive.io.ZipByteOutput;
 import com.reandroid.archive.io.ZipOutput;
+import com.reandroid.common.BytesOutputStream;
 
 import java.io.IOException;
 import java.nio.channels.FileChannel;
 
 class FileOutputSource extends OutputSource {
     private EntryBuffer entryBuffer;
+    private byte[] compressedBytes;
 
     FileOutputSource(InputSource inputSource){
         super(inputSource);
@@ -41,6 +46,33 @@ class FileOutputSource extends OutputSource {
         }
         this.entryBuffer = writeBuffer(input, output);
     }
+    boolean makeBufferFromEntry(){
+        if(this.entryBuffer != null){
+            return true;
+        }
+        EntryBuffer entryBuffer = makeFromEntry();
+        this.entryBuffer = entryBuffer;
+        return entryBuffer != null;
+    }
+    byte[] readRawBytes() throws IOException {
+        InputSource inputSource = getInputSource();
+        BytesOutputStream outputStream = new BytesOutputStream(initialRawCapacity(inputSource));
+        inputSource.write(outputStream);
+        inputSource.disposeInputSource();
+        return outputStream.toByteArray();
+    }
+    void compressRawBytes(byte[] raw) throws IOException {
+        ZipByteOutput output = new ZipByteOutput();
+        writeBuffer(output, new ByteInputSource(raw, getInputSource().getName()));
+        this.compressedBytes = output.toByteArray();
+    }
+    void appendBuffer(BufferFileInput input, BufferFileOutput output) throws IOException {
+        byte[] compressed = this.compressedBytes;
+        this.compressedBytes = null;
+        long offset = output.position();
+        output.getOutputStream().write(compressed);
+        this.entryBuffer = new EntryBuffer(input, offset, compressed.length);
+    }
     private EntryBuffer writeBuffer(BufferFileInput input, ZipOutput output) throws IOException {
         long offset = output.position();
         writeBuffer(output);
@@ -59,12 +91,19 @@ class FileOutputSource extends OutputSource {
         writeData(input, entryBuffer.getLength(), zipFileOutput);
         writeDD(zipFileOutput);
     }
+    private static int initialRawCapacity(InputSource inputSource){
+        if(inputSource instanceof FileInputSource){
+            long length = ((FileInputSource) inputSource).getLength();
+            if(length > 0 && length < Integer.MAX_VALUE){
+                return (int) length;
+            }
+        }
+        return 1024;
+    }
     private void writeData(FileChannel input, long length, ZipFileOutput apkFileWriter) throws IOException{
         long offset = apkFileWriter.position();
         LocalFileHeader lfh = getLocalFileHeader();
         lfh.setFileOffset(offset);
         apkFileWriter.write(input, length);
     }
-
-
 }
@@ -42,6 +42,11 @@ class OutputSource {
     }
 
     void writeBuffer(ZipOutput zipOutput) throws IOException {
+        InputSource inputSource = getInputSource();
+        writeBuffer(zipOutput, inputSource);
+        inputSource.disposeInputSource();
+    }
+    void writeBuffer(ZipOutput zipOutput, InputSource dataSource) throws IOException {
         LocalFileHeader lfh = getLocalFileHeader();
         InputSource inputSource = getInputSource();
         OutputStream rawStream = zipOutput.getOutputStream();
@@ -55,11 +60,11 @@ class OutputSource {
         }
         if(deflateCounter != null){
             rawCounter.disableCrc(true);
-            inputSource.write(deflateCounter);
+            dataSource.write(deflateCounter);
             deflateCounter.close();
             rawCounter.close();
         }else {
-            inputSource.write(rawCounter);
+            dataSource.write(rawCounter);
         }
 
         lfh.setCompressedSize(rawCounter.getSize());
@@ -73,7 +78,6 @@ class OutputSource {
             lfh.setMethod(Archive.STORED);
             lfh.setCrc(rawCounter.getCrc32());
         }
-        inputSource.disposeInputSource();
     }
     void writeCEH(ZipOutput zipOutput) throws IOException{
         LocalFileHeader lfh = getLocalFileHeader();
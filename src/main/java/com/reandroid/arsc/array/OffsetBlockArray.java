@@ -76,16 +76,6 @@ public abstract class OffsetBlockArray<T extends Block> extends BlockArray<T> im
         getAlignItem().onCountUpTo(counter);
     }
     @Override
-    public byte[] getBytes(){
-        byte[] results = super.getBytes();
-        if(results == null){
-            return null;
-        }
-        byte[] alignBytes = alignItem.getBytes();
-        results = addBytes(results, alignBytes);
-        return results;
-    }
-    @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
         int result = super.onWriteBytes(stream);
         if(result == 0){
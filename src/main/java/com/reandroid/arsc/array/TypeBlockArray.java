@@ -20,7 +20,7 @@ import com.reandroid.arsc.chunk.ChunkType;
 import com.reandroid.arsc.chunk.SpecBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.container.SpecTypePair;
-import com.reandroid.arsc.header.HeaderBlock;
+import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.TypeHeader;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.TypeString;
@@ -318,11 +318,10 @@ public class TypeBlockArray extends BlockArray<TypeBlock>
         this.mQualifiersMap = null;
     }
     private boolean readTypeBlockArray(BlockReader reader) throws IOException{
-        HeaderBlock headerBlock=reader.readHeaderBlock();
-        if(headerBlock==null){
+        if(reader.available() < InfoHeader.INFO_MIN_SIZE){
             return false;
         }
-        ChunkType chunkType=headerBlock.getChunkType();
+        ChunkType chunkType=ChunkType.get(reader.readShort());
         if(chunkType!=ChunkType.TYPE){
             return false;
         }
@@ -17,6 +17,7 @@ package com.reandroid.arsc.base;
 
 import com.reandroid.arsc.io.BlockLoad;
 import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.common.BytesOutputStream;
 import com.reandroid.utils.HexUtil;
 import com.reandroid.utils.ObjectsUtil;
 
@@ -66,6 +67,26 @@ public abstract class Block {
         return onWriteBytes(stream);
     }
     protected abstract int onWriteBytes(OutputStream stream) throws IOException;
+    /**
+     * Writes this block into a single array sized from {@link #countBytes()},
+     * children write in place instead of concatenating their own arrays.
+     * Returns null when nothing is written, the same as joining empty children.
+     * @throws IllegalStateException if a child fails to write
+     */
+    protected final byte[] writeToByteArray(){
+        BytesOutputStream outputStream = new BytesOutputStream(countBytes());
+        try {
+            onWriteBytes(outputStream);
+            outputStream.close();
+        } catch (IOException exception) {
+            throw new IllegalStateException("Failed to write "
+                    + getClass().getSimpleName(), exception);
+        }
+        if(outputStream.size() == 0){
+            return null;
+        }
+        return outputStream.toByteArray();
+    }
     public boolean isNull(){
         return mNull;
     }
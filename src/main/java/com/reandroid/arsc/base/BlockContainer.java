@@ -101,19 +101,7 @@ public abstract class BlockContainer<T extends Block> extends Block implements B
         if(isNull()){
             return null;
         }
-        T[] childes = getChildes();
-        if(childes == null){
-            return null;
-        }
-        byte[] results = null;
-        int length = childes.length;
-        for(int i = 0; i < length; i++){
-            T item = childes[i];
-            if(item != null){
-                results = addBytes(results, item.getBytes());
-            }
-        }
-        return results;
+        return writeToByteArray();
     }
     @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
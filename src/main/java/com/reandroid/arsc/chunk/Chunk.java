@@ -29,6 +29,9 @@ public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContai
     private final T mHeaderBlock;
     private final SingleBlockContainer<Block> firstPlaceHolder;
     private AlignItem alignItem;
+    private Object mRefreshSession;
+    private Object mSizeSession;
+    private int mRefreshedSize;
 
     protected Chunk(T headerBlock, SingleBlockContainer<Block> firstPlaceHolder, int initialChildesCount) {
         super(initialChildesCount + (firstPlaceHolder == null ? 2 : 3));
@@ -65,16 +68,60 @@ public abstract class Chunk<T extends HeaderBlock> extends ExpandableBlockContai
         return mHeaderBlock;
     }
     @Override
+    protected void onPreRefresh() {
+        Object session = findRefreshSession(getParent());
+        if (session == null) {
+            session = new Object();
+        }
+        this.mRefreshSession = session;
+        this.mSizeSession = null;
+        super.onPreRefresh();
+    }
+    @Override
     protected final void onRefreshed() {
-        updateAlign();
-        getHeaderBlock().refreshHeader();
-        onChunkRefreshed();
+        this.mSizeSession = null;
+        try {
+            this.mRefreshedSize = updateAlign();
+            this.mSizeSession = this.mRefreshSession;
+            getHeaderBlock().refreshHeader();
+            onChunkRefreshed();
+        } finally {
+            this.mRefreshSession = null;
+        }
+    }
+    @Override
+    public int countBytes() {
+        Object session = this.mSizeSession;
+        if (session != null && session == findRefreshSession(this)) {
+            return mRefreshedSize;
+        }
+        return super.countBytes();
     }
 
-    private void updateAlign() {
+    private int updateAlign() {
         AlignItem alignItem = getAlignItem();
         alignItem.setSize(0);
-        alignItem.align(this);
+        int count = super.countBytes();
+        return count + alignItem.align(count);
+    }
+    /**
+     * Returns a token shared by all chunks refreshed under the same outermost
+     * {@link #refresh()} call, or null when no enclosing chunk is refreshing.
+     * Sizes computed during refresh are re-used only while this token is
+     * unchanged, so parents do not walk the whole subtree again for their own
+     * header and alignment.
+     */
+    public static Object findRefreshSession(Block block) {
+        while (block != null) {
+            if (block instanceof Chunk) {
+                Object session = ((Chunk<?>) block).mRefreshSession;
+                if (session != null) {
+                    return session;
+                }
+            }
+            block = block.getParent();
+        }
+        return null;
     }
     protected abstract void onChunkRefreshed();
     public void onChunkLoaded() {
@@ -51,8 +51,7 @@ public enum ChunkType {
     }
 
     public static ChunkType get(short id){
-        ChunkType[] all=values();
-        for(ChunkType t:all){
+        for(ChunkType t:VALUES){
             if(t.ID ==id){
                 return t;
             }
@@ -77,6 +76,8 @@ public enum ChunkType {
         return null;
     }
 
+    private static final ChunkType[] VALUES = values();
+
     private static final ChunkType[] table_chunk_types=new ChunkType[]{
             PACKAGE,
             TYPE,
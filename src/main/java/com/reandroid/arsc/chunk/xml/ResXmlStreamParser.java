@@ -0,0 +1,1012 @@
+/*
+  *  Copyright (C) 2022 github.com/REAndroid
+  *
+  *  Licensed under the Apache License, Version 2.0 (the "License");
+  *  you may not use this file except in compliance with the License.
+  *  You may obtain a copy of the License at
+  *
+  *      http://www.apache.org/licenses/LICENSE-2.0
+  *
+  * Unless required by applicable law or agreed to in writing, software
+  * distributed under the License is distributed on an "AS IS" BASIS,
+  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  * See the License for the specific language governing permissions and
+  * limitations under the License.
+  */
+package com.reandroid.arsc.chunk.xml;
+
+import android.content.res.XmlResourceParser;
+import com.reandroid.arsc.chunk.ChunkType;
+import com.reandroid.arsc.coder.ValueCoder;
+import com.reandroid.arsc.coder.XmlSanitizer;
+import com.reandroid.arsc.item.StringItem;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.ObjectsUtil;
+import com.reandroid.utils.StringsUtil;
+import com.reandroid.utils.io.IOUtil;
+import com.reandroid.xml.XMLUtil;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * A pull parser walking binary xml chunk bytes directly, no {@link ResXmlNode} tree nor string
+ * items are created. Strings are decoded by pool index on first use and attributes are decoded
+ * only when requested, suitable for scanning many files e.g. reading manifest values or class
+ * names from layouts. Events are reported the same way as {@link ResXmlPullParser} does,
+ * attribute names are taken from string pool and references are decoded as hex ids since no
+ * package block is available, styled strings are returned as plain text and integer and
+ * id/class/style accessors follow android XmlBlock.
+ * See
+ * https://android.googlesource.com/platform/frameworks/base/+/main/core/java/android/content/res/XmlBlock.java
+ * */
+public class ResXmlStreamParser implements XmlResourceParser {
+
+    private final byte[] data;
+    private final int end;
+
+    private int stringsOffsetsStart;
+    private int stringsStart;
+    private int stringsEnd;
+    private int stringsCount;
+    private boolean utf8;
+    private String[] stringsCache;
+
+    private int resourceMapStart;
+    private int resourceMapCount;
+
+    private int nextChunk;
+    private int eventType;
+    private int pendingType;
+    private int depth;
+    private boolean closeElement;
+
+    private int lineNumber;
+    private int commentReference;
+    private int textReference;
+    private int elementNamespace;
+    private int elementName;
+    private int attributeStart;
+    private int attributeSize;
+    private int attributeCount;
+    private int idIndex;
+    private int classIndex;
+    private int styleIndex;
+
+    private int[] namespaces;
+    private int namespacesCount;
+    private int[] namespacesAtDepth;
+
+    private boolean processNamespaces;
+    private boolean reportNamespaceAttrs;
+
+    private Object location;
+
+    public ResXmlStreamParser(byte[] data) throws XmlPullParserException {
+        this(data, 0, data.length);
+    }
+    public ResXmlStreamParser(byte[] data, int offset, int length) throws XmlPullParserException {
+        this.data = data;
+        this.end = offset + length;
+        this.eventType = START_DOCUMENT;
+        this.pendingType = NONE;
+        this.textReference = -1;
+        this.stringsCache = EMPTY_STRINGS;
+        this.namespaces = new int[16];
+        this.namespacesAtDepth = new int[16];
+        this.processNamespaces = true;
+        this.reportNamespaceAttrs = true;
+        readDocumentHeader(offset);
+    }
+
+    public static ResXmlStreamParser read(InputStream inputStream) throws IOException {
+        try {
+            return new ResXmlStreamParser(IOUtil.readFully(inputStream));
+        } catch (XmlPullParserException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+    }
+
+    private void readDocumentHeader(int offset) throws XmlPullParserException {
+        if (end - offset < 8 || getShort(offset) != ChunkType.XML.ID) {
+            throw new XmlPullParserException("Not a binary xml", this, null);
+        }
+        int position = offset + getShortUnsigned(offset + 2);
+        int documentEnd = offset + getInteger(offset + 4);
+        if (documentEnd < position || documentEnd > end) {
+            documentEnd = end;
+        }
+        while (position + 8 <= documentEnd) {
+            int type = getShort(position);
+            int size = checkChunk(position, documentEnd);
+            if (type == ChunkType.STRING.ID) {
+                readStringPoolHeader(position, size);
+            } else if (type == ChunkType.XML_RESOURCE_MAP.ID) {
+                int headerSize = getShortUnsigned(position + 2);
+                resourceMapStart = position + headerSize;
+                resourceMapCount = (size - headerSize) / 4;
+            } else if (type >= ChunkType.XML_START_NAMESPACE.ID && type <= ChunkType.XML_LAST_CHUNK.ID) {
+                break;
+            }
+            position += size;
+        }
+        this.nextChunk = position;
+    }
+    // returns size of the chunk at position, after checking it is within the given end
+    private int checkChunk(int position, int end) throws XmlPullParserException {
+        int headerSize = getShortUnsigned(position + 2);
+        int size = getInteger(position + 4);
+        if (size < 8 || size > end - position || headerSize < 8 || headerSize > size) {
+            throw new XmlPullParserException("Invalid chunk header size = " + headerSize
+                    + ", chunk size = " + size + ", at " + position, this, null);
+        }
+        return size;
+    }
+    private void readStringPoolHeader(int position, int size) throws XmlPullParserException {
+        int headerSize = getShortUnsigned(position + 2);
+        int chunkEnd = position + size;
+        if (headerSize < 28) {
+            throw new XmlPullParserException("Invalid string pool header size = "
+                    + headerSize + ", at " + position, this, null);
+        }
+        int count = getInteger(position + 8);
+        int offsetsStart = position + headerSize;
+        int start = getInteger(position + 20);
+        if (count < 0 || count > (chunkEnd - offsetsStart) / 4) {
+            throw new XmlPullParserException("Invalid string pool count = "
+                    + count + ", at " + position, this, null);
+        }
+        if (count != 0 && (start < headerSize || start > size)) {
+            throw new XmlPullParserException("Invalid strings start = "
+                    + start + ", at " + position, this, null);
+        }
+        stringsCount = count;
+        utf8 = (getInteger(position + 16) & FLAG_UTF8) != 0;
+        stringsStart = position + start;
+        stringsEnd = chunkEnd;
+        stringsOffsetsStart = offsetsStart;
+        stringsCache = new String[count];
+    }
+    private String getString(int index) {
+        if (index < 0 || index >= stringsCount) {
+            return null;
+        }
+        String[] cache = this.stringsCache;
+        String str = cache[index];
+        if (str == null) {
+            int offset = getStringOffset(index);
+            if (getStringEnd(offset) < 0) {
+                // not reachable for strings checked by checkString
+                return null;
+            }
+            str = StringItem.decodeString(data, offset, utf8);
+            cache[index] = str;
+        }
+        return str;
+    }
+    private void checkString(int index) throws XmlPullParserException {
+        if (index < 0 || index >= stringsCount || stringsCache[index] != null) {
+            return;
+        }
+        int offset = getStringOffset(index);
+        if (getStringEnd(offset) < 0) {
+            throw new XmlPullParserException("Invalid string offset = " + offset
+                    + ", for index = " + index, this, null);
+        }
+    }
+    private int getStringOffset(int index) {
+        return stringsStart + getInteger(stringsOffsetsStart + index * 4);
+    }
+    // returns end of encoded string at offset or -1 if it does not fit in string pool
+    private int getStringEnd(int offset) {
+        int end = this.stringsEnd;
+        if (offset < stringsStart || offset >= end) {
+            return -1;
+        }
+        byte[] data = this.data;
+        long length;
+        int position;
+        if (utf8) {
+            position = offset + ((data[offset] & 0x80) != 0 ? 2 : 1);
+            if (position >= end) {
+                return -1;
+            }
+            length = data[position] & 0xff;
+            position ++;
+            if ((length & 0x80) != 0) {
+                if (position >= end) {
+                    return -1;
+                }
+                length = ((length & 0x7f) << 8) | (data[position] & 0xff);
+                position ++;
+            }
+        } else {
+            if (offset + 2 > end) {
+                return -1;
+            }
+            length = getShortUnsigned(offset);
+            position = offset + 2;
+            if ((length & 0x8000) != 0) {
+                if (position + 2 > end) {
+                    return -1;
+                }
+                length = ((length & 0x7fff) << 16) | getShortUnsigned(position);
+                position += 2;
+            }
+            length = length * 2;
+        }
+        if (length > end - position) {
+            return -1;
+        }
+        return (int) (position + length);
+    }
+    private int getResourceId(int nameReference) {
+        if (nameReference < 0 || nameReference >= resourceMapCount) {
+            return 0;
+        }
+        return getInteger(resourceMapStart + nameReference * 4);
+    }
+
+    private void nextEvent() throws XmlPullParserException {
+        if (eventType == END_DOCUMENT) {
+            throw new XmlPullParserException("Finished", this, null);
+        }
+        if (pendingType != NONE) {
+            eventType = pendingType;
+            pendingType = NONE;
+            return;
+        }
+        if (closeElement) {
+            closeElement = false;
+            depth --;
+        }
+        while (nextChunk + 8 <= end) {
+            int position = nextChunk;
+            int type = getShort(position);
+            int size = checkChunk(position, end);
+            nextChunk = position + size;
+            int extension = position + getShortUnsigned(position + 2);
+            if (type >= ChunkType.XML_START_NAMESPACE.ID && type <= ChunkType.XML_CDATA.ID) {
+                checkNodeChunk(type, position, extension, position + size);
+            }
+            if (type == ChunkType.XML_START_NAMESPACE.ID) {
+                int prefix = getInteger(extension);
+                int uri = getInteger(extension + 4);
+                checkString(prefix);
+                checkString(uri);
+                pushNamespace(prefix, uri);
+            } else if (type == ChunkType.XML_END_NAMESPACE.ID) {
+                if (namespacesCount > 0) {
+                    namespacesCount --;
+                }
+            } else if (type == ChunkType.XML_START_ELEMENT.ID) {
+                onStartElement(position, extension);
+                return;
+            } else if (type == ChunkType.XML_END_ELEMENT.ID) {
+                onEndElement(position, extension);
+                return;
+            } else if (type == ChunkType.XML_CDATA.ID) {
+                if (onText(position, extension)) {
+                    return;
+                }
+            }
+        }
+        eventType = END_DOCUMENT;
+        depth = 0;
+        lineNumber = 0;
+    }
+    // checks the fixed fields of node chunk are within the chunk
+    private void checkNodeChunk(int type, int position, int extension, int chunkEnd)
+            throws XmlPullParserException {
+        int required;
+        if (type == ChunkType.XML_START_ELEMENT.ID) {
+            required = 20;
+        } else if (type == ChunkType.XML_CDATA.ID) {
+            required = 12;
+        } else {
+            required = 8;
+        }
+        if (extension - position < 16 || required > chunkEnd - extension) {
+            throw new XmlPullParserException("Invalid node chunk, type = " + type
+                    + ", at " + position, this, null);
+        }
+    }
+    private void onStartElement(int position, int extension) throws XmlPullParserException {
+        readNodeHeader(position, extension);
+        int chunkEnd = nextChunk;
+        int start = getShortUnsigned(extension + 8);
+        attributeStart = extension + start;
+        attributeSize = getShortUnsigned(extension + 10);
+        attributeCount = getShortUnsigned(extension + 12);
+        int count = attributeCount;
+        if (count != 0 && (start < 20 || attributeSize < 20
+                || count > (chunkEnd - attributeStart) / attributeSize)) {
+            throw new XmlPullParserException("Invalid attributes start = " + start
+                    + ", size = " + attributeSize + ", count = " + count, this, null);
+        }
+        for (int i = 0; i < count; i++) {
+            int offset = attributeOffset(i);
+            checkString(getInteger(offset));
+            checkString(getInteger(offset + 4));
+            checkString(getInteger(offset + 8));
+            if ((data[offset + 15] & 0xff) == ValueType.STRING.getByte()) {
+                checkString(getInteger(offset + 16));
+            }
+        }
+        idIndex = getShortUnsigned(extension + 14);
+        classIndex = getShortUnsigned(extension + 16);
+        styleIndex = getShortUnsigned(extension + 18);
+        depth ++;
+        int[] atDepth = this.namespacesAtDepth;
+        if (depth >= atDepth.length) {
+            atDepth = Arrays.copyOf(atDepth, depth * 2);
+            this.namespacesAtDepth = atDepth;
+        }
+        atDepth[depth] = namespacesCount;
+        eventType = START_TAG;
+        if (hasComment()) {
+            pendingType = COMMENT;
+        }
+    }
+    private void onEndElement(int position, int extension) throws XmlPullParserException {
+        if (depth == 0) {
+            throw new XmlPullParserException("End element without start, at "
+                    + position, this, null);
+        }
+        readNodeHeader(position, extension);
+        attributeCount = 0;
+        idIndex = 0;
+        classIndex = 0;
+        styleIndex = 0;
+        closeElement = true;
+        if (hasComment()) {
+            eventType = COMMENT;
+            pendingType = END_TAG;
+        } else {
+            eventType = END_TAG;
+        }
+    }
+    private boolean onText(int position, int extension) throws XmlPullParserException {
+        lineNumber = getInteger(position + 8);
+        commentReference = getInteger(position + 12);
+        textReference = getInteger(extension);
+        checkString(commentReference);
+        checkString(textReference);
+        boolean hasText = !StringsUtil.isEmpty(getString(textReference));
+        if (hasComment()) {
+            eventType = COMMENT;
+            if (hasText) {
+                pendingType = TEXT;
+            }
+            return true;
+        }
+        if (isIndent(getString(textReference))) {
+            return false;
+        }
+        eventType = TEXT;
+        return true;
+    }
+    private void readNodeHeader(int position, int extension) throws XmlPullParserException {
+        lineNumber = getInteger(position + 8);
+        commentReference = getInteger(position + 12);
+        textReference = -1;
+        elementNamespace = getInteger(extension);
+        elementName = getInteger(extension + 4);
+        checkString(commentReference);
+        checkString(elementNamespace);
+        checkString(elementName);
+    }
+    private boolean hasComment() {
+        return !StringsUtil.isEmpty(getString(commentReference));
+    }
+    private void pushNamespace(int prefix, int uri) {
+        int i = namespacesCount * 2;
+        int[] namespaces = this.namespaces;
+        if (i + 2 > namespaces.length) {
+            namespaces = Arrays.copyOf(namespaces, namespaces.length * 2);
+            this.namespaces = namespaces;
+        }
+        namespaces[i] = prefix;
+        namespaces[i + 1] = uri;
+        namespacesCount ++;
+    }
+    private boolean isElementEvent() {
+        int type = this.eventType;
+        return type == START_TAG || type == END_TAG ||
+                (type == COMMENT && textReference == -1);
+    }
+    private String getPrefixForUri(int uriReference) {
+        String uri = getString(uriReference);
+        if (uri == null) {
+            return null;
+        }
+        int[] namespaces = this.namespaces;
+        for (int i = namespacesCount - 1; i >= 0; i--) {
+            if (uri.equals(getString(namespaces[i * 2 + 1]))) {
+                return getString(namespaces[i * 2]);
+            }
+        }
+        return null;
+    }
+    private int getElementNamespaceStart() {
+        if (!isElementEvent()) {
+            return 0;
+        }
+        return namespacesAtDepth[depth - 1];
+    }
+    private int getElementNamespaceCount() {
+        if (!isElementEvent()) {
+            return 0;
+        }
+        return namespacesAtDepth[depth] - namespacesAtDepth[depth - 1];
+    }
+    private boolean isCountNamespacesAsAttribute() {
+        return processNamespaces & reportNamespaceAttrs;
+    }
+    private int toAttributeIndex(int index) {
+        if (isCountNamespacesAsAttribute()) {
+            index = index - getElementNamespaceCount();
+        }
+        if (eventType != START_TAG || index < 0 || index >= attributeCount) {
+            return -1;
+        }
+        return index;
+    }
+    private int attributeOffset(int attributeIndex) {
+        return attributeStart + attributeIndex * attributeSize;
+    }
+    private String getAttributeRawName(int attributeIndex) {
+        return getString(getInteger(attributeOffset(attributeIndex) + 4));
+    }
+    private int getAttributeValueType(int attributeIndex) {
+        return data[attributeOffset(attributeIndex) + 15] & 0xff;
+    }
+    private int getAttributeData(int attributeIndex) {
+        return getInteger(attributeOffset(attributeIndex) + 16);
+    }
+    private String getAttributeValueString(int attributeIndex) {
+        int valueType = getAttributeValueType(attributeIndex);
+        int data = getAttributeData(attributeIndex);
+        if (valueType == ValueType.STRING.getByte()) {
+            return getString(data);
+        }
+        return null;
+    }
+    private String decodeAttributeValue(int attributeIndex) {
+        if (attributeIndex < 0) {
+            return null;
+        }
+        ValueType valueType = ValueType.valueOf(getAttributeValueType(attributeIndex));
+        if (valueType == null) {
+            return null;
+        }
+        int data = getAttributeData(attributeIndex);
+        if (valueType == ValueType.STRING) {
+            return XmlSanitizer.escapeSpecialCharacter(getString(data));
+        }
+        if (valueType.isReference()) {
+            if (data == 0) {
+                return ValueCoder.decodeReference(null, valueType, data);
+            }
+            return ValueCoder.decodeUnknownResourceId(valueType == ValueType.REFERENCE, data);
+        }
+        return ValueCoder.decode(valueType, data);
+    }
+    private int searchAttribute(String namespace, String name) {
+        if (name == null || eventType != START_TAG) {
+            return -1;
+        }
+        name = XMLUtil.splitName(name);
+        int count = this.attributeCount;
+        for (int i = 0; i < count; i++) {
+            int offset = attributeOffset(i);
+            if (ObjectsUtil.equals(getString(getInteger(offset)), namespace) &&
+                    name.equals(getString(getInteger(offset + 4)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    private int getAttributeIntValueAt(int attributeIndex, int defaultValue) {
+        if (attributeIndex >= 0) {
+            int type = getAttributeValueType(attributeIndex);
+            if (type >= TYPE_FIRST_INT && type <= TYPE_LAST_INT) {
+                return getAttributeData(attributeIndex);
+            }
+        }
+        return defaultValue;
+    }
+    private int getAttributeResourceValueAt(int attributeIndex, int defaultValue) {
+        if (attributeIndex >= 0 &&
+                getAttributeValueType(attributeIndex) == ValueType.REFERENCE.getByte()) {
+            return getAttributeData(attributeIndex);
+        }
+        return defaultValue;
+    }
+    private float getAttributeFloatValueAt(int attributeIndex, float defaultValue) {
+        if (attributeIndex >= 0 &&
+                getAttributeValueType(attributeIndex) == ValueType.FLOAT.getByte()) {
+            return Float.intBitsToFloat(getAttributeData(attributeIndex));
+        }
+        return defaultValue;
+    }
+    private int getAttributeListValueAt(int attributeIndex, String[] options, int defaultValue) {
+        if (attributeIndex < 0 || options == null || options.length == 0) {
+            return defaultValue;
+        }
+        String value = getAttributeValueString(attributeIndex);
+        if (!StringsUtil.isEmpty(value)) {
+            for (int i = 0; i < options.length; i++) {
+                if (value.equals(options[i])) {
+                    return i;
+                }
+            }
+        }
+        return defaultValue;
+    }
+    private int positionalAttribute(int position) {
+        if (eventType != START_TAG || position == 0 || position > attributeCount) {
+            return -1;
+        }
+        return position - 1;
+    }
+
+    @Override
+    public void close() {
+    }
+    @Override
+    public int getAttributeNameResource(int index) {
+        index = toAttributeIndex(index);
+        if (index < 0) {
+            return 0;
+        }
+        return getResourceId(getInteger(attributeOffset(index) + 4));
+    }
+    @Override
+    public boolean getAttributeBooleanValue(String namespace, String attribute, boolean defaultValue) {
+        int index = searchAttribute(namespace, attribute);
+        if (index >= 0) {
+            return getAttributeIntValueAt(index, 0) != 0;
+        }
+        return defaultValue;
+    }
+    @Override
+    public int getAttributeResourceValue(String namespace, String attribute, int defaultValue) {
+        return getAttributeResourceValueAt(searchAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(String namespace, String attribute, int defaultValue) {
+        return getAttributeIntValueAt(searchAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(String namespace, String attribute, int defaultValue) {
+        return getAttributeIntValueAt(searchAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(String namespace, String attribute, float defaultValue) {
+        return getAttributeFloatValueAt(searchAttribute(namespace, attribute), defaultValue);
+    }
+    @Override
+    public int getAttributeListValue(int index, String[] options, int defaultValue) {
+        return getAttributeListValueAt(toAttributeIndex(index), options, defaultValue);
+    }
+    @Override
+    public int getAttributeListValue(String namespace, String attribute, String[] options, int defaultValue) {
+        return getAttributeListValueAt(searchAttribute(namespace, attribute), options, defaultValue);
+    }
+    @Override
+    public boolean getAttributeBooleanValue(int index, boolean defaultValue) {
+        index = toAttributeIndex(index);
+        if (index >= 0) {
+            return getAttributeIntValueAt(index, 0) != 0;
+        }
+        return defaultValue;
+    }
+    @Override
+    public int getAttributeResourceValue(int index, int defaultValue) {
+        return getAttributeResourceValueAt(toAttributeIndex(index), defaultValue);
+    }
+    @Override
+    public int getAttributeIntValue(int index, int defaultValue) {
+        return getAttributeIntValueAt(toAttributeIndex(index), defaultValue);
+    }
+    @Override
+    public int getAttributeUnsignedIntValue(int index, int defaultValue) {
+        return getAttributeIntValueAt(toAttributeIndex(index), defaultValue);
+    }
+    @Override
+    public float getAttributeFloatValue(int index, float defaultValue) {
+        return getAttributeFloatValueAt(toAttributeIndex(index), defaultValue);
+    }
+    @Override
+    public String getIdAttribute() {
+        int index = positionalAttribute(idIndex);
+        if (index >= 0) {
+            return getAttributeValueString(index);
+        }
+        return null;
+    }
+    @Override
+    public String getClassAttribute() {
+        int index = positionalAttribute(classIndex);
+        if (index >= 0) {
+            return getAttributeValueString(index);
+        }
+        return null;
+    }
+    @Override
+    public int getIdAttributeResourceValue(int defaultValue) {
+        return getAttributeResourceValueAt(positionalAttribute(idIndex), defaultValue);
+    }
+    @Override
+    public int getStyleAttribute() {
+        int index = positionalAttribute(styleIndex);
+        if (index >= 0) {
+            return getAttributeData(index);
+        }
+        return 0;
+    }
+
+    @Override
+    public void setFeature(String name, boolean state) throws XmlPullParserException {
+        if (FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            processNamespaces = state;
+        } else if (FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            reportNamespaceAttrs = state;
+        } else {
+            throw new XmlPullParserException("Unsupported feature: " + name);
+        }
+    }
+    @Override
+    public boolean getFeature(String name) {
+        if (FEATURE_PROCESS_NAMESPACES.equals(name)) {
+            return processNamespaces;
+        } else if (FEATURE_REPORT_NAMESPACE_ATTRIBUTES.equals(name)) {
+            return reportNamespaceAttrs;
+        }
+        return false;
+    }
+    @Override
+    public void setProperty(String name, Object value) throws XmlPullParserException {
+        if (XMLUtil.PROPERTY_LOCATION.equals(name)) {
+            location = value;
+        } else {
+            throw new XmlPullParserException("unsupported property: " + name);
+        }
+    }
+    @Override
+    public Object getProperty(String name) {
+        if (XMLUtil.PROPERTY_LOCATION.equals(name)) {
+            return location;
+        }
+        return null;
+    }
+    @Override
+    public void setInput(Reader in) throws XmlPullParserException {
+        throw new XmlPullParserException("Unsupported operation");
+    }
+    @Override
+    public void setInput(InputStream inputStream, String inputEncoding) throws XmlPullParserException {
+        throw new XmlPullParserException("Unsupported operation");
+    }
+    @Override
+    public String getInputEncoding() {
+        if (!XMLUtil.KEEP_CHARSET_ENCODING || utf8) {
+            return "utf-8";
+        }
+        return "utf-16";
+    }
+    @Override
+    public void defineEntityReplacementText(String entityName, String replacementText) {
+    }
+
+    @Override
+    public int getNamespaceCount(int depth) throws XmlPullParserException {
+        if (isCountNamespacesAsAttribute() || depth < 0) {
+            return 0;
+        }
+        if (depth > this.depth) {
+            depth = this.depth;
+        }
+        return namespacesAtDepth[depth];
+    }
+    @Override
+    public String getNamespacePrefix(int pos) throws XmlPullParserException {
+        if (pos < 0 || pos >= namespacesCount) {
+            return null;
+        }
+        return getString(namespaces[pos * 2]);
+    }
+    @Override
+    public String getNamespaceUri(int pos) {
+        if (pos < 0 || pos >= namespacesCount) {
+            return null;
+        }
+        return getString(namespaces[pos * 2 + 1]);
+    }
+    @Override
+    public String getNamespace(String prefix) {
+        int[] namespaces = this.namespaces;
+        for (int i = namespacesCount - 1; i >= 0; i--) {
+            if (ObjectsUtil.equals(prefix, getString(namespaces[i * 2]))) {
+                return getString(namespaces[i * 2 + 1]);
+            }
+        }
+        return null;
+    }
+    @Override
+    public int getDepth() {
+        if (textReference != -1 && (eventType == TEXT || eventType == COMMENT)) {
+            // same as ResXmlPullParser, text node is a child of current element
+            return depth + 1;
+        }
+        return depth;
+    }
+    @Override
+    public String getPositionDescription() {
+        StringBuilder builder = new StringBuilder();
+        Object location = XMLUtil.getLocation(this);
+        if (location != null) {
+            builder.append(" at ");
+            builder.append(location);
+        }
+        builder.append(" Binary XML file line #");
+        builder.append(this.getLineNumber());
+        if (isElementEvent()) {
+            if (eventType == START_TAG) {
+                builder.append(" START_TAG ");
+            } else {
+                builder.append(" END_TAG ");
+            }
+            builder.append('<');
+            String prefix = getPrefix();
+            if (prefix != null) {
+                builder.append(prefix);
+                builder.append(':');
+            }
+            builder.append(getName());
+            builder.append('>');
+        }
+        return builder.toString();
+    }
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+    @Override
+    public int getColumnNumber() {
+        return 0;
+    }
+    @Override
+    public boolean isWhitespace() throws XmlPullParserException {
+        if (eventType == TEXT) {
+            return StringsUtil.isBlank(getString(textReference));
+        }
+        return false;
+    }
+    @Override
+    public String getText() {
+        int type = this.eventType;
+        if (type == COMMENT) {
+            return getString(commentReference);
+        }
+        if (type == TEXT) {
+            return getString(textReference);
+        }
+        if (type == START_TAG || type == END_TAG) {
+            return getString(elementName);
+        }
+        return null;
+    }
+    @Override
+    public char[] getTextCharacters(int[] holderForStartAndLength) {
+        String text = getText();
+        if (text == null) {
+            holderForStartAndLength[0] = -1;
+            holderForStartAndLength[1] = -1;
+            return null;
+        }
+        char[] result = text.toCharArray();
+        holderForStartAndLength[0] = 0;
+        holderForStartAndLength[1] = result.length;
+        return result;
+    }
+    @Override
+    public String getNamespace() {
+        if (isElementEvent()) {
+            return getString(elementNamespace);
+        }
+        return null;
+    }
+    @Override
+    public String getName() {
+        if (isElementEvent()) {
+            return getString(elementName);
+        }
+        return null;
+    }
+    @Override
+    public String getPrefix() {
+        if (isElementEvent()) {
+            return getPrefixForUri(elementNamespace);
+        }
+        return null;
+    }
+    @Override
+    public boolean isEmptyElementTag() {
+        if (eventType != START_TAG) {
+            return true;
+        }
+        return attributeCount == 0 && nextChunk + 2 <= end &&
+                getShort(nextChunk) == ChunkType.XML_END_ELEMENT.ID;
+    }
+    @Override
+    public int getAttributeCount() {
+        if (eventType != START_TAG) {
+            return 0;
+        }
+        int count = attributeCount;
+        if (isCountNamespacesAsAttribute()) {
+            count += getElementNamespaceCount();
+        }
+        return count;
+    }
+    @Override
+    public String getAttributeNamespace(int index) {
+        if (!processNamespaces) {
+            index = toAttributeIndex(index);
+            if (index >= 0) {
+                return getString(getInteger(attributeOffset(index)));
+            }
+        }
+        return null;
+    }
+    @Override
+    public String getAttributeName(int index) {
+        if (isCountNamespacesAsAttribute()) {
+            int nsCount = getElementNamespaceCount();
+            if (index >= 0 && index < nsCount) {
+                int i = getElementNamespaceStart() + index;
+                return "xmlns:" + getString(namespaces[i * 2]);
+            }
+        }
+        index = toAttributeIndex(index);
+        if (index < 0) {
+            return null;
+        }
+        String name = getAttributeRawName(index);
+        if (name == null || !processNamespaces) {
+            return name;
+        }
+        String prefix = getPrefixForUri(getInteger(attributeOffset(index)));
+        if (prefix == null) {
+            return name;
+        }
+        return prefix + ":" + name;
+    }
+    @Override
+    public String getAttributePrefix(int index) {
+        if (!processNamespaces) {
+            index = toAttributeIndex(index);
+            if (index >= 0) {
+                return getPrefixForUri(getInteger(attributeOffset(index)));
+            }
+        }
+        return null;
+    }
+    @Override
+    public String getAttributeType(int index) {
+        return "CDATA";
+    }
+    @Override
+    public boolean isAttributeDefault(int index) {
+        return false;
+    }
+    @Override
+    public String getAttributeValue(int index) {
+        if (isCountNamespacesAsAttribute()) {
+            int nsCount = getElementNamespaceCount();
+            if (index >= 0 && index < nsCount) {
+                int i = getElementNamespaceStart() + index;
+                return getString(namespaces[i * 2 + 1]);
+            }
+        }
+        return decodeAttributeValue(toAttributeIndex(index));
+    }
+    @Override
+    public String getAttributeValue(String namespace, String name) {
+        return decodeAttributeValue(searchAttribute(namespace, name));
+    }
+    @Override
+    public int getEventType() throws XmlPullParserException {
+        return eventType;
+    }
+    @Override
+    public int next() throws XmlPullParserException, IOException {
+        nextEvent();
+        return eventType;
+    }
+    @Override
+    public int nextToken() throws XmlPullParserException, IOException {
+        nextEvent();
+        return eventType;
+    }
+    @Override
+    public void require(int type, String namespace, String name) throws XmlPullParserException, IOException {
+        if (type != this.getEventType()
+                || (namespace != null && !namespace.equals(getNamespace()))
+                || (name != null && !name.equals(getName()))) {
+            throw new XmlPullParserException(
+                    "expected: " + TYPES[type] + " {" + namespace + "}" + name, this, null);
+        }
+    }
+    @Override
+    public String nextText() throws XmlPullParserException, IOException {
+        int event = getEventType();
+        if (event != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        while (event != TEXT && event != END_TAG && event != END_DOCUMENT) {
+            event = next();
+        }
+        if (event == TEXT) {
+            return getText();
+        }
+        return "";
+    }
+    @Override
+    public int nextTag() throws XmlPullParserException, IOException {
+        int event = getEventType();
+        if (event != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        event = next();
+        while (event != START_TAG && event != END_DOCUMENT) {
+            event = next();
+        }
+        return event;
+    }
+
+    private int getShort(int offset) {
+        return (short) getShortUnsigned(offset);
+    }
+    private int getShortUnsigned(int offset) {
+        byte[] data = this.data;
+        return (data[offset] & 0xff) | ((data[offset + 1] & 0xff) << 8);
+    }
+    private int getInteger(int offset) {
+        byte[] data = this.data;
+        return (data[offset] & 0xff) |
+                ((data[offset + 1] & 0xff) << 8) |
+                ((data[offset + 2] & 0xff) << 16) |
+                ((data[offset + 3] & 0xff) << 24);
+    }
+
+    private static boolean isIndent(String text) {
+        if (text == null) {
+            return true;
+        }
+        int length = text.length();
+        if (length == 0) {
+            return true;
+        }
+        if (text.charAt(0) != '\n') {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            if (!StringsUtil.isWhiteSpace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final int NONE = -1;
+    private static final int FLAG_UTF8 = 0x100;
+    private static final int TYPE_FIRST_INT = 0x10;
+    private static final int TYPE_LAST_INT = 0x1f;
+    private static final String[] EMPTY_STRINGS = new String[0];
+}
@@ -223,6 +223,10 @@ public class ValueCoder {
         if(text == null || text.length() == 0){
             return null;
         }
+        Coder[] candidates = candidateCoders(text);
+        if(candidates.length == 0){
+            return null;
+        }
         EncodeResult encodeResult;
         char first = text.charAt(0);
         for(ValueType valueType : expectedTypes){
@@ -230,7 +234,7 @@ public class ValueCoder {
             if(coder == null){
                 continue;
             }
-            if(!coder.canStartWith(first)){
+            if(!coder.canStartWith(first) || !contains(candidates, coder)){
                 continue;
             }
             encodeResult = coder.encode(text);
@@ -249,7 +253,7 @@ public class ValueCoder {
             return encodeResult;
         }
         char first = text.charAt(0);
-        for(Coder coder : CODERS){
+        for(Coder coder : candidateCoders(text)){
             if(!coder.canStartWith(first)){
                 continue;
             }
@@ -260,6 +264,121 @@ public class ValueCoder {
         }
         return null;
     }
+    // Scans text once and returns the coders (in CODERS order) that could possibly encode it,
+    // CODERS is returned for anything not recognized to keep behaviour of trying each coder
+    private static Coder[] candidateCoders(String text){
+        char first = text.charAt(0);
+        if(first == '#'){
+            return colorCoders(text);
+        }
+        if(first == '@'){
+            return CANDIDATES_NULL;
+        }
+        if(first == 't' || first == 'f'){
+            return CANDIDATES_BOOLEAN;
+        }
+        if(!Coder.isNumberStart(first)){
+            return CANDIDATES_NONE;
+        }
+        return numberCoders(text);
+    }
+    private static Coder[] colorCoders(String text){
+        int length = text.length();
+        Coder[] candidates;
+        if(length == 5){
+            candidates = CANDIDATES_ARGB4;
+        }else if(length == 4){
+            candidates = CANDIDATES_RGB4;
+        }else if(length == 7){
+            candidates = CANDIDATES_RGB8;
+        }else if(length == 9){
+            candidates = CANDIDATES_ARGB8;
+        }else {
+            return CANDIDATES_NONE;
+        }
+        if(!isHexDigits(text, 1)){
+            return CANDIDATES_NONE;
+        }
+        return candidates;
+    }
+    private static Coder[] numberCoders(String text){
+        int length = text.length();
+        if(length > 1 && text.charAt(0) == '0'){
+            char x = text.charAt(1);
+            if(x == 'x' || x == 'X'){
+                if(isHexDigits(text, 2)){
+                    return CANDIDATES_HEX;
+                }
+                return CODERS;
+            }
+        }
+        int i = 0;
+        if(text.charAt(0) == '-'){
+            i = 1;
+        }
+        int digits = 0;
+        boolean dot = false;
+        while (i < length){
+            char ch = text.charAt(i);
+            if(ch >= '0' && ch <= '9'){
+                digits ++;
+            }else if(ch == '.' && !dot){
+                dot = true;
+            }else {
+                break;
+            }
+            i ++;
+        }
+        if(digits == 0){
+            return CODERS;
+        }
+        if(i == length){
+            if(dot){
+                return CANDIDATES_FLOAT;
+            }
+            return CANDIDATES_INTEGER;
+        }
+        int remaining = length - i;
+        ComplexUnit unit = UnitDimension.fromPostfix(text);
+        if(unit != null){
+            if(unit.getSymbol().length() == remaining){
+                return CANDIDATES_DIMENSION;
+            }
+            return CODERS;
+        }
+        unit = UnitFraction.fromPostfix(text);
+        if(unit != null){
+            if(unit.getSymbol().length() == remaining){
+                return CANDIDATES_FRACTION;
+            }
+            return CODERS;
+        }
+        if(dot || Character.isDigit(text.charAt(i)) || text.indexOf('.', i) >= 0){
+            return CODERS;
+        }
+        return CANDIDATES_NONE;
+    }
+    private static boolean isHexDigits(String text, int start){
+        int length = text.length();
+        if(start >= length){
+            return false;
+        }
+        for(int i = start; i < length; i++){
+            char ch = text.charAt(i);
+            if((ch < '0' || ch > '9') && (ch < 'a' || ch > 'f') && (ch < 'A' || ch > 'F')){
+                return false;
+            }
+        }
+        return true;
+    }
+    private static boolean contains(Coder[] coders, Coder coder){
+        for(Coder c : coders){
+            if(c == coder){
+                return true;
+            }
+        }
+        return false;
+    }
     private static EncodeResult encodeUnknown(String text){
         char first = text.charAt(0);
         Coder unknown = CoderUnknownReferenceId.INS;
@@ -342,6 +461,19 @@ public class ValueCoder {
     private static final Map<ValueType, Coder> CODER_MAP;
     private static final Coder[] CODERS_NULL;
 
+    private static final Coder[] CANDIDATES_NONE = new Coder[0];
+    private static final Coder[] CANDIDATES_NULL = new Coder[]{CoderNull.INS};
+    private static final Coder[] CANDIDATES_BOOLEAN = new Coder[]{CoderBoolean.INS};
+    private static final Coder[] CANDIDATES_DIMENSION = new Coder[]{CoderDimension.INS};
+    private static final Coder[] CANDIDATES_FRACTION = new Coder[]{CoderFraction.INS};
+    private static final Coder[] CANDIDATES_ARGB4 = new Coder[]{CoderColorARGB4.INS};
+    private static final Coder[] CANDIDATES_RGB4 = new Coder[]{CoderColorRGB4.INS};
+    private static final Coder[] CANDIDATES_RGB8 = new Coder[]{CoderColorRGB8.INS};
+    private static final Coder[] CANDIDATES_ARGB8 = new Coder[]{CoderColorARGB8.INS};
+    private static final Coder[] CANDIDATES_FLOAT = new Coder[]{CoderFloat.INS};
+    private static final Coder[] CANDIDATES_HEX = new Coder[]{CoderHex.INS};
+    private static final Coder[] CANDIDATES_INTEGER = new Coder[]{CoderInteger.INS};
+
     static {
 
         CODERS = new Coder[]{
@@ -24,8 +24,8 @@ import org.xmlpull.v1.XmlSerializer;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ValuesDirectorySerializer implements ValuesSerializerFactory{
 
@@ -33,7 +33,7 @@ public class ValuesDirectorySerializer implements ValuesSerializerFactory{
     private final Map<XmlSerializer, File> serializerFileMap;
     public ValuesDirectorySerializer(File resourcesDir){
         this.resourcesDir = resourcesDir;
-        this.serializerFileMap = new HashMap<>();
+        this.serializerFileMap = new ConcurrentHashMap<>();
     }
     @Override
     public void onFinish(XmlSerializer serializer, int writtenEntries) throws IOException {
@@ -605,12 +605,7 @@ public class BlockList<T extends Block> extends Block implements BlockRefresh, S
     }
     @Override
     public byte[] getBytes() {
-        byte[] results = null;
-        Iterator<T> iterator = iterator();
-        while (iterator.hasNext()) {
-            results = addBytes(results, iterator.next().getBytes());
-        }
-        return results;
+        return writeToByteArray();
     }
     @Override
     public int countBytes() {
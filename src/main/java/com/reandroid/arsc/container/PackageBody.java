@@ -17,7 +17,7 @@ package com.reandroid.arsc.container;
 
 import com.reandroid.arsc.chunk.*;
 import com.reandroid.arsc.array.SpecTypePairArray;
-import com.reandroid.arsc.header.HeaderBlock;
+import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.header.SpecHeader;
 import com.reandroid.arsc.header.TypeHeader;
 import com.reandroid.arsc.io.BlockReader;
@@ -91,12 +91,11 @@ public class PackageBody extends FixedBlockContainer {
         }
     }
     private boolean readNextBlock(BlockReader reader) throws IOException {
-        HeaderBlock headerBlock = reader.readHeaderBlock();
-        if(headerBlock==null){
+        if(reader.available() < InfoHeader.INFO_MIN_SIZE){
             return false;
         }
         int pos=reader.getPosition();
-        ChunkType chunkType=headerBlock.getChunkType();
+        ChunkType chunkType=ChunkType.get(reader.readShort());
         if(chunkType==ChunkType.SPEC){
             readSpecBlock(reader);
         }else if(chunkType==ChunkType.TYPE){
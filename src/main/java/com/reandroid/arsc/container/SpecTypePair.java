@@ -23,6 +23,7 @@ import com.reandroid.arsc.chunk.PackageBlock;
 import com.reandroid.arsc.chunk.SpecBlock;
 import com.reandroid.arsc.chunk.TypeBlock;
 import com.reandroid.arsc.header.HeaderBlock;
+import com.reandroid.arsc.header.InfoHeader;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.TypeString;
 import com.reandroid.arsc.model.ResourceEntry;
@@ -349,17 +350,16 @@ public class SpecTypePair extends BlockContainer<Block>
 
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
-        HeaderBlock headerBlock=reader.readHeaderBlock();
-        if(headerBlock==null){
+        if(reader.available() < InfoHeader.INFO_MIN_SIZE){
             return;
         }
-        ChunkType chunkType=headerBlock.getChunkType();
+        ChunkType chunkType=ChunkType.get(reader.readShort());
         if(chunkType == ChunkType.TYPE){
             readTypeBlock(reader);
             return;
         }
         if(chunkType!=ChunkType.SPEC){
-            readUnexpectedNonSpecBlock(reader, headerBlock);
+            readUnexpectedNonSpecBlock(reader);
         }
         mSpecBlock.readBytes(reader);
     }
@@ -367,7 +367,8 @@ public class SpecTypePair extends BlockContainer<Block>
         TypeBlock typeBlock = mTypeBlockArray.createNext();
         typeBlock.readBytes(reader);
     }
-    private void readUnexpectedNonSpecBlock(BlockReader reader, HeaderBlock headerBlock) throws IOException{
+    private void readUnexpectedNonSpecBlock(BlockReader reader) throws IOException{
+        HeaderBlock headerBlock = reader.readHeaderBlock();
         throw new IOException("Unexpected block: "+headerBlock.toString()+", Should be: "+ChunkType.SPEC);
     }
     public int getHighestEntryCount(){
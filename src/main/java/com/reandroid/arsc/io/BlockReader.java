@@ -53,18 +53,52 @@ public class BlockReader extends InputStream {
         return 0x0000ffff & readShort();
     }
     public short readShort() throws IOException {
-        int pos = getPosition();
-        byte[] bts = new byte[2];
-        readFully(bts);
-        seek(pos);
-        return toShort(bts);
+        checkAvailable();
+        return getShort(mPosition);
     }
     public int readInteger() throws IOException {
-        int pos = getPosition();
-        byte[] bytes = new byte[4];
-        readFully(bytes);
-        seek(pos);
-        return toInt(bytes);
+        checkAvailable();
+        return getInteger(mPosition);
+    }
+    /**
+     * Reads little-endian int at the given position relative to the start of this reader,
+     * without moving the current position. Bytes beyond {@link #length()} are read as zero.
+     * */
+    public int getInteger(int position){
+        return byteAt(position) |
+                byteAt(position + 1) << 8 |
+                byteAt(position + 2) << 16 |
+                byteAt(position + 3) << 24;
+    }
+    /**
+     * Reads little-endian short at the given position relative to the start of this reader,
+     * without moving the current position. Bytes beyond {@link #length()} are read as zero.
+     * */
+    public short getShort(int position){
+        return (short) (byteAt(position) | byteAt(position + 1) << 8);
+    }
+    public int getShortUnsigned(int position){
+        return 0x0000ffff & getShort(position);
+    }
+    public byte getByte(int position){
+        return (byte) byteAt(position);
+    }
+    public int getByteUnsigned(int position){
+        return byteAt(position);
+    }
+    private int byteAt(int position){
+        if(position < 0 || position >= mLength){
+            return 0;
+        }
+        return BUFFER[mStart + position] & 0xff;
+    }
+    private void checkAvailable() throws IOException {
+        if(mIsClosed){
+            throw new IOException("Stream is closed");
+        }
+        if(mPosition >= mLength){
+            throw new EOFException("Finished reading: " + mPosition);
+        }
     }
     /**
      * Use SpecHeader#read(BlockReader)
@@ -83,16 +117,6 @@ public class BlockReader extends InputStream {
     public InfoHeader readHeaderBlock() throws IOException {
         return InfoHeader.read(this);
     }
-    private int toInt(byte[] bytes){
-        return bytes[0] & 0xff |
-                (bytes[1] & 0xff) << 8 |
-                (bytes[2] & 0xff) << 16 |
-                (bytes[3] & 0xff) << 24;
-    }
-    private short toShort(byte[] bytes){
-        return (short) (bytes[0] & 0xff |
-                (bytes[1] & 0xff) << 8);
-    }
     public byte[] getBuffer(){
         return BUFFER;
     }
@@ -58,6 +58,14 @@ public class FixedLengthString  extends StringItem {
     protected void onStringChanged(String old, String text) {
     }
 
+    @Override
+    public int hashXml() {
+        String text = get();
+        if(text == null){
+            return 0;
+        }
+        return text.hashCode();
+    }
     @Override
     public int compareTo(StringItem stringItem){
         if(stringItem == null){
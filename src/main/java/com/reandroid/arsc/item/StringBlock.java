@@ -23,14 +23,29 @@ import java.nio.charset.StandardCharsets;
 public abstract class StringBlock extends BlockItem implements StringReference {
 
     private String mCache;
+    // volatile: strings of shared tables are decoded on first read by whichever thread comes first
+    private volatile boolean mDecodePending;
 
     public StringBlock() {
         super(0);
         mCache = StringsUtil.EMPTY;
     }
     public String get(){
+        if(mDecodePending){
+            String text = decodeString(getBytesInternal());
+            mCache = text;
+            mDecodePending = false;
+            return text;
+        }
         return mCache;
     }
+    /**
+     * Returns true if the string bytes are loaded but not yet decoded, in which case
+     * {@link #get()} decodes them on first call.
+     * */
+    public boolean isDecodePending(){
+        return mDecodePending;
+    }
     public void set(String text){
         set(text, true);
     }
@@ -38,7 +53,7 @@ public abstract class StringBlock extends BlockItem implements StringReference {
         if(text == null || text.length() == 0){
             text = StringsUtil.EMPTY;
         }
-        String old = this.mCache;
+        String old = get();
         boolean firstTime = countBytes() == 0;
         if(firstTime) {
             old = null;
@@ -52,11 +67,13 @@ public abstract class StringBlock extends BlockItem implements StringReference {
     }
     protected void writeStringBytes(String text) {
         this.mCache = text;
+        this.mDecodePending = false;
         byte[] bytes = encodeString(text);
         setBytesInternal(bytes, false);
     }
     protected void onBytesChanged(){
-        mCache = decodeString(getBytesInternal());
+        mCache = null;
+        mDecodePending = true;
     }
     protected void onStringChanged(String old, String text){
     }
@@ -224,9 +224,11 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
     }
     public void setUtf8(boolean utf8) {
         if (utf8 != mUtf8) {
+            // pending bytes must be decoded with the old encoding
+            String text = countBytes() != 0 ? get() : null;
             mUtf8 = utf8;
-            if (countBytes() != 0) {
-                writeStringBytes(get());
+            if (text != null) {
+                writeStringBytes(text);
             }
         }
     }
@@ -243,17 +245,11 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         if (reader.available() < 4) {
             return reader.available();
         }
-        byte[] bytes = new byte[4];
-        reader.readFully(bytes);
-        reader.offset(-4);
-        int[] lengthResult;
+        int position = reader.getPosition();
         if (isUtf8()) {
-            lengthResult = decodeUtf8StringByteLength(bytes);
-        } else {
-            lengthResult = decodeUtf16StringByteLength(bytes);
+            return calculateUtf8ReadLength(reader, position);
         }
-        int add = isUtf8() ? 1:2;
-        return lengthResult[0] + lengthResult[1] + add;
+        return calculateUtf16ReadLength(reader, position);
     }
     @Override
     protected String decodeString(byte[] bytes) {
@@ -274,32 +270,39 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
             }
             return "";
         }
+        return decodeString(encodedBytes, 0, isUtf8);
+    }
+    /**
+     * Decodes string whose length prefix starts at the given offset of raw string pool data,
+     * for readers walking pool bytes without creating string items.
+     * */
+    public static String decodeString(byte[] data, int offset, boolean isUtf8) {
         int[] offLen;
         if (isUtf8) {
-            offLen = decodeUtf8StringByteLength(encodedBytes);
+            offLen = decodeUtf8StringByteLength(data, offset);
         } else {
-            offLen = decodeUtf16StringByteLength(encodedBytes);
+            offLen = decodeUtf16StringByteLength(data, offset);
         }
         CharsetDecoder charsetDecoder;
         if (isUtf8) {
-            charsetDecoder = UTF8_DECODER;
+            charsetDecoder = UTF8_DECODERS.get();
         } else {
-            charsetDecoder = UTF16LE_DECODER;
+            charsetDecoder = UTF16LE_DECODERS.get();
         }
         try {
-            ByteBuffer buffer = ByteBuffer.wrap(encodedBytes, offLen[0], offLen[1]);
+            ByteBuffer buffer = ByteBuffer.wrap(data, offLen[0], offLen[1]);
             return charsetDecoder.decode(buffer).toString();
         } catch (CharacterCodingException ex) {
             if (isUtf8) {
-                return tryThreeByteDecoder(encodedBytes, offLen[0], offLen[1]);
+                return tryThreeByteDecoder(data, offLen[0], offLen[1]);
             }
-            return new String(encodedBytes, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
+            return new String(data, offLen[0], offLen[1], StandardCharsets.UTF_16LE);
         }
     }
-    private String tryThreeByteDecoder(byte[] bytes, int offset, int length) {
+    private static String tryThreeByteDecoder(byte[] bytes, int offset, int length) {
         try {
             ByteBuffer byteBuffer = ByteBuffer.wrap(bytes, offset, length);
-            CharBuffer charBuffer = DECODER_3B.decode(byteBuffer);
+            CharBuffer charBuffer = DECODERS_3B.get().decode(byteBuffer);
             return charBuffer.toString();
         } catch (CharacterCodingException e) {
             return new String(bytes, offset, length, StandardCharsets.UTF_8);
@@ -404,6 +407,28 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         }
         return false;
     }
+    /**
+     * Returns the same value as hash code of {@link #getXml()} (zero for null). While the
+     * string is not yet decoded, the hash is computed over the encoded bytes without decoding.
+     * */
+    public int hashXml() {
+        if (isDecodePending() && !hasStyle()) {
+            long hash;
+            if (isUtf8()) {
+                hash = hashUtf8Bytes(getBytesInternal());
+            } else {
+                hash = hashUtf16Bytes(getBytesInternal());
+            }
+            if (hash != -1) {
+                return (int) hash;
+            }
+        }
+        String xml = getXml();
+        if (xml == null) {
+            return 0;
+        }
+        return xml.hashCode();
+    }
     public boolean equalsValue(String value) {
         if (value == null) {
             return isNull();
@@ -460,8 +485,168 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         return getIndex() + ":" + xml;
     }
 
-    private static int[] decodeUtf8StringByteLength(byte[] lengthBytes) {
+    /**
+     * Computes String#hashCode of the encoded utf-8 string as it would be decoded,
+     * returns -1 if the bytes are malformed or are not in standard utf-8 form.
+     * */
+    private static long hashUtf8Bytes(byte[] bytes) {
+        if (isNullBytes(bytes)) {
+            return 0;
+        }
+        int length = bytes.length;
+        int offset;
+        if ((bytes[0] & 0x80) != 0) {
+            offset = 2;
+        } else {
+            offset = 1;
+        }
+        if (offset >= length) {
+            return -1;
+        }
+        int val = bytes[offset];
+        offset += 1;
+        int count;
+        if ((val & 0x80) != 0) {
+            if (offset >= length) {
+                return -1;
+            }
+            count = ((val & 0x7F) << 8) + (bytes[offset] & 0xFF);
+            offset += 1;
+        } else {
+            count = val;
+        }
+        int end = offset + count;
+        if (end > length) {
+            return -1;
+        }
+        int hash = 0;
+        int i = offset;
+        while (i < end) {
+            int b = bytes[i] & 0xff;
+            if (b < 0x80) {
+                hash = 31 * hash + b;
+                i ++;
+                continue;
+            }
+            int trailing;
+            int codePoint;
+            if (b >= 0xC2 && b <= 0xDF) {
+                trailing = 1;
+                codePoint = b & 0x1F;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                trailing = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                trailing = 3;
+                codePoint = b & 0x07;
+            } else {
+                return -1;
+            }
+            if (i + trailing >= end) {
+                return -1;
+            }
+            for (int j = 1; j <= trailing; j++) {
+                int c = bytes[i + j] & 0xff;
+                if ((c & 0xC0) != 0x80) {
+                    return -1;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+            i += trailing + 1;
+            if (trailing == 2 && (codePoint < 0x800 ||
+                    (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE))) {
+                return -1;
+            }
+            if (trailing == 3) {
+                if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) {
+                    return -1;
+                }
+                hash = 31 * hash + Character.highSurrogate(codePoint);
+                hash = 31 * hash + Character.lowSurrogate(codePoint);
+            } else {
+                hash = 31 * hash + codePoint;
+            }
+        }
+        return hash & 0xffffffffL;
+    }
+    /**
+     * Computes String#hashCode of the encoded utf-16 string as it would be decoded,
+     * returns -1 if the bytes are malformed.
+     * */
+    private static long hashUtf16Bytes(byte[] bytes) {
+        if (isNullBytes(bytes)) {
+            return 0;
+        }
+        int length = bytes.length;
+        int val = ((bytes[1] & 0xFF) << 8 | bytes[0] & 0xFF);
+        int offset;
+        int count;
+        if ((val & 0x8000) != 0) {
+            if (length < 4) {
+                return -1;
+            }
+            count = ((val & 0x7FFF) << 16) + ((bytes[3] & 0xFF) << 8 | bytes[2] & 0xFF);
+            offset = 4;
+        } else {
+            count = val;
+            offset = 2;
+        }
+        int end = offset + count * 2;
+        if (end > length || end < offset) {
+            return -1;
+        }
+        int hash = 0;
+        boolean expectLow = false;
+        for (int i = offset; i < end; i += 2) {
+            char ch = (char) ((bytes[i + 1] & 0xFF) << 8 | bytes[i] & 0xFF);
+            if (Character.isHighSurrogate(ch)) {
+                if (expectLow) {
+                    return -1;
+                }
+                expectLow = true;
+            } else if (Character.isLowSurrogate(ch)) {
+                if (!expectLow) {
+                    return -1;
+                }
+                expectLow = false;
+            } else if (expectLow) {
+                return -1;
+            }
+            hash = 31 * hash + ch;
+        }
+        if (expectLow) {
+            return -1;
+        }
+        return hash & 0xffffffffL;
+    }
+    private static int calculateUtf8ReadLength(BlockReader reader, int position) {
         int offset = 0;
+        int val = reader.getByte(position);
+        if ((val & 0x80) != 0) {
+            offset += 2;
+        } else {
+            offset += 1;
+        }
+        val = reader.getByte(position + offset);
+        offset += 1;
+        int length;
+        if ((val & 0x80) != 0) {
+            length = ((val & 0x7F) << 8) + reader.getByteUnsigned(position + offset);
+            offset += 1;
+        } else {
+            length = val;
+        }
+        return offset + length + 1;
+    }
+    private static int calculateUtf16ReadLength(BlockReader reader, int position) {
+        int val = reader.getShortUnsigned(position);
+        if ((val & 0x8000) != 0) {
+            int len_value = ((val & 0x7FFF) << 16) + reader.getShortUnsigned(position + 2);
+            return 4 + len_value * 2 + 2;
+        }
+        return 2 + val * 2 + 2;
+    }
+    private static int[] decodeUtf8StringByteLength(byte[] lengthBytes, int offset) {
         int val = lengthBytes[offset];
         int length;
         if ((val & 0x80) != 0) {
@@ -482,16 +667,16 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         }
         return new int[] { offset, length};
     }
-    private static int[] decodeUtf16StringByteLength(byte[] lengthBytes) {
-        int val = ((lengthBytes[1] & 0xFF) << 8 | lengthBytes[0] & 0xFF);
+    private static int[] decodeUtf16StringByteLength(byte[] lengthBytes, int offset) {
+        int val = ((lengthBytes[offset + 1] & 0xFF) << 8 | lengthBytes[offset] & 0xFF);
         if ((val & 0x8000) != 0) {
-            int high = (lengthBytes[3] & 0xFF) << 8;
-            int low = (lengthBytes[2] & 0xFF);
+            int high = (lengthBytes[offset + 3] & 0xFF) << 8;
+            int low = (lengthBytes[offset + 2] & 0xFF);
             int len_value =  ((val & 0x7FFF) << 16) + (high + low);
-            return new int[] {4, len_value * 2};
+            return new int[] {offset + 4, len_value * 2};
 
         }
-        return new int[] {2, val * 2};
+        return new int[] {offset + 2, val * 2};
     }
     static boolean isNullBytes(byte[] bytes) {
         if (bytes == null) {
@@ -595,8 +780,13 @@ public class StringItem extends StringBlock implements JSONConvert<JSONObject>,
         return result;
     }
 
-    private static final CharsetDecoder UTF16LE_DECODER = StandardCharsets.UTF_16LE.newDecoder();
-    private static final CharsetDecoder DECODER_3B = ThreeByteCharsetDecoder.INSTANCE;
+    // decoders are stateful, one per thread
+    private static final ThreadLocal<CharsetDecoder> UTF8_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_8::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> UTF16LE_DECODERS =
+            ThreadLocal.withInitial(StandardCharsets.UTF_16LE::newDecoder);
+    private static final ThreadLocal<CharsetDecoder> DECODERS_3B =
+            ThreadLocal.withInitial(ThreeByteCharsetDecoder::new);
 
     public static final String NAME_string = ObjectsUtil.of("string");
     public static final String NAME_style = ObjectsUtil.of("style");
@@ -18,6 +18,7 @@ package com.reandroid.arsc.list;
 import com.reandroid.arsc.base.Block;
 import com.reandroid.arsc.base.BlockRefresh;
 import com.reandroid.arsc.base.Creator;
+import com.reandroid.arsc.chunk.Chunk;
 import com.reandroid.arsc.container.BlockList;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.AlignItem;
@@ -29,6 +30,8 @@ public class OffsetBlockList<T extends Block> extends BlockList<T> {
 
     private final IntegerReference start;
     private final OffsetReferenceList<?> offsetReferenceList;
+    private Object mSizeSession;
+    private int mItemsBytes;
 
     public OffsetBlockList(IntegerReference start, OffsetReferenceList<?> offsetReferenceList, Creator<? extends T> creator) {
         super(creator);
@@ -81,6 +84,8 @@ public class OffsetBlockList<T extends Block> extends BlockList<T> {
         for (int i = 0; i < size; i++) {
             offset = referenceList.get(i).updateOffset(this.get(i), offset);
         }
+        this.mItemsBytes = offset;
+        this.mSizeSession = Chunk.findRefreshSession(this);
         AlignItem alignment = getAlignment();
         if (alignment != null) {
             offset += alignment.align(offset);
@@ -88,6 +93,15 @@ public class OffsetBlockList<T extends Block> extends BlockList<T> {
         return offset;
     }
 
+    @Override
+    public int countBytes() {
+        Object session = this.mSizeSession;
+        if (session != null && session == Chunk.findRefreshSession(this)) {
+            return mItemsBytes;
+        }
+        return super.countBytes();
+    }
+
     @Override
     public void setSize(int size, boolean notify) {
         super.setSize(size, true);
@@ -0,0 +1,228 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.arsc.model;
+
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.chunk.TypeBlock;
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.Entry;
+import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.arsc.value.ResValue;
+import com.reandroid.arsc.value.ValueType;
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Resolves resources for a single device configuration the same way android AssetManager
+ * picks values, see {@link ResConfig#match(ResConfig)} and
+ * {@link ResConfig#isBetterThan(ResConfig, ResConfig)}.
+ * Type blocks matching the configuration are collected once per type and the best entry of
+ * each resource id is cached on first lookup, thus repeated lookups are array indexed.
+ * Lookups can be made concurrently, lazily built indexes are published through volatile and
+ * atomic array writes. Changes made to the table afterwards are not observed until
+ * {@link #reset()} is called.
+ * */
+public class ResourceResolver {
+
+    private final TableBlock tableBlock;
+    private final ResConfig config;
+    private volatile PackageIndex[][] packageIndexes;
+
+    public ResourceResolver(TableBlock tableBlock, ResConfig config){
+        this.tableBlock = tableBlock;
+        ResConfig resConfig = new ResConfig();
+        resConfig.copyFrom(config);
+        resConfig.computeLocaleScript();
+        this.config = resConfig;
+    }
+
+    public TableBlock getTableBlock() {
+        return tableBlock;
+    }
+    public ResConfig getConfig() {
+        return config;
+    }
+    /**
+     * Returns best matching entry after following reference values, if the reference can not be
+     * resolved the last resolved entry is returned.
+     * */
+    public Entry resolve(int resourceId){
+        Entry entry = getEntry(resourceId);
+        int count = 0;
+        while (entry != null && count < MAX_REFERENCE_DEPTH){
+            ResValue resValue = entry.getResValue();
+            if(resValue == null || resValue.getValueType() != ValueType.REFERENCE){
+                break;
+            }
+            Entry next = getEntry(resValue.getData());
+            if(next == null){
+                break;
+            }
+            entry = next;
+            count ++;
+        }
+        return entry;
+    }
+    /**
+     * Returns best matching entry of the resource id for this config, or null if none of the
+     * entries match.
+     * */
+    public Entry getEntry(int resourceId){
+        if(resourceId == 0){
+            return null;
+        }
+        Entry entry = findEntry(resourceId);
+        if(entry == null){
+            int staged = tableBlock.resolveStagedAlias(resourceId, 0);
+            if(staged != 0 && staged != resourceId){
+                entry = findEntry(staged);
+            }
+        }
+        return entry;
+    }
+    public void reset(){
+        this.packageIndexes = null;
+    }
+    private Entry findEntry(int resourceId){
+        PackageIndex[] indexes = getPackageIndexes()[(resourceId >> 24) & 0xff];
+        if(indexes == null){
+            return null;
+        }
+        int typeId = (resourceId >> 16) & 0xff;
+        int entryId = resourceId & 0xffff;
+        for(PackageIndex packageIndex : indexes){
+            Entry entry = packageIndex.getEntry(typeId, entryId, config);
+            if(entry != null){
+                return entry;
+            }
+        }
+        return null;
+    }
+    private PackageIndex[][] getPackageIndexes(){
+        PackageIndex[][] packageIndexes = this.packageIndexes;
+        if(packageIndexes == null){
+            packageIndexes = buildPackageIndexes();
+            this.packageIndexes = packageIndexes;
+        }
+        return packageIndexes;
+    }
+    // Groups packages by id in the same order TableBlock.getResource searches
+    private PackageIndex[][] buildPackageIndexes(){
+        PackageIndex[][] results = new PackageIndex[256][];
+        Iterator<PackageBlock> iterator = tableBlock.getAllPackages();
+        while (iterator.hasNext()){
+            PackageBlock packageBlock = iterator.next();
+            int id = packageBlock.getId() & 0xff;
+            PackageIndex[] indexes = results[id];
+            int length = indexes == null ? 0 : indexes.length;
+            PackageIndex[] update = new PackageIndex[length + 1];
+            if(length != 0){
+                System.arraycopy(indexes, 0, update, 0, length);
+            }
+            update[length] = new PackageIndex(packageBlock);
+            results[id] = update;
+        }
+        return results;
+    }
+
+    static class PackageIndex {
+        private final PackageBlock packageBlock;
+        private final AtomicReferenceArray<TypeIndex> typeIndexes;
+
+        PackageIndex(PackageBlock packageBlock){
+            this.packageBlock = packageBlock;
+            this.typeIndexes = new AtomicReferenceArray<>(256);
+        }
+        Entry getEntry(int typeId, int entryId, ResConfig config){
+            TypeIndex typeIndex = typeIndexes.get(typeId);
+            if(typeIndex == null){
+                typeIndex = new TypeIndex(packageBlock.getSpecTypePair(typeId), config);
+                if(!typeIndexes.compareAndSet(typeId, null, typeIndex)){
+                    typeIndex = typeIndexes.get(typeId);
+                }
+            }
+            return typeIndex.getEntry(entryId);
+        }
+    }
+    static class TypeIndex {
+        private final ResConfig config;
+        private final TypeBlock[] typeBlocks;
+        private final AtomicReferenceArray<Object> entries;
+
+        TypeIndex(SpecTypePair specTypePair, ResConfig config){
+            this.config = config;
+            List<TypeBlock> matching = new ArrayCollection<>();
+            int count = 0;
+            if(specTypePair != null){
+                Iterator<TypeBlock> iterator = specTypePair.getTypeBlocks();
+                while (iterator.hasNext()){
+                    TypeBlock typeBlock = iterator.next();
+                    if(!typeBlock.getResConfig().match(config)){
+                        continue;
+                    }
+                    matching.add(typeBlock);
+                    int highest = typeBlock.getEntryArray().getHighestEntryId() + 1;
+                    if(highest > count){
+                        count = highest;
+                    }
+                }
+            }
+            this.typeBlocks = matching.toArray(new TypeBlock[0]);
+            this.entries = new AtomicReferenceArray<>(count);
+        }
+        Entry getEntry(int entryId){
+            AtomicReferenceArray<Object> entries = this.entries;
+            if(entryId >= entries.length()){
+                return null;
+            }
+            Object entry = entries.get(entryId);
+            if(entry == null){
+                entry = findBest(entryId);
+                if(entry == null){
+                    entry = NOT_FOUND;
+                }
+                entries.lazySet(entryId, entry);
+            }
+            if(entry == NOT_FOUND){
+                return null;
+            }
+            return (Entry) entry;
+        }
+        private Entry findBest(int entryId){
+            Entry best = null;
+            ResConfig bestConfig = null;
+            for(TypeBlock typeBlock : typeBlocks){
+                Entry entry = typeBlock.getEntry(entryId);
+                if(entry == null || entry.isNull()){
+                    continue;
+                }
+                ResConfig resConfig = typeBlock.getResConfig();
+                if(best == null || resConfig.isBetterThan(bestConfig, config)){
+                    best = entry;
+                    bestConfig = resConfig;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static final Object NOT_FOUND = new Object();
+    private static final int MAX_REFERENCE_DEPTH = 20;
+}
@@ -50,7 +50,8 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     private final StringItemList<T> mArrayStrings;
     private final StyleItemList mArrayStyles;
 
-    private final MultiMap<String, T> poolMap;
+    private final MultiMap<Integer, T> poolMap;
+    private volatile boolean poolMapLoaded;
     private boolean stringLinkLocked;
 
     StringPool(boolean is_utf8, boolean stringLinkLocked, StringCreator<T> creator) {
@@ -120,7 +121,7 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     public void clear() {
         getStyleArray().clear();
         getStringsArray().clear();
-        poolMap.clear();
+        reloadPoolMap();
     }
     public void sort() {
         ensureStringLinkUnlockedInternal();
@@ -168,14 +169,41 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         }
     }
     private void reloadPoolMap() {
-        if (poolMap.size() == 0) {
+        synchronized (mLock) {
+            poolMapLoaded = false;
+            poolMap.clear();
+        }
+    }
+    /**
+     * Builds the lookup map on first use, keys are hash codes of xml strings computed
+     * without decoding string bytes whenever possible.
+     * */
+    private void ensurePoolMapLoaded() {
+        if (poolMapLoaded) {
+            return;
+        }
+        synchronized (mLock) {
+            if (poolMapLoaded) {
+                return;
+            }
             poolMap.clear();
             poolMap.setInitialSize(size());
-            poolMap.putAll(StringItem::getXml, iterator());
+            poolMap.putAll(StringItem::hashXml, iterator());
+            poolMapLoaded = true;
         }
     }
+    public boolean isConcurrentLookup() {
+        return poolMap.isConcurrentReads();
+    }
+    /**
+     * Lets string lookups run without locking, for pools shared by many reader threads.
+     * */
+    public void setConcurrentLookup(boolean concurrentLookup) {
+        poolMap.setConcurrentReads(concurrentLookup);
+    }
     public void compressDuplicates() {
         ensureStringLinkUnlockedInternal();
+        ensurePoolMapLoaded();
         poolMap.findDuplicates(CompareUtil.getComparableComparator(), list -> {
             T first = list.get(0);
             for(int i = 1; i < list.size(); i++) {
@@ -214,16 +242,29 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
         return null;
     }
     public boolean contains(String str) {
-        return poolMap.containsKey(str);
+        if (str == null) {
+            return false;
+        }
+        ensurePoolMapLoaded();
+        return poolMap.containsValue(str.hashCode(), stringItem -> str.equals(stringItem.getXml()));
     }
     public void onStringChanged(String old, T stringItem) {
-        if (!stringLinkLocked) {
-            poolMap.updateKey(old, stringItem.getXml(), stringItem);
+        synchronized (mLock) {
+            if (stringLinkLocked || !poolMapLoaded) {
+                return;
+            }
+            if (old != null) {
+                poolMap.remove(old.hashCode(), stringItem);
+            }
+            poolMap.put(stringItem.hashXml(), stringItem);
         }
     }
     public void onStringRemoved(T stringItem) {
-        if (!stringLinkLocked) {
-            poolMap.remove(stringItem.getXml(), stringItem);
+        synchronized (mLock) {
+            if (stringLinkLocked || !poolMapLoaded) {
+                return;
+            }
+            poolMap.remove(stringItem.hashXml(), stringItem);
         }
     }
     public final T getLast() {
@@ -239,18 +280,20 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     }
     public final Iterator<T> getAll(String str) {
         ensureStringLinkUnlockedInternal();
+        ensurePoolMapLoaded();
         if (str == null) {
-            return FilterIterator.of(poolMap.getAll(StringsUtil.EMPTY),
-                    StringItem::isNull);
+            return FilterIterator.of(poolMap.getAll(StringsUtil.EMPTY.hashCode()),
+                    stringItem -> stringItem.isNull() && StringsUtil.EMPTY.equals(stringItem.getXml()));
         }
-        return poolMap.getAll(str);
+        return FilterIterator.of(poolMap.getAll(str.hashCode()),
+                stringItem -> str.equals(stringItem.getXml()));
     }
     public final T get(String str, Predicate<? super T> predicate) {
         ensureStringLinkUnlockedInternal();
-        if (str == null) {
-            str = StringsUtil.EMPTY;
-        }
-        return poolMap.get(str, predicate);
+        ensurePoolMapLoaded();
+        String xml = str != null ? str : StringsUtil.EMPTY;
+        return poolMap.get(xml.hashCode(), stringItem -> xml.equals(stringItem.getXml())
+                && (predicate == null || predicate.test(stringItem)));
     }
     public final T getString(String str) {
         return CollectionUtil.getFirst(getAll(str));
@@ -369,7 +412,8 @@ public abstract class StringPool<T extends StringItem> extends Chunk<StringPoolH
     }
 
     private boolean containsInternal(T item) {
-        return poolMap.containsValue(item.getXml(),
+        ensurePoolMapLoaded();
+        return poolMap.containsValue(item.hashXml(),
                 stringItem -> stringItem.compareTo(item) == 0);
     }
     public void merge(StringPool<T> stringPool) {
@@ -33,6 +33,7 @@ import com.reandroid.arsc.value.ResConfig;
 import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.collection.ArrayCollection;
 import com.reandroid.utils.collection.FilterIterator;
+import com.reandroid.utils.collection.IntIntMap;
 
 import java.util.*;
 import java.util.function.Predicate;
@@ -42,13 +43,13 @@ public class ResourceBuilder {
     private ResourceMergeOption mMergeOption;
     private final TableBlock sourceTable;
     private ApkModule resultModule;
-    private final Map<Integer, Integer> resourceIdMap;
+    private final IntIntMap resourceIdMap;
     private boolean mRebuilt;
 
     public ResourceBuilder(ResourceMergeOption mergeOption, TableBlock sourceTable) {
         this.mMergeOption = mergeOption;
         this.sourceTable = sourceTable;
-        this.resourceIdMap = new HashMap<>();
+        this.resourceIdMap = new IntIntMap();
     }
     public ResourceBuilder(TableBlock sourceTable) {
         this(new ResourceMergeOption(), sourceTable);
@@ -76,18 +77,30 @@ public class ResourceBuilder {
 
     public int applyIdChanges(Iterator<IntegerReference> iterator) {
         int count = 0;
-        Map<Integer, Integer> idMap = getResourceIdMap();
+        IntIntMap idMap = this.resourceIdMap;
         while (iterator.hasNext()){
             IntegerReference reference = iterator.next();
-            Integer value = idMap.get(reference.get());
-            if(value != null) {
+            // replace ids are never zero, see addIdMap
+            int value = idMap.get(reference.get(), 0);
+            if(value != 0) {
                 reference.set(value);
                 count ++;
             }
         }
         return count;
     }
+    /**
+     * Returns a copy of resource id changes, search id to replace id
+     * */
     public Map<Integer, Integer> getResourceIdMap() {
+        IntIntMap idMap = this.resourceIdMap;
+        Map<Integer, Integer> results = new HashMap<>(idMap.size());
+        for(int id : idMap.keys()) {
+            results.put(id, idMap.get(id, 0));
+        }
+        return results;
+    }
+    public IntIntMap getResourceIdIntMap() {
         return resourceIdMap;
     }
     private void addIdMap(int search, int replace){
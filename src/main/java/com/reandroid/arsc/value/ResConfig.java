@@ -61,6 +61,418 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
         }
         return true;
     }
+    /**
+     * Port of android ResTable_config::match, returns true if resources of this config
+     * can be used on device having the given settings
+     * */
+    public boolean match(ResConfig settings){
+        if(settings == null){
+            return false;
+        }
+        int value = getMcc();
+        if(value != 0 && value != settings.getMcc()){
+            return false;
+        }
+        value = getMnc();
+        if(value != 0 && value != settings.getMnc()){
+            return false;
+        }
+        if(!matchLocale(settings)){
+            return false;
+        }
+        int screenLayout = getScreenLayout();
+        int setScreenLayout = settings.getScreenLayout();
+        value = screenLayout & ScreenLayoutDir.MASK;
+        if(value != 0 && value != (setScreenLayout & ScreenLayoutDir.MASK)){
+            return false;
+        }
+        value = screenLayout & ScreenLayoutSize.MASK;
+        if(value != 0 && value > (setScreenLayout & ScreenLayoutSize.MASK)){
+            return false;
+        }
+        value = screenLayout & ScreenLayoutLong.MASK;
+        if(value != 0 && value != (setScreenLayout & ScreenLayoutLong.MASK)){
+            return false;
+        }
+        int uiMode = getUiMode();
+        value = uiMode & UiModeType.MASK;
+        if(value != 0 && value != (settings.getUiMode() & UiModeType.MASK)){
+            return false;
+        }
+        value = uiMode & UiModeNight.MASK;
+        if(value != 0 && value != (settings.getUiMode() & UiModeNight.MASK)){
+            return false;
+        }
+        value = getSmallestScreenWidthDp();
+        if(value != 0 && value > settings.getSmallestScreenWidthDp()){
+            return false;
+        }
+        value = getScreenLayout2() & ScreenLayoutRound.MASK;
+        if(value != 0 && value != (settings.getScreenLayout2() & ScreenLayoutRound.MASK)){
+            return false;
+        }
+        int colorMode = getColorMode();
+        value = colorMode & ColorModeHdr.MASK;
+        if(value != 0 && value != (settings.getColorMode() & ColorModeHdr.MASK)){
+            return false;
+        }
+        value = colorMode & ColorModeWide.MASK;
+        if(value != 0 && value != (settings.getColorMode() & ColorModeWide.MASK)){
+            return false;
+        }
+        value = getScreenWidthDp();
+        if(value != 0 && value > settings.getScreenWidthDp()){
+            return false;
+        }
+        value = getScreenHeightDp();
+        if(value != 0 && value > settings.getScreenHeightDp()){
+            return false;
+        }
+        value = getOrientationValue();
+        if(value != 0 && value != settings.getOrientationValue()){
+            return false;
+        }
+        // density always matches, it can be scaled. See isBetterThan
+        value = getTouchscreenValue();
+        if(value != 0 && value != settings.getTouchscreenValue()){
+            return false;
+        }
+        int inputFlags = getInputFlagsValue();
+        int keysHidden = inputFlags & InputFlagsKeysHidden.MASK;
+        int setKeysHidden = settings.getInputFlagsValue() & InputFlagsKeysHidden.MASK;
+        if(keysHidden != 0 && keysHidden != setKeysHidden){
+            // keysexposed is counted as matching the more recent keyssoft
+            if(keysHidden != InputFlagsKeysHidden.KEYSEXPOSED.getFlag()
+                    || setKeysHidden != InputFlagsKeysHidden.KEYSSOFT.getFlag()){
+                return false;
+            }
+        }
+        value = inputFlags & InputFlagsNavHidden.MASK;
+        if(value != 0 && value != (settings.getInputFlagsValue() & InputFlagsNavHidden.MASK)){
+            return false;
+        }
+        value = getKeyboardValue();
+        if(value != 0 && value != settings.getKeyboardValue()){
+            return false;
+        }
+        value = getNavigationValue();
+        if(value != 0 && value != settings.getNavigationValue()){
+            return false;
+        }
+        value = getScreenWidth();
+        if(value != 0 && value > settings.getScreenWidth()){
+            return false;
+        }
+        value = getScreenHeight();
+        if(value != 0 && value > settings.getScreenHeight()){
+            return false;
+        }
+        value = getSdkVersion();
+        if(value != 0 && value > settings.getSdkVersion()){
+            return false;
+        }
+        value = getMinorVersion();
+        if(value != 0 && value != settings.getMinorVersion()){
+            return false;
+        }
+        value = getGenderValue();
+        if(value != 0 && value != settings.getGenderValue()){
+            return false;
+        }
+        return true;
+    }
+    /**
+     * Port of android ResTable_config::isBetterThan, both this and the other config are
+     * assumed to {@link #match(ResConfig)} the requested config.
+     * Locale numbering system is not part of this config thus it is not compared.
+     * */
+    public boolean isBetterThan(ResConfig other, ResConfig requested){
+        if(requested == null){
+            return isEqualOrMoreSpecificThan(other) && !other.isEqualOrMoreSpecificThan(this);
+        }
+        int value = getMcc();
+        int otherValue = other.getMcc();
+        if(value != otherValue && requested.getMcc() != 0){
+            return value != 0;
+        }
+        value = getMnc();
+        otherValue = other.getMnc();
+        if(value != otherValue && requested.getMnc() != 0){
+            return value != 0;
+        }
+        if(isLocaleBetterThan(other, requested)){
+            return true;
+        }
+        if(other.isLocaleBetterThan(this, requested)){
+            return false;
+        }
+        value = getGenderValue();
+        otherValue = other.getGenderValue();
+        if(value != otherValue && requested.getGenderValue() != 0){
+            return value != 0;
+        }
+        int screenLayout = getScreenLayout();
+        int otherScreenLayout = other.getScreenLayout();
+        int requestedScreenLayout = requested.getScreenLayout();
+        int mask = ScreenLayoutDir.MASK;
+        if(((screenLayout ^ otherScreenLayout) & mask) != 0 && (requestedScreenLayout & mask) != 0){
+            return (screenLayout & mask) > (otherScreenLayout & mask);
+        }
+        value = getSmallestScreenWidthDp();
+        otherValue = other.getSmallestScreenWidthDp();
+        if(value != otherValue){
+            // larger configs are already filtered out by match(), so the largest is closest
+            return value > otherValue;
+        }
+        int delta = 0;
+        int otherDelta = 0;
+        int requestedValue = requested.getScreenWidthDp();
+        if(requestedValue != 0){
+            delta += requestedValue - getScreenWidthDp();
+            otherDelta += requestedValue - other.getScreenWidthDp();
+        }
+        requestedValue = requested.getScreenHeightDp();
+        if(requestedValue != 0){
+            delta += requestedValue - getScreenHeightDp();
+            otherDelta += requestedValue - other.getScreenHeightDp();
+        }
+        if(delta != otherDelta){
+            return delta < otherDelta;
+        }
+        mask = ScreenLayoutSize.MASK;
+        if(((screenLayout ^ otherScreenLayout) & mask) != 0 && (requestedScreenLayout & mask) != 0){
+            // undefined size is considered normal, unless the requested size is smaller than normal
+            int size = screenLayout & mask;
+            int otherSize = otherScreenLayout & mask;
+            int fixedSize = size;
+            int fixedOtherSize = otherSize;
+            int normal = ScreenLayoutSize.NORMAL.getFlag();
+            if((requestedScreenLayout & mask) >= normal){
+                if(fixedSize == 0){
+                    fixedSize = normal;
+                }
+                if(fixedOtherSize == 0){
+                    fixedOtherSize = normal;
+                }
+            }
+            if(fixedSize == fixedOtherSize){
+                return size != 0;
+            }
+            return fixedSize > fixedOtherSize;
+        }
+        mask = ScreenLayoutLong.MASK;
+        if(((screenLayout ^ otherScreenLayout) & mask) != 0 && (requestedScreenLayout & mask) != 0){
+            return (screenLayout & mask) != 0;
+        }
+        value = getScreenLayout2();
+        otherValue = other.getScreenLayout2();
+        mask = ScreenLayoutRound.MASK;
+        if(((value ^ otherValue) & mask) != 0 && (requested.getScreenLayout2() & mask) != 0){
+            return (value & mask) != 0;
+        }
+        value = getColorMode();
+        otherValue = other.getColorMode();
+        mask = ColorModeWide.MASK;
+        if(((value ^ otherValue) & mask) != 0 && (requested.getColorMode() & mask) != 0){
+            return (value & mask) != 0;
+        }
+        mask = ColorModeHdr.MASK;
+        if(((value ^ otherValue) & mask) != 0 && (requested.getColorMode() & mask) != 0){
+            return (value & mask) != 0;
+        }
+        value = getOrientationValue();
+        otherValue = other.getOrientationValue();
+        if(value != otherValue && requested.getOrientationValue() != 0){
+            return value != 0;
+        }
+        value = getUiMode();
+        otherValue = other.getUiMode();
+        mask = UiModeType.MASK;
+        if(((value ^ otherValue) & mask) != 0 && (requested.getUiMode() & mask) != 0){
+            return (value & mask) != 0;
+        }
+        mask = UiModeNight.MASK;
+        if(((value ^ otherValue) & mask) != 0 && (requested.getUiMode() & mask) != 0){
+            return (value & mask) != 0;
+        }
+        value = getDensityValue();
+        otherValue = other.getDensityValue();
+        if(value != otherValue){
+            return isDensityBetterThan(value, otherValue, requested.getDensityValue());
+        }
+        value = getTouchscreenValue();
+        otherValue = other.getTouchscreenValue();
+        if(value != otherValue && requested.getTouchscreenValue() != 0){
+            return value != 0;
+        }
+        int inputFlags = getInputFlagsValue();
+        int otherInputFlags = other.getInputFlagsValue();
+        int requestedInputFlags = requested.getInputFlagsValue();
+        mask = InputFlagsKeysHidden.MASK;
+        value = inputFlags & mask;
+        otherValue = otherInputFlags & mask;
+        requestedValue = requestedInputFlags & mask;
+        if(value != otherValue && requestedValue != 0){
+            if(value == 0){
+                return false;
+            }
+            if(otherValue == 0){
+                return true;
+            }
+            // keysexposed is same as keyssoft, exact match is more specific
+            if(requestedValue == value){
+                return true;
+            }
+            if(requestedValue == otherValue){
+                return false;
+            }
+        }
+        mask = InputFlagsNavHidden.MASK;
+        value = inputFlags & mask;
+        otherValue = otherInputFlags & mask;
+        if(value != otherValue && (requestedInputFlags & mask) != 0){
+            if(value == 0){
+                return false;
+            }
+            if(otherValue == 0){
+                return true;
+            }
+        }
+        value = getKeyboardValue();
+        otherValue = other.getKeyboardValue();
+        if(value != otherValue && requested.getKeyboardValue() != 0){
+            return value != 0;
+        }
+        value = getNavigationValue();
+        otherValue = other.getNavigationValue();
+        if(value != otherValue && requested.getNavigationValue() != 0){
+            return value != 0;
+        }
+        delta = 0;
+        otherDelta = 0;
+        requestedValue = requested.getScreenWidth();
+        if(requestedValue != 0){
+            delta += requestedValue - getScreenWidth();
+            otherDelta += requestedValue - other.getScreenWidth();
+        }
+        requestedValue = requested.getScreenHeight();
+        if(requestedValue != 0){
+            delta += requestedValue - getScreenHeight();
+            otherDelta += requestedValue - other.getScreenHeight();
+        }
+        if(delta != otherDelta){
+            return delta < otherDelta;
+        }
+        value = getSdkVersion();
+        otherValue = other.getSdkVersion();
+        if(value != otherValue && requested.getSdkVersion() != 0){
+            return value > otherValue;
+        }
+        value = getMinorVersion();
+        otherValue = other.getMinorVersion();
+        if(value != otherValue && requested.getMinorVersion() != 0){
+            return value != 0;
+        }
+        return false;
+    }
+    /**
+     * Sets locale script to the likely script of language and region if script is empty,
+     * same as android does for device configuration before matching resources
+     * */
+    public void computeLocaleScript(){
+        char[] script = getRawLocaleScript();
+        if(script[0] != 0){
+            return;
+        }
+        LocaleData.localeDataComputeScript(script, getRawLanguage(), getRawRegion());
+        if(script[0] != 0){
+            setLocaleScript(script);
+        }
+    }
+    private boolean matchLocale(ResConfig settings){
+        char[] language = getRawLanguage();
+        char[] region = getRawRegion();
+        if(isNullChars(language) && isNullChars(region)){
+            return true;
+        }
+        char[] setLanguage = settings.getRawLanguage();
+        if(!isEquivalentLanguage(language, setLanguage)){
+            return false;
+        }
+        char[] setScript = settings.getRawLocaleScript();
+        char[] script = null;
+        if(setScript[0] != 0){
+            script = getRawLocaleScript();
+            if(script[0] == 0){
+                LocaleData.localeDataComputeScript(script, language, region);
+                if(script[0] == 0){
+                    script = null;
+                }
+            }
+        }
+        if(script == null){
+            // the script could not be determined, countries must match
+            return region[0] == 0 || isIdentical(region, settings.getRawRegion());
+        }
+        return Arrays.equals(script, setScript);
+    }
+    private boolean isLocaleBetterThan(ResConfig other, ResConfig requested){
+        char[] requestedLanguage = requested.getRawLanguage();
+        char[] requestedRegion = requested.getRawRegion();
+        if(isNullChars(requestedLanguage) && isNullChars(requestedRegion)){
+            return false;
+        }
+        char[] language = getRawLanguage();
+        char[] region = getRawRegion();
+        char[] otherLanguage = other.getRawLanguage();
+        char[] otherRegion = other.getRawRegion();
+        if(isNullChars(language) && isNullChars(region)
+                && isNullChars(otherLanguage) && isNullChars(otherRegion)){
+            return false;
+        }
+        if(!isEquivalentLanguage(language, otherLanguage)){
+            // one of them has no language, the one having language is better except for
+            // US English and similar locales where no-language resources traditionally live
+            if(isIdentical(requestedLanguage, LocaleData.ENGLISH_CHARS)){
+                if(isIdentical(requestedRegion, UNITED_STATES)){
+                    if(language[0] != 0){
+                        return region[0] == 0 || isIdentical(region, UNITED_STATES);
+                    }
+                    return !(otherRegion[0] == 0 || isIdentical(otherRegion, UNITED_STATES));
+                }else if(LocaleData.localeDataIsCloseToUsEnglish(requestedRegion)){
+                    if(language[0] != 0){
+                        return LocaleData.localeDataIsCloseToUsEnglish(region);
+                    }
+                    return !LocaleData.localeDataIsCloseToUsEnglish(otherRegion);
+                }
+            }
+            return language[0] != 0;
+        }
+        int regionComparison = LocaleData.localeDataCompareRegions(region, otherRegion,
+                requestedLanguage, requested.getRawLocaleScript(), requestedRegion);
+        if(regionComparison != 0){
+            return regionComparison > 0;
+        }
+        char[] requestedVariant = requested.getRawLocaleVariant();
+        boolean localeMatches = Arrays.equals(getRawLocaleVariant(), requestedVariant);
+        boolean otherMatches = Arrays.equals(other.getRawLocaleVariant(), requestedVariant);
+        if(localeMatches != otherMatches){
+            return localeMatches;
+        }
+        return isIdentical(language, requestedLanguage) && !isIdentical(otherLanguage, requestedLanguage);
+    }
+    private char[] getRawLanguage(){
+        return toRawChars(getLanguageBytes(), 2);
+    }
+    private char[] getRawRegion(){
+        return toRawChars(getRegionBytes(), 2);
+    }
+    private char[] getRawLocaleScript(){
+        return toRawChars(getLocaleScriptBytes(), LEN_localeScript);
+    }
+    private char[] getRawLocaleVariant(){
+        return toRawChars(getLocaleVariantBytes(), LEN_localeVariant);
+    }
     public void copyFrom(ResConfig resConfig){
         if(resConfig == this || resConfig == null){
             return;
@@ -652,6 +1064,63 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
         }
         return out;
     }
+    private static boolean isDensityBetterThan(int density, int otherDensity, int requestedDensity){
+        int medium = Density.MDPI.getFlag();
+        int any = Density.ANYDPI.getFlag();
+        if(density == 0){
+            density = medium;
+        }
+        if(otherDensity == 0){
+            otherDensity = medium;
+        }
+        // anydpi is always preferred over scaling a density bucket
+        if(density == any){
+            return true;
+        }
+        if(otherDensity == any){
+            return false;
+        }
+        if(requestedDensity == 0 || requestedDensity == any){
+            requestedDensity = medium;
+        }
+        int high = density;
+        int low = otherDensity;
+        boolean bigger = true;
+        if(low > high){
+            high = otherDensity;
+            low = density;
+            bigger = false;
+        }
+        if(requestedDensity >= high){
+            return bigger;
+        }
+        if(low >= requestedDensity){
+            return !bigger;
+        }
+        // scaling down is considered 2x better than scaling up
+        if(((2 * low) - requestedDensity) * high > requestedDensity * requestedDensity){
+            return !bigger;
+        }
+        return bigger;
+    }
+    private static boolean isEquivalentLanguage(char[] language1, char[] language2){
+        return isIdentical(language1, language2)
+                || (isIdentical(language1, TAGALOG) && isIdentical(language2, FILIPINO))
+                || (isIdentical(language1, FILIPINO) && isIdentical(language2, TAGALOG));
+    }
+    private static boolean isIdentical(char[] chars1, char[] chars2){
+        return chars1[0] == chars2[0] && chars1[1] == chars2[1];
+    }
+    private static char[] toRawChars(byte[] bytes, int length){
+        char[] results = new char[length];
+        if(bytes != null){
+            int max = Math.min(length, bytes.length);
+            for(int i = 0; i < max; i++){
+                results[i] = (char) (bytes[i] & 0xff);
+            }
+        }
+        return results;
+    }
     private static byte[] packLanguage(char[] language) {
         return packLanguageOrRegion(language, 'a');
     }
@@ -1941,5 +2410,9 @@ public class ResConfig extends ResConfigBase implements JSONConvert<JSONObject>,
 
     private static final ResConfig DEFAULT_INSTANCE = new ResConfig(SIZE_16);
 
+    private static final char[] TAGALOG = new char[]{'t', 'l'};
+    private static final char[] FILIPINO = new char[]{0xAD, 0x05};
+    private static final char[] UNITED_STATES = new char[]{'U', 'S'};
+
     private static final char POSTFIX_locale = '#';
 }
@@ -68,14 +68,14 @@ public class BytesOutputStream extends ByteArrayOutputStream {
         }
         byte[] buf = this.buf;
         int oldCapacity = buf.length;
-        int newCapacity = minCapacity + mLastGrow;
+        // grow at least by half of current capacity, fixed steps make
+        // large unsized outputs copy the whole buffer over and over
+        int newCapacity = minCapacity + Math.max(mLastGrow, oldCapacity >> 1);
         if (newCapacity - minCapacity < 0) {
             newCapacity = minCapacity;
         }
         byte[] bytes = new byte[newCapacity];
-        for(int i = 0; i < oldCapacity; i ++){
-            bytes[i] = buf[i];
-        }
+        System.arraycopy(buf, 0, bytes, 0, oldCapacity);
         this.buf = bytes;
     }
 
@@ -114,9 +114,7 @@ public class BytesOutputStream extends ByteArrayOutputStream {
             return buf;
         }
         byte[] results = new byte[count];
-        for(int i = 0; i < count; i++){
-            results[i] = buf[i];
-        }
+        System.arraycopy(buf, 0, results, 0, count);
         this.buf = results;
         return results;
     }
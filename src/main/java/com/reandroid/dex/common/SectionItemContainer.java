@@ -106,19 +106,7 @@ public class SectionItemContainer extends SectionItem implements BlockRefresh,
         if(isNull()){
             return null;
         }
-        Block[] childBlocks = getChildBlocks();
-        if(childBlocks == null){
-            return null;
-        }
-        byte[] results = null;
-        int length = childBlocks.length;
-        for(int i = 0; i < length; i++){
-            Block item = childBlocks[i];
-            if(item != null){
-                results = addBytes(results, item.getBytes());
-            }
-        }
-        return results;
+        return writeToByteArray();
     }
     @Override
     public int onWriteBytes(OutputStream stream) throws IOException {
@@ -231,6 +231,8 @@ public class InstructionList extends FixedBlockContainer implements
     }
 
     private InsBlockList getInsBlockList() {
+        InsBlockList insBlockList = this.insBlockList;
+        insBlockList.decodeLazy();
         return insBlockList;
     }
 
@@ -436,10 +438,10 @@ public class InstructionList extends FixedBlockContainer implements
     @Override
     protected void onRefreshed() {
         super.onRefreshed();
-        getInsBlockList().unlink();
+        insBlockList.unlink();
     }
     public int getCodeUnits() {
-        return getInsBlockList().getCodeUnits();
+        return insBlockList.getCodeUnits();
     }
     public DexPositionAlign getBlockAlign() {
         return blockAlign;
@@ -534,12 +536,12 @@ public class InstructionList extends FixedBlockContainer implements
             return false;
         }
         InstructionList list = (InstructionList) obj;
-        return insBlockList.equals(list.insBlockList);
+        return getInsBlockList().equals(list.getInsBlockList());
     }
 
     @Override
     public int hashCode() {
-        return insBlockList.hashCode();
+        return getInsBlockList().hashCode();
     }
 
     @Override
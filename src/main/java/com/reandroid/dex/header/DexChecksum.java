@@ -15,7 +15,9 @@
  */
 package com.reandroid.dex.header;
 
+import com.reandroid.arsc.base.Block;
 import com.reandroid.dex.sections.DexLayoutBlock;
+import com.reandroid.utils.ALDER32;
 import com.reandroid.utils.Alder32OutputStream;
 import com.reandroid.utils.HexUtil;
 
@@ -52,6 +54,20 @@ public class DexChecksum extends HeaderPiece {
         return previous != getValue();
     }
 
+    /**
+     * Updates from already serialized bytes of the whole dex layout, and patches
+     * the checksum field of the given bytes too.
+     * returns true if the value of checksum is changed, otherwise false
+     * */
+    public boolean update(byte[] layoutBytes) {
+        int previous = getValue();
+        ALDER32 alder32 = new ALDER32();
+        alder32.update(layoutBytes, OFFSET_END, layoutBytes.length - OFFSET_END);
+        setValue(alder32.getValue());
+        Block.putInteger(layoutBytes, OFFSET_END - 4, getValue());
+        return previous != getValue();
+    }
+
     @Override
     protected int onWriteBytes(OutputStream stream) throws IOException {
         if (stream instanceof Alder32OutputStream) {
@@ -65,4 +81,7 @@ public class DexChecksum extends HeaderPiece {
     public String toString(){
         return HexUtil.toHex8(getValue());
     }
+
+    // end offset of checksum on dex header, computation starts from here
+    private static final int OFFSET_END = 12;
 }
@@ -198,6 +198,20 @@ public class DexHeader extends SpecialItem implements OffsetSupplier, DirectStre
     public void updateSignature() {
         this.signature.update();
     }
+    /**
+     * Same as updateChecksum() but computed from already serialized bytes of the layout,
+     * the checksum field of the bytes is patched too.
+     * */
+    public boolean updateChecksum(byte[] layoutBytes) {
+        return this.checksum.update(layoutBytes);
+    }
+    /**
+     * Same as updateSignature() but computed from already serialized bytes of the layout,
+     * the signature field of the bytes is patched too.
+     * */
+    public void updateSignature(byte[] layoutBytes) {
+        this.signature.update(layoutBytes);
+    }
 
     @Override
     public String toString() {
@@ -17,6 +17,7 @@ package com.reandroid.dex.header;
 
 import com.reandroid.dex.sections.DexLayoutBlock;
 import com.reandroid.utils.HexUtil;
+import com.reandroid.utils.SHA1;
 import com.reandroid.utils.Sha1OutputStream;
 
 import java.io.IOException;
@@ -43,6 +44,18 @@ public class Signature extends HeaderPiece {
         outputStream.digest(getBytesInternal(), 0);
     }
 
+    /**
+     * Updates from already serialized bytes of the whole dex layout, and patches
+     * the signature field of the given bytes too.
+     * */
+    public void update(byte[] layoutBytes) {
+        SHA1 sha1 = new SHA1();
+        sha1.update(layoutBytes, OFFSET_END, layoutBytes.length - OFFSET_END);
+        byte[] bytes = getBytesInternal();
+        sha1.digest(bytes, 0);
+        System.arraycopy(bytes, 0, layoutBytes, OFFSET_END - bytes.length, bytes.length);
+    }
+
     @Override
     protected int onWriteBytes(OutputStream stream) throws IOException {
         if (stream instanceof Sha1OutputStream) {
@@ -58,4 +71,7 @@ public class Signature extends HeaderPiece {
     public String toString() {
         return getHex();
     }
+
+    // end offset of signature on dex header, computation starts from here
+    private static final int OFFSET_END = 32;
 }
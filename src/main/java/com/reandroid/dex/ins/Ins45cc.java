@@ -127,6 +127,12 @@ public class Ins45cc extends Size8Ins implements RegistersSet, DualKeyReference
         super.pullSectionItem();
         reference2.pullItem();
     }
+    @Override
+    int pullSectionItem(IdItem[] idItems, int index) {
+        index = super.pullSectionItem(idItems, index);
+        reference2.pullItem((ProtoId) idItems[index]);
+        return index + 1;
+    }
 
     @Override
     protected void onRefreshed() {
@@ -125,6 +125,12 @@ public class Ins4rcc extends Size8Ins implements RegistersSet, DualKeyReference
         super.pullSectionItem();
         this.reference2.pullItem();
     }
+    @Override
+    int pullSectionItem(IdItem[] idItems, int index) {
+        index = super.pullSectionItem(idItems, index);
+        this.reference2.pullItem((ProtoId) idItems[index]);
+        return index + 1;
+    }
 
     @Override
     protected void onRefreshed() {
@@ -15,14 +15,24 @@
  */
 package com.reandroid.dex.ins;
 
+import com.reandroid.arsc.base.BlockCounter;
+import com.reandroid.arsc.base.BlockLocator;
 import com.reandroid.arsc.container.BlockList;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.item.AlignItem;
 import com.reandroid.arsc.item.IntegerReference;
 import com.reandroid.dex.base.DexException;
+import com.reandroid.dex.base.UsageMarker;
 import com.reandroid.dex.data.InstructionList;
 import com.reandroid.dex.data.MethodDef;
 import com.reandroid.dex.debug.DebugElement;
+import com.reandroid.dex.id.IdItem;
+import com.reandroid.dex.key.Key;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.sections.DexContainerBlock;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionList;
+import com.reandroid.dex.sections.SectionType;
 import com.reandroid.utils.NumbersUtil;
 import com.reandroid.utils.ObjectsUtil;
 import com.reandroid.utils.collection.CombiningIterator;
@@ -31,6 +41,8 @@ import com.reandroid.utils.collection.IterableIterator;
 import com.reandroid.utils.collection.SingleIterator;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Iterator;
 
 public class InsBlockList extends BlockList<Ins> {
@@ -48,6 +60,19 @@ public class InsBlockList extends BlockList<Ins> {
 
     private Object mLockedBy;
 
+    // Prefix sums of code units, index i holds address of i-th instruction and the last
+    // holds total code units. Kept only while linking or updating targets where instructions
+    // are neither added nor removed, dropped on any list change.
+    private int[] mAddressIndex;
+
+    // Raw instruction bytes of a lazily read list, decoded on first access. Referenced id items
+    // are resolved while reading, mLazyIdOffsets holds byte offsets of their index values
+    // (negative for 32-bit const-string/jumbo) to keep the bytes in sync on refresh.
+    private volatile byte[] mLazyBytes;
+    private IdItem[] mLazyIdItems;
+    private int[] mLazyIdOffsets;
+    private boolean mDecodingLazy;
+
     public InsBlockList(AlignItem blockAlign,
                         IntegerReference codeUnitsReference,
                         IntegerReference outSizReference,
@@ -70,6 +95,10 @@ public class InsBlockList extends BlockList<Ins> {
         return null;
     }
     public Ins getAtAddress(int address){
+        int[] addressIndex = this.mAddressIndex;
+        if(addressIndex != null) {
+            return getAtAddress(addressIndex, address);
+        }
         int size = size();
         int codeUnits = 0;
         for (int i = 0; i < size; i++) {
@@ -84,7 +113,31 @@ public class InsBlockList extends BlockList<Ins> {
         }
         return null;
     }
+    private Ins getAtAddress(int[] addressIndex, int address) {
+        int size = addressIndex.length - 1;
+        int start = 0;
+        int end = size;
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if(addressIndex[mid] < address) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        if(addressIndex[start] != address) {
+            return null;
+        }
+        if(start == size) {
+            return getOrCreateNullInstruction();
+        }
+        return get(start);
+    }
     public int addressOf(Ins instruction) {
+        int[] addressIndex = this.mAddressIndex;
+        if(addressIndex != null) {
+            return addressOf(addressIndex, instruction);
+        }
         int count = size();
         int address = 0;
         for(int i = 0; i < count; i++) {
@@ -99,6 +152,35 @@ public class InsBlockList extends BlockList<Ins> {
         }
         return -1;
     }
+    private int addressOf(int[] addressIndex, Ins instruction) {
+        int index = indexOf(instruction);
+        if(index >= 0) {
+            return addressIndex[index];
+        }
+        if(instruction == getNullInstruction()) {
+            return addressIndex[addressIndex.length - 1];
+        }
+        return -1;
+    }
+    private void buildAddressIndex() {
+        int size = size();
+        int[] addressIndex = new int[size + 1];
+        int address = 0;
+        for(int i = 0; i < size; i++) {
+            addressIndex[i] = address;
+            address += get(i).getCodeUnits();
+        }
+        addressIndex[size] = address;
+        this.mAddressIndex = addressIndex;
+    }
+    private void clearAddressIndex() {
+        this.mAddressIndex = null;
+    }
+    void onCodeUnitsChanged(Ins ins) {
+        if(mAddressIndex != null) {
+            buildAddressIndex();
+        }
+    }
     private Ins[] buildAddressMap() {
         int size = size();
         int address = 0;
@@ -157,8 +239,13 @@ public class InsBlockList extends BlockList<Ins> {
         }
         mLockedBy = obj;
         mLocked = true;
-        linkTargetIns();
-        linkExtraLines();
+        buildAddressIndex();
+        try {
+            linkTargetIns();
+            linkExtraLines();
+        } finally {
+            clearAddressIndex();
+        }
         mLinked = size() != 0;
         mLocked = false;
         return obj;
@@ -168,8 +255,13 @@ public class InsBlockList extends BlockList<Ins> {
             return;
         }
         mLocked = true;
-        linkTargetIns();
-        linkExtraLines();
+        buildAddressIndex();
+        try {
+            linkTargetIns();
+            linkExtraLines();
+        } finally {
+            clearAddressIndex();
+        }
         mLinked = true;
         mLocked = false;
     }
@@ -229,17 +321,22 @@ public class InsBlockList extends BlockList<Ins> {
             return;
         }
         mLocked = true;
-        if(!mLinked) {
-            if(!update) {
-                mLocked = false;
-                mLockedBy = null;
-                return;
-            }
-            linkTargetIns();
-            linkExtraLines();
+        if(!mLinked && !update) {
+            mLocked = false;
+            mLockedBy = null;
+            return;
         }
-        if(update || mSecondUpdateRequired) {
-            update();
+        buildAddressIndex();
+        try {
+            if(!mLinked) {
+                linkTargetIns();
+                linkExtraLines();
+            }
+            if(update || mSecondUpdateRequired) {
+                update();
+            }
+        } finally {
+            clearAddressIndex();
         }
         unlinkTargets();
         mLocked = false;
@@ -251,7 +348,12 @@ public class InsBlockList extends BlockList<Ins> {
             return;
         }
         mLocked = true;
-        update();
+        buildAddressIndex();
+        try {
+            update();
+        } finally {
+            clearAddressIndex();
+        }
         unlinkTargets();
         updateCodeUnits();
         mLocked = false;
@@ -344,9 +446,24 @@ public class InsBlockList extends BlockList<Ins> {
         blockAlign.align(address * 2);
     }
 
+    @Override
+    public void onChanged() {
+        clearAddressIndex();
+        super.onChanged();
+    }
+    @Override
+    protected void onPreRefresh() {
+        super.onPreRefresh();
+        if(mLazyBytes != null) {
+            refreshLazyIds();
+        }
+    }
     @Override
     protected void onRefreshed() {
         super.onRefreshed();
+        if(mLazyBytes != null) {
+            return;
+        }
         updateCodeUnits();
         mLocked = false;
         mSecondUpdateRequired = false;
@@ -355,21 +472,24 @@ public class InsBlockList extends BlockList<Ins> {
     }
     @Override
     public void onReadBytes(BlockReader reader) throws IOException {
+        clearLazy();
         mLockedBy = new Object();
         int insCodeUnits = codeUnitsReference.get();
         int position = reader.getPosition() + insCodeUnits * 2;
         int zeroPosition = reader.getPosition();
 
-        int count = (insCodeUnits + 1) / 2;
-        ensureCapacity(count);
+        if(insCodeUnits == 0 || !isLazyReading() || !readLazy(reader, insCodeUnits * 2)) {
+            int count = (insCodeUnits + 1) / 2;
+            ensureCapacity(count);
 
-        while (reader.getPosition() < position){
-            Opcode<?> opcode = Opcode.read(reader);
-            Ins ins = opcode.newInstance();
-            add(ins);
-            ins.readBytes(reader);
+            while (reader.getPosition() < position){
+                Opcode<?> opcode = Opcode.read(reader);
+                Ins ins = opcode.newInstance();
+                add(ins);
+                ins.readBytes(reader);
+            }
+            trimToSize();
         }
-        trimToSize();
         if(position != reader.getPosition()){
             // should not reach here
             reader.seek(position);
@@ -385,6 +505,7 @@ public class InsBlockList extends BlockList<Ins> {
         if(insBlockList == this) {
             return;
         }
+        clearLazy();
         mLockedBy = new Object();
         mLocked = true;
         clearChildes();
@@ -401,4 +522,253 @@ public class InsBlockList extends BlockList<Ins> {
         mLockedBy = null;
         updateCodeUnits();
     }
+    public boolean isLazy() {
+        return mLazyBytes != null;
+    }
+    /**
+     * Decodes instructions of a lazily read list, does nothing if already decoded.
+     * */
+    public void decodeLazy() {
+        if(mLazyBytes == null) {
+            return;
+        }
+        synchronized (this) {
+            byte[] bytes = this.mLazyBytes;
+            if(bytes == null || mDecodingLazy) {
+                return;
+            }
+            mDecodingLazy = true;
+            try {
+                decodeLazy(bytes, mLazyIdItems);
+            } catch (IOException exception) {
+                throw new DexException("Failed to decode instructions: "
+                        + getCurrentMethodForDebug(), exception);
+            } finally {
+                mDecodingLazy = false;
+            }
+        }
+    }
+    private void decodeLazy(byte[] bytes, IdItem[] idItems) throws IOException {
+        mLockedBy = new Object();
+        ensureCapacity((bytes.length + 2) / 4);
+        BlockReader reader = new BlockReader(bytes);
+        int index = 0;
+        while (reader.isAvailable()) {
+            Opcode<?> opcode = Opcode.read(reader);
+            Ins ins = opcode.newInstance();
+            add(ins);
+            if(ins instanceof SizeXIns) {
+                index = ((SizeXIns) ins).readLazyBytes(reader, idItems, index);
+            } else {
+                ins.readBytes(reader);
+            }
+        }
+        trimToSize();
+        clearLazy();
+        mLocked = false;
+        mLinked = false;
+        mLockedBy = null;
+    }
+    private void clearLazy() {
+        this.mLazyBytes = null;
+        this.mLazyIdItems = null;
+        this.mLazyIdOffsets = null;
+    }
+    private boolean isLazyReading() {
+        DexContainerBlock containerBlock = getParentInstance(DexContainerBlock.class);
+        return containerBlock != null && containerBlock.isLazyInstructions();
+    }
+    // Keeps raw bytes and resolves referenced id items by scanning opcodes, returns false
+    // with the reader position unchanged on anything the scan can not walk through.
+    private boolean readLazy(BlockReader reader, int length) throws IOException {
+        SectionList sectionList = getParent(SectionList.class);
+        if(sectionList == null || reader.available() < length) {
+            return false;
+        }
+        int start = reader.getPosition();
+        byte[] bytes = reader.readBytes(length);
+        IdItem[] idItems = new IdItem[8];
+        int[] offsets = new int[8];
+        int count = 0;
+        int position = 0;
+        while (position < length) {
+            int value = bytes[position] & 0xff;
+            if(value == 0) {
+                value = (bytes[position + 1] & 0xff) << 8;
+            }
+            Opcode<?> opcode = Opcode.valueOf(value);
+            int size = opcode == null ? -1 : opcode.size();
+            if(size < 0) {
+                size = payloadSize(bytes, position, value);
+            }
+            if(size <= 0 || size > length - position) {
+                reader.seek(start);
+                return false;
+            }
+            SectionType<?> sectionType = opcode.getSectionType();
+            boolean hasId = sectionType != null;
+            if(opcode == Opcode.THROW_VERIFICATION_ERROR) {
+                sectionType = SectionType.getReferenceType((bytes[position + 1] & 0xff) >> 6);
+                hasId = true;
+            }
+            int ids = hasId ? 1 : 0;
+            SectionType<?> sectionType2 = opcode.getSectionType2();
+            if(sectionType2 != null) {
+                ids ++;
+            }
+            if(ids != 0 && count + ids > idItems.length) {
+                int capacity = idItems.length * 2;
+                idItems = Arrays.copyOf(idItems, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+            if(hasId) {
+                int offset = position + 2;
+                int idx;
+                if(opcode == Opcode.CONST_STRING_JUMBO) {
+                    idx = getInteger(bytes, offset);
+                    offset = -offset;
+                } else {
+                    idx = getShortUnsigned(bytes, offset);
+                }
+                idItems[count] = getLazyIdItem(sectionList, sectionType, idx);
+                offsets[count] = offset;
+                count ++;
+            }
+            if(sectionType2 != null) {
+                int offset = position + 6;
+                idItems[count] = getLazyIdItem(sectionList, sectionType2,
+                        getShortUnsigned(bytes, offset));
+                offsets[count] = offset;
+                count ++;
+            }
+            position += size;
+        }
+        if(count != idItems.length) {
+            idItems = Arrays.copyOf(idItems, count);
+            offsets = Arrays.copyOf(offsets, count);
+        }
+        this.mLazyIdItems = idItems;
+        this.mLazyIdOffsets = offsets;
+        this.mLazyBytes = bytes;
+        return true;
+    }
+    private static IdItem getLazyIdItem(SectionList sectionList, SectionType<?> sectionType, int idx) {
+        if(sectionType == null) {
+            return null;
+        }
+        Section<?> section = sectionList.getSection(sectionType);
+        if(section == null) {
+            return null;
+        }
+        IdItem idItem = (IdItem) section.getSectionItem(idx);
+        if(idItem != null) {
+            idItem.addUsageType(UsageMarker.USAGE_INSTRUCTION);
+        }
+        return idItem;
+    }
+    private static int payloadSize(byte[] bytes, int position, int value) {
+        if(bytes.length - position < 8) {
+            return -1;
+        }
+        long codeUnits;
+        if(value == Opcode.PACKED_SWITCH_PAYLOAD.getValue()) {
+            codeUnits = getShortUnsigned(bytes, position + 2) * 2L + 4;
+        } else if(value == Opcode.SPARSE_SWITCH_PAYLOAD.getValue()) {
+            codeUnits = getShortUnsigned(bytes, position + 2) * 4L + 2;
+        } else if(value == Opcode.ARRAY_PAYLOAD.getValue()) {
+            long width = getShortUnsigned(bytes, position + 2);
+            long count = getInteger(bytes, position + 4) & 0xffffffffL;
+            codeUnits = (width * count + 1) / 2 + 4;
+        } else {
+            return -1;
+        }
+        if(codeUnits * 2 > bytes.length - position) {
+            return -1;
+        }
+        return (int) (codeUnits * 2);
+    }
+    // Same as refreshing id references of decoded instructions, anything beyond writing
+    // current index values decodes the list and leaves it to the instructions
+    private void refreshLazyIds() {
+        byte[] bytes = this.mLazyBytes;
+        IdItem[] idItems = this.mLazyIdItems;
+        int[] offsets = this.mLazyIdOffsets;
+        int length = idItems.length;
+        for(int i = 0; i < length; i++) {
+            IdItem idItem = idItems[i];
+            int offset = offsets[i];
+            if(idItem == null || idItem.getReplace() != idItem ||
+                    (offset > 0 && idItem.getIdx() > 0xffff) ||
+                    isInvalidLazyType(bytes, offset, idItem)) {
+                decodeLazy();
+                return;
+            }
+        }
+        for(int i = 0; i < length; i++) {
+            IdItem idItem = idItems[i];
+            int offset = offsets[i];
+            if(offset < 0) {
+                putInteger(bytes, -offset, idItem.getIdx());
+            } else {
+                putShort(bytes, offset, idItem.getIdx());
+            }
+            idItem.addUsageType(UsageMarker.USAGE_INSTRUCTION);
+        }
+    }
+    private static boolean isInvalidLazyType(byte[] bytes, int offset, IdItem idItem) {
+        Key key = idItem.getKey();
+        if(!(key instanceof TypeKey) || ((TypeKey) key).isTypeObject()) {
+            return false;
+        }
+        return offset < 0 || (bytes[offset - 2] & 0xff) != Opcode.CONST_CLASS.getValue();
+    }
+
+    @Override
+    public byte[] getBytes() {
+        byte[] bytes = this.mLazyBytes;
+        if(bytes != null) {
+            return bytes.clone();
+        }
+        return super.getBytes();
+    }
+    @Override
+    public int countBytes() {
+        byte[] bytes = this.mLazyBytes;
+        if(bytes != null) {
+            return bytes.length;
+        }
+        return super.countBytes();
+    }
+    @Override
+    public void onCountUpTo(BlockCounter counter) {
+        byte[] bytes = this.mLazyBytes;
+        if(bytes != null && !(counter instanceof BlockLocator)) {
+            if(counter.FOUND) {
+                return;
+            }
+            counter.setCurrent(this);
+            if(counter.END == this) {
+                counter.FOUND = true;
+                return;
+            }
+            counter.addCount(bytes.length);
+            return;
+        }
+        decodeLazy();
+        super.onCountUpTo(counter);
+    }
+    @Override
+    protected int onWriteBytes(OutputStream stream) throws IOException {
+        byte[] bytes = this.mLazyBytes;
+        if(bytes != null) {
+            stream.write(bytes);
+            return bytes.length;
+        }
+        return super.onWriteBytes(stream);
+    }
+    @Override
+    public void clearChildes() {
+        clearLazy();
+        super.clearChildes();
+    }
 }
@@ -137,6 +137,7 @@ public class InsGoto extends SizeXIns implements Label {
         byteArray.putShort(0, opcode.getValue());
         setData(data);
         if(insBlockList != null) {
+            insBlockList.onCodeUnitsChanged(this);
             insBlockList.unlink();
         }
     }
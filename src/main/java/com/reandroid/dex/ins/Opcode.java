@@ -993,6 +993,11 @@ public class Opcode<T extends Ins> implements BlockCreator<T>, SmaliFormat {
         return name.charAt(0) == 'm' &&
                 name.charAt(5) == 'r';
     }
+    public boolean isConstNumber(){
+        // const/4 .. const-wide/high16, cheaper than instanceof ConstNumber on hot loops
+        int value = getValue();
+        return value >= 0x12 && value <= 0x19;
+    }
     public boolean isMover(){
         Opcode<?> opcode = this;
         return opcode == MOVE ||
@@ -149,6 +149,20 @@ public class SizeXIns extends Ins {
             sectionReference.pullItem();
         }
     }
+    // Reads bytes kept by lazily loaded InsBlockList, id items are taken in order from
+    // idItems starting at index instead of looking up stale index values
+    int readLazyBytes(BlockReader reader, IdItem[] idItems, int index) throws IOException {
+        valueBytes.onReadBytes(reader);
+        return pullSectionItem(idItems, index);
+    }
+    int pullSectionItem(IdItem[] idItems, int index){
+        InsIdSectionReference sectionReference = this.sectionReference;
+        if(sectionReference != null){
+            sectionReference.pullItem(idItems[index]);
+            index ++;
+        }
+        return index;
+    }
     public IdItem getSectionId() {
         InsIdSectionReference sectionReference = this.sectionReference;
         if(sectionReference != null){
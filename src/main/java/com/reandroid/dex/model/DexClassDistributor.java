@@ -0,0 +1,180 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.id.IdItem;
+import com.reandroid.dex.key.Key;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.utils.collection.ArrayCollection;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Packs classes of a dex directory in a single pass. Each dex layout keeps its leading
+ * classes as long as they fit within class count and id limits, the overflowing classes
+ * are then placed first-fit (in their original order, so that related classes stay together)
+ * into layouts having room, creating new dex files when none has.
+ */
+class DexClassDistributor {
+
+    private final DexDirectory directory;
+    private final int maxClassesPerDex;
+    private final List<Bin> bins;
+    private final DexMergeOptions mergeOptions;
+
+    DexClassDistributor(DexDirectory directory, int maxClassesPerDex) {
+        this.directory = directory;
+        this.maxClassesPerDex = maxClassesPerDex;
+        this.bins = new ArrayCollection<>();
+        this.mergeOptions = new DexMergeOptions(true);
+    }
+
+    int distribute() {
+        List<ClassId> overflowClasses = new ArrayCollection<>();
+        List<Map<SectionType<?>, Set<Key>>> overflowFootprints = new ArrayCollection<>();
+        int size = directory.size();
+        for(int i = 0; i < size; i++) {
+            Iterator<DexLayout> iterator = directory.get(i).clonedIterator();
+            while (iterator.hasNext()) {
+                DexLayout layout = iterator.next();
+                Bin bin = new Bin(layout);
+                bins.add(bin);
+                Section<ClassId> section = layout.getSection(SectionType.CLASS_ID);
+                if(section == null) {
+                    continue;
+                }
+                for(ClassId classId : section) {
+                    Map<SectionType<?>, Set<Key>> footprint = footprintOf(classId);
+                    if(bin.canAdd(footprint)) {
+                        bin.add(footprint);
+                    } else {
+                        overflowClasses.add(classId);
+                        overflowFootprints.add(footprint);
+                    }
+                }
+            }
+        }
+        int result = 0;
+        int count = overflowClasses.size();
+        for(int i = 0; i < count; i++) {
+            if(relocate(overflowClasses.get(i), overflowFootprints.get(i))) {
+                result ++;
+            }
+        }
+        return result;
+    }
+    private boolean relocate(ClassId classId, Map<SectionType<?>, Set<Key>> footprint) {
+        for(Bin bin : bins) {
+            if(bin.canAdd(footprint)) {
+                if(bin.merge(classId, footprint)) {
+                    return true;
+                }
+                if(classId.getParent() == null) {
+                    return false;
+                }
+            }
+        }
+        Bin bin = createBin();
+        return bin.merge(classId, footprint);
+    }
+    private Bin createBin() {
+        int size = directory.size();
+        DexFile dexFile = directory.createDefault();
+        if(directory.size() <= size) {
+            throw new IllegalArgumentException("Failed to create next dex");
+        }
+        Bin bin = new Bin(dexFile.getOrCreateFirst());
+        bins.add(bin);
+        return bin;
+    }
+    private static Map<SectionType<?>, Set<Key>> footprintOf(ClassId classId) {
+        Map<SectionType<?>, Set<Key>> footprint = new HashMap<>();
+        for(IdItem idItem : classId.listUsedIds()) {
+            if(idItem == null) {
+                continue;
+            }
+            Key key = idItem.getKey();
+            if(key == null) {
+                continue;
+            }
+            footprint.computeIfAbsent(idItem.getSectionType(), type -> new HashSet<>())
+                    .add(key);
+        }
+        return footprint;
+    }
+
+    class Bin {
+        private final DexLayout layout;
+        private final Map<SectionType<?>, Set<Key>> usedKeys;
+        private int classesCount;
+
+        Bin(DexLayout layout) {
+            this.layout = layout;
+            this.usedKeys = new HashMap<>();
+        }
+        boolean canAdd(Map<SectionType<?>, Set<Key>> footprint) {
+            if(classesCount >= maxClassesPerDex) {
+                return false;
+            }
+            for(Map.Entry<SectionType<?>, Set<Key>> entry : footprint.entrySet()) {
+                Set<Key> used = usedKeys.get(entry.getKey());
+                Set<Key> coming = entry.getValue();
+                int total;
+                if(used == null) {
+                    total = coming.size();
+                } else {
+                    total = used.size();
+                    if(total + coming.size() <= MAX_IDS) {
+                        continue;
+                    }
+                    for(Key key : coming) {
+                        if(!used.contains(key)) {
+                            total ++;
+                        }
+                    }
+                }
+                if(total > MAX_IDS) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        void add(Map<SectionType<?>, Set<Key>> footprint) {
+            for(Map.Entry<SectionType<?>, Set<Key>> entry : footprint.entrySet()) {
+                usedKeys.computeIfAbsent(entry.getKey(), type -> new HashSet<>())
+                        .addAll(entry.getValue());
+            }
+            classesCount ++;
+        }
+        boolean merge(ClassId classId, Map<SectionType<?>, Set<Key>> footprint) {
+            if(!layout.merge(mergeOptions, classId)) {
+                return false;
+            }
+            add(footprint);
+            return true;
+        }
+    }
+
+    // same reserve as SectionList#canAddAll
+    private static final int MAX_IDS = 0xffff - 200;
+}
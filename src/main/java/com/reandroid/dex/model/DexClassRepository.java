@@ -30,9 +30,15 @@ import com.reandroid.dex.sections.Section;
 import com.reandroid.dex.sections.SectionType;
 import com.reandroid.utils.ObjectsUtil;
 import com.reandroid.utils.collection.*;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 public interface DexClassRepository extends FullRefresh, BlockRefresh {
@@ -363,6 +369,75 @@ public interface DexClassRepository extends FullRefresh, BlockRefresh {
     default Iterator<IntegerReference> visitIntegers(){
         return new DexIntegerVisitor(this);
     }
+    default void accept(DexVisitor visitor) {
+        Iterator<DexClassModule> iterator = modules();
+        while (iterator.hasNext()) {
+            DexVisitorWalker.walk(iterator.next(), visitor);
+        }
+    }
+    /**
+     * Same as {@link #accept(DexVisitor)} but each module is walked on its own thread, values
+     * less than 1 are treated as number of available processors. The visitor is called from
+     * many threads and must be thread safe, items of one module are always visited in order
+     * by a single thread.
+     * */
+    default void acceptParallel(DexVisitor visitor, int threadCount) {
+        List<DexClassModule> moduleList = CollectionUtil.toList(modules());
+        int size = moduleList.size();
+        threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+        if (threadCount > size) {
+            threadCount = size;
+        }
+        if (threadCount <= 1) {
+            for (int i = 0; i < size; i++) {
+                DexVisitorWalker.walk(moduleList.get(i), visitor);
+            }
+            return;
+        }
+        AtomicInteger nextIndex = new AtomicInteger();
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "dex-visit");
+        List<FutureTask<Void>> taskList = new ArrayCollection<>(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                FutureTask<Void> task = new FutureTask<>(() -> {
+                    int index;
+                    while ((index = nextIndex.getAndIncrement()) < size) {
+                        DexVisitorWalker.walk(moduleList.get(index), visitor);
+                    }
+                    return null;
+                });
+                taskList.add(task);
+                executor.execute(task);
+            }
+            for (FutureTask<Void> task : taskList) {
+                task.get();
+            }
+        } catch (ExecutionException exception) {
+            // visitor callbacks throw only unchecked exceptions, those are re-thrown as is
+            throw new IllegalStateException(ConcurrentUtil.toIOException(exception));
+        } catch (InterruptedException exception) {
+            throw new IllegalStateException(ConcurrentUtil.toIOException(exception));
+        } finally {
+            nextIndex.set(size);
+            for (FutureTask<Void> task : taskList) {
+                task.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+    }
+    default <T extends SectionItem> void forEachItem(SectionType<T> sectionType, Consumer<? super T> consumer) {
+        Iterator<DexClassModule> iterator = modules();
+        while (iterator.hasNext()) {
+            Section<T> section = iterator.next().getSection(sectionType);
+            if (section == null) {
+                continue;
+            }
+            int count = section.getCount();
+            for (int i = 0; i < count; i++) {
+                consumer.accept(section.get(i));
+            }
+        }
+    }
 
     default boolean removeClass(TypeKey typeKey) {
         return removeEntry(SectionType.CLASS_ID, typeKey);
@@ -24,6 +24,7 @@ import com.reandroid.dex.id.MethodId;
 import com.reandroid.dex.id.StringId;
 import com.reandroid.dex.key.*;
 import com.reandroid.dex.sections.*;
+import com.reandroid.dex.smali.SmaliWriteProgress;
 import com.reandroid.dex.smali.SmaliWriter;
 import com.reandroid.utils.collection.*;
 
@@ -545,63 +546,21 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
         };
     }
 
+    /**
+     * Moves classes between dex files so that none exceeds the given classes count nor
+     * the id limits, creating new dex files as needed.
+     * @return number of moved classes
+     * */
     public int distributeClasses(int maxClassesPerDex) {
         if(maxClassesPerDex <= 0){
             throw new IllegalArgumentException(
                     "Classes per dex must be greater than zero: " + maxClassesPerDex);
         }
-        int size = this.size();
-        if(size == 0){
+        if(this.size() == 0){
             return 0;
         }
-        int count = this.getDexClassesCount();
-        int classesPerDex = count / size;
-        while (classesPerDex > maxClassesPerDex){
-            this.createDefault();
-            int check = this.size();
-            if(check <= size){
-                throw new IllegalArgumentException("Failed to create next dex");
-            }
-            size = check;
-            classesPerDex = count / size;
-        }
-        int result = 0;
-        for(int i = 0; i < size; i++){
-            result += distributeClasses(this.get(i), classesPerDex);
-        }
-        return result;
-    }
-    private int distributeClasses(DexFile source, int classesPerDex){
-        int result = 0;
-        DexDirectory directory = source.getDexDirectory();
-        for(int i = 0; i < directory.size(); i++) {
-            DexLayout sourceLayout = source.getFirst();
-            if (sourceLayout == null) {
-                continue;
-            }
-            DexLayout destinationLayout = directory.get(i).getOrCreateFirst();
-            result += distributeClasses(sourceLayout, destinationLayout, classesPerDex);
-        }
-        return result;
-    }
-    private int distributeClasses(DexLayout source, DexLayout destination, int classesPerDex){
-        int result = 0;
-        if(source.getDexLayoutBlock() == destination.getDexLayoutBlock()){
-            return result;
-        }
-        Section<ClassId> classSection = source.getSection(SectionType.CLASS_ID);
-        ClassId previous = null;
-        SectionArray<ClassId> array = classSection.getItemArray();
-        while (source.getDexClassesCount() > classesPerDex && destination.getDexClassesCount() < classesPerDex){
-            ClassId classId = array.getLast();
-            if(classId == previous){
-                break;
-            }
-            destination.merge(classId);
-            previous = classId;
-            result ++;
-        }
-        return result;
+        DexClassDistributor distributor = new DexClassDistributor(this, maxClassesPerDex);
+        return distributor.distribute();
     }
     public DexFile get(int i){
         return dexSourceSet.getDexFile(i);
@@ -653,8 +612,15 @@ public class DexDirectory implements Iterable<DexFile>, Closeable,
     }
 
     public void writeSmali(SmaliWriter writer, File root) throws IOException {
+        writeSmali(writer, root, 1, null);
+    }
+    /**
+     * See {@link DexLayout#writeSmali(SmaliWriter, File, int, SmaliWriteProgress)}
+     * */
+    public void writeSmali(SmaliWriter writer, File root, int threadCount,
+                           SmaliWriteProgress progress) throws IOException {
         for(DexFile dexFile : this) {
-            dexFile.writeSmali(writer, root);
+            dexFile.writeSmali(writer, root, threadCount, progress);
         }
     }
 
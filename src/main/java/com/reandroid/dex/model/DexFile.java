@@ -18,6 +18,7 @@ package com.reandroid.dex.model;
 import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.dex.id.ClassId;
 import com.reandroid.dex.sections.*;
+import com.reandroid.dex.smali.SmaliWriteProgress;
 import com.reandroid.dex.smali.SmaliWriter;
 import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.ObjectsUtil;
@@ -91,6 +92,15 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
     public String getSimpleName() {
         return getContainerBlock().getSimpleName();
     }
+    public boolean isLazyInstructions() {
+        return getContainerBlock().isLazyInstructions();
+    }
+    /**
+     * See {@link DexContainerBlock#setLazyInstructions(boolean)}
+     * */
+    public void setLazyInstructions(boolean lazyInstructions) {
+        getContainerBlock().setLazyInstructions(lazyInstructions);
+    }
     public void setSimpleName(String simpleName) {
         getContainerBlock().setSimpleName(simpleName);
     }
@@ -244,6 +254,18 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         }
         return getContainerBlock().getBytes();
     }
+    /**
+     * Same as calling refresh() and then getBytes(), but the dex is serialized only
+     * once for checksum, signature and the result.
+     * */
+    public byte[] refreshAndGetBytes() {
+        if(isEmpty()){
+            return new byte[0];
+        }
+        byte[] bytes = getContainerBlock().refreshAndGetBytes();
+        layoutController.refreshController();
+        return bytes;
+    }
     public void readBytes(BlockReader reader) throws IOException {
         getContainerBlock().readBytes(reader);
     }
@@ -255,11 +277,20 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         write(outputStream);
         outputStream.close();
     }
+    /**
+     * Refreshes and writes, see {@link #refreshAndGetBytes()}
+     * */
     public void write(OutputStream outputStream) throws IOException {
-        getContainerBlock().writeBytes(outputStream);
+        outputStream.write(refreshAndGetBytes());
     }
 
     public void parseSmaliDirectory(File dir) throws IOException {
+        parseSmaliDirectory(dir, 1);
+    }
+    /**
+     * See {@link DexLayout#parseSmaliDirectory(File, int)}
+     * */
+    public void parseSmaliDirectory(File dir, int threadCount) throws IOException {
         File fileInfo = new File(dir, DexFileInfo.FILE_NAME);
         if (fileInfo.isFile()) {
             DexFileInfo.readJson(fileInfo).applyTo(this);
@@ -270,13 +301,20 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
             for (int i = 0; i < size; i++) {
                 File file = layoutDir.get(i);
                 DexLayout layout = getOrCreateAt(i);
-                layout.parseSmaliDirectory(file);
+                layout.parseSmaliDirectory(file, threadCount);
             }
         } else {
-            getOrCreateFirst().parseSmaliDirectory(dir);
+            getOrCreateFirst().parseSmaliDirectory(dir, threadCount);
         }
     }
     public void writeSmali(SmaliWriter writer, File root) throws IOException {
+        writeSmali(writer, root, 1, null);
+    }
+    /**
+     * See {@link DexLayout#writeSmali(SmaliWriter, File, int, SmaliWriteProgress)}
+     * */
+    public void writeSmali(SmaliWriter writer, File root, int threadCount,
+                           SmaliWriteProgress progress) throws IOException {
         requireNotClosed();
         root = new File(root, buildSmaliDirectoryName());
         DexFileInfo fileInfo = DexFileInfo.fromDex(this);
@@ -284,7 +322,7 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
         if (!isMultiLayout()) {
             DexLayout first = getFirst();
             if (first != null) {
-                first.writeSmali(writer, root);
+                first.writeSmali(writer, root, threadCount, progress);
             }
         } else {
             int size = size();
@@ -292,7 +330,7 @@ public class DexFile implements Closeable, DexClassRepository, Iterable<DexLayou
                 DexLayout dexLayout = getLayout(i);
                 String name = "layout" + i;
                 File dir = new File(root, name);
-                dexLayout.writeSmali(writer, dir);
+                dexLayout.writeSmali(writer, dir, threadCount, progress);
             }
         }
     }
@@ -17,6 +17,7 @@ package com.reandroid.dex.model;
 
 import com.reandroid.archive.InputSource;
 import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.dex.sections.SectionType;
 import com.reandroid.utils.CompareUtil;
 import com.reandroid.utils.collection.ArrayCollection;
@@ -33,6 +34,7 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
     private final ArrayCollection<DexSource<DexFile>> sourceList;
     private ZipEntryMap zipEntryMap;
     private Predicate<SectionType<?>> readFilter;
+    private boolean lazyInstructions;
 
     public DexFileSourceSet(){
         this.sourceList = new ArrayCollection<>();
@@ -51,6 +53,12 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
     public void setReadFilter(Predicate<SectionType<?>> readFilter) {
         this.readFilter = readFilter;
     }
+    public boolean isLazyInstructions() {
+        return lazyInstructions;
+    }
+    public void setLazyInstructions(boolean lazyInstructions) {
+        this.lazyInstructions = lazyInstructions;
+    }
 
     public void merge(DexFileSourceSet sourceSet){
         if(sourceSet == this){
@@ -88,7 +96,7 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
             if(isEmpty(dexSource)){
                 dexSource.delete();
             }else {
-                dexSource.write(source.get().getBytes());
+                dexSource.write(source.get().refreshAndGetBytes());
             }
         }
     }
@@ -104,7 +112,7 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
             return;
         }
         DexFile dexFile = source.get();
-        source.write(dexFile.getBytes());
+        source.write(dexFile.refreshAndGetBytes());
     }
     private boolean isEmpty(DexSource<DexFile> source){
         DexFile dexFile = source.get();
@@ -277,7 +285,9 @@ public class DexFileSourceSet implements Iterable<DexSource<DexFile>>, Closeable
         if (dexFile != null) {
             return;
         }
-        dexFile = DexFile.read(dexSource.openStream(), getReadFilter());
+        dexFile = DexFile.createNew();
+        dexFile.setLazyInstructions(isLazyInstructions());
+        dexFile.readBytes(new BlockReader(dexSource.openStream()), getReadFilter());
         dexSource.set(dexFile);
         dexFile.setSimpleName(dexSource.getSimpleName());
     }
@@ -64,7 +64,7 @@ public class DexIntegerVisitor extends CombiningIterator<IntegerReference, Integ
     }
 
     static Iterator<IntegerReference> iterator(Ins ins) {
-        if (ins instanceof ConstNumber) {
+        if (ins.getOpcode().isConstNumber()) {
             return SingleIterator.of((ConstNumber) ins);
         } else if (ins instanceof PayloadData) {
             return ((PayloadData) ins).getReferences();
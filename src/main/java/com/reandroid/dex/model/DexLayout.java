@@ -26,15 +26,24 @@ import com.reandroid.dex.key.Key;
 import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.sections.*;
 import com.reandroid.dex.smali.SmaliReader;
+import com.reandroid.dex.smali.SmaliWriteProgress;
 import com.reandroid.dex.smali.SmaliWriter;
+import com.reandroid.dex.smali.SmaliWriterSetting;
 import com.reandroid.dex.smali.model.SmaliClass;
 import com.reandroid.utils.ObjectsUtil;
 import com.reandroid.utils.collection.*;
+import com.reandroid.utils.concurrent.ConcurrentUtil;
+import com.reandroid.utils.concurrent.OrderedTaskQueue;
 import com.reandroid.utils.io.FileByteSource;
 import com.reandroid.utils.io.FileIterator;
 
 import java.io.*;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 public class DexLayout implements DexClassModule, Closeable,
@@ -290,11 +299,29 @@ public class DexLayout implements DexClassModule, Closeable,
         return getDexLayoutBlock().merge(options, dexLayout.getDexLayoutBlock());
     }
     public void parseSmaliDirectory(File dir) throws IOException {
+        parseSmaliDirectory(dir, 1);
+    }
+    /**
+     * Parses smali files on the given number of threads, values less than 1 are treated as
+     * number of available processors. Classes are added on the calling thread in the same
+     * order as sequential parsing, thus the output is identical regardless of thread count.
+     * */
+    public void parseSmaliDirectory(File dir, int threadCount) throws IOException {
         requireNotClosed();
         if (!dir.isDirectory()) {
             throw new FileNotFoundException("No such directory: " + dir);
         }
         FileIterator iterator = new FileIterator(dir, FileIterator.getExtensionFilter(".smali"));
+        threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+        if (threadCount > 1) {
+            parseSmaliFilesParallel(iterator, threadCount);
+        } else {
+            parseSmaliFiles(iterator);
+        }
+        sort();
+        shrink();
+    }
+    private void parseSmaliFiles(FileIterator iterator) throws IOException {
         FileByteSource byteSource = new FileByteSource();
         SmaliReader reader = new SmaliReader(byteSource);
         DexLayoutBlock layout = getDexLayoutBlock();
@@ -307,8 +334,30 @@ public class DexLayout implements DexClassModule, Closeable,
             smaliClass.parse(reader);
             layout.fromSmali(smaliClass);
         }
-        sort();
-        shrink();
+    }
+    private void parseSmaliFilesParallel(FileIterator iterator, int threadCount) throws IOException {
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "smali-parse");
+        OrderedTaskQueue<SmaliClass> queue = new OrderedTaskQueue<>(executor, threadCount * 4);
+        DexLayoutBlock layout = getDexLayoutBlock();
+        try {
+            while (iterator.hasNext()) {
+                while (queue.isFull()) {
+                    layout.fromSmali(queue.takeNext());
+                }
+                File file = iterator.next();
+                queue.submit(() -> {
+                    SmaliClass smaliClass = new SmaliClass();
+                    smaliClass.parse(SmaliReader.of(file));
+                    return smaliClass;
+                });
+            }
+            while (queue.hasPending()) {
+                layout.fromSmali(queue.takeNext());
+            }
+        } finally {
+            queue.cancelAll();
+            executor.shutdownNow();
+        }
     }
 
     public void parseSmaliFile(File file) throws IOException {
@@ -336,9 +385,95 @@ public class DexLayout implements DexClassModule, Closeable,
         return create(classId);
     }
     public void writeSmali(SmaliWriter writer, File root) throws IOException {
-        Iterator<DexClass> iterator = getDexClasses();
-        while (iterator.hasNext()) {
-            iterator.next().writeSmali(writer, root);
+        writeSmali(writer, root, 1, null);
+    }
+    /**
+     * Writes smali files on the given number of threads, values less than 1 are treated as
+     * number of available processors. Each thread writes with its own SmaliWriter having a copy
+     * of the writer setting, the dex must not be modified until this method returns.
+     * */
+    public void writeSmali(SmaliWriter writer, File root, int threadCount,
+                           SmaliWriteProgress progress) throws IOException {
+        List<DexClass> classList = CollectionUtil.toList(getDexClasses());
+        threadCount = ConcurrentUtil.resolveThreadCount(threadCount);
+        if (threadCount > classList.size()) {
+            threadCount = classList.size();
+        }
+        if (threadCount > 1) {
+            writeSmaliParallel(writer.getWriterSetting(), root, classList, threadCount, progress);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int size = classList.size();
+        for (int i = 0; i < size; i++) {
+            DexClass dexClass = classList.get(i);
+            dexClass.writeSmali(writer, root);
+            if (progress != null) {
+                progress.onSmaliWritten(dexClass.getKey(), i + 1, size,
+                        System.currentTimeMillis() - start);
+            }
+        }
+    }
+    private void writeSmaliParallel(SmaliWriterSetting setting, File root, List<DexClass> classList,
+                                    int threadCount, SmaliWriteProgress progress) throws IOException {
+        // lookup maps are built lazily, load them for lock-free reads before sharing with worker threads
+        List<DexLayoutBlock> concurrentBlocks = new ArrayCollection<>();
+        Iterator<DexClassModule> modules = getRootRepository().modules();
+        while (modules.hasNext()) {
+            DexClassModule module = modules.next();
+            if (module instanceof DexLayout) {
+                DexLayoutBlock layoutBlock = ((DexLayout) module).getDexLayoutBlock();
+                if (!layoutBlock.isConcurrentLookup()) {
+                    layoutBlock.setConcurrentLookup(true);
+                    concurrentBlocks.add(layoutBlock);
+                }
+            }
+        }
+        long start = System.currentTimeMillis();
+        int size = classList.size();
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService executor = ConcurrentUtil.newFixedPool(threadCount, "smali-write");
+        List<FutureTask<Void>> taskList = new ArrayCollection<>(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                FutureTask<Void> task = new FutureTask<>(() -> {
+                    SmaliWriter smaliWriter = new SmaliWriter();
+                    if (setting != null) {
+                        smaliWriter.setWriterSetting(setting.copy());
+                    }
+                    int index;
+                    while ((index = nextIndex.getAndIncrement()) < size) {
+                        DexClass dexClass = classList.get(index);
+                        dexClass.writeSmali(smaliWriter, root);
+                        if (progress != null) {
+                            synchronized (progress) {
+                                progress.onSmaliWritten(dexClass.getKey(), written.incrementAndGet(),
+                                        size, System.currentTimeMillis() - start);
+                            }
+                        }
+                    }
+                    return null;
+                });
+                taskList.add(task);
+                executor.execute(task);
+            }
+            for (FutureTask<Void> task : taskList) {
+                task.get();
+            }
+        } catch (ExecutionException exception) {
+            throw ConcurrentUtil.toIOException(exception);
+        } catch (InterruptedException exception) {
+            throw ConcurrentUtil.toIOException(exception);
+        } finally {
+            nextIndex.set(size);
+            for (FutureTask<Void> task : taskList) {
+                task.cancel(true);
+            }
+            executor.shutdownNow();
+            for (DexLayoutBlock layoutBlock : concurrentBlocks) {
+                layoutBlock.setConcurrentLookup(false);
+            }
         }
     }
 
@@ -0,0 +1,65 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.dex.data.*;
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.ins.Ins;
+import com.reandroid.dex.value.DexValueBlock;
+
+/**
+ * Receives items pushed by {@link DexClassRepository#accept(DexVisitor)}. Each module is walked
+ * section by section with indexed loops, so unlike the iterator based queries nothing is
+ * allocated per class, code item or instruction.
+ * <br/>
+ * Walk order of a module: classes with their fields and methods, code items with their
+ * instructions, encoded arrays with their values and finally annotation items. Integer
+ * constants of instructions and encoded arrays are reported the same as
+ * {@link DexClassRepository#visitIntegers()}; constants of annotations only when
+ * {@link #visitAnnotation(AnnotationItem)} returns true.
+ * <br/>
+ * The boolean callbacks decide whether to descend into the children of the visited item.
+ * The repository must not be structurally modified during the walk, values may be edited.
+ * */
+public interface DexVisitor {
+
+    default boolean visitModule(DexClassModule module) {
+        return true;
+    }
+    default boolean visitClass(ClassId classId) {
+        return true;
+    }
+    default void visitField(FieldDef fieldDef) {
+    }
+    default void visitMethod(MethodDef methodDef) {
+    }
+    default boolean visitCode(CodeItem codeItem) {
+        return true;
+    }
+    default void visitInstruction(Ins ins) {
+    }
+    default boolean visitEncodedArray(EncodedArray encodedArray) {
+        return true;
+    }
+    default boolean visitAnnotation(AnnotationItem annotationItem) {
+        return false;
+    }
+    default void visitValue(DexValueBlock<?> valueBlock) {
+    }
+    default void visitInteger(IntegerReference reference) {
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.dex.model;
+
+import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.dex.data.*;
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.ins.ConstNumber;
+import com.reandroid.dex.ins.Ins;
+import com.reandroid.dex.ins.PayloadData;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.dex.value.AnnotationValue;
+import com.reandroid.dex.value.ArrayValue;
+import com.reandroid.dex.value.DexValueBlock;
+import com.reandroid.dex.value.IntValue;
+
+import java.util.Iterator;
+
+class DexVisitorWalker {
+
+    static void walk(DexClassModule module, DexVisitor visitor) {
+        if(!visitor.visitModule(module)) {
+            return;
+        }
+        walkClasses(module.getSection(SectionType.CLASS_ID), visitor);
+        walkCodes(module.getSection(SectionType.CODE), visitor);
+        walkEncodedArrays(module.getSection(SectionType.ENCODED_ARRAY), visitor);
+        walkAnnotations(module.getSection(SectionType.ANNOTATION_ITEM), visitor);
+    }
+
+    private static void walkClasses(Section<ClassId> section, DexVisitor visitor) {
+        if(section == null) {
+            return;
+        }
+        int count = section.getCount();
+        for(int i = 0; i < count; i++) {
+            ClassId classId = section.get(i);
+            if(!visitor.visitClass(classId)) {
+                continue;
+            }
+            ClassData classData = classId.getClassData();
+            if(classData != null) {
+                walkFields(classData.getStaticFieldsArray(), visitor);
+                walkFields(classData.getInstanceFieldsArray(), visitor);
+                walkMethods(classData.getDirectMethodsArray(), visitor);
+                walkMethods(classData.getVirtualMethodArray(), visitor);
+            }
+        }
+    }
+    private static void walkFields(FieldDefArray defArray, DexVisitor visitor) {
+        if(defArray == null) {
+            return;
+        }
+        int size = defArray.size();
+        for(int i = 0; i < size; i++) {
+            visitor.visitField(defArray.get(i));
+        }
+    }
+    private static void walkMethods(MethodDefArray defArray, DexVisitor visitor) {
+        if(defArray == null) {
+            return;
+        }
+        int size = defArray.size();
+        for(int i = 0; i < size; i++) {
+            visitor.visitMethod(defArray.get(i));
+        }
+    }
+    private static void walkCodes(Section<CodeItem> section, DexVisitor visitor) {
+        if(section == null) {
+            return;
+        }
+        int count = section.getCount();
+        for(int i = 0; i < count; i++) {
+            CodeItem codeItem = section.get(i);
+            if(visitor.visitCode(codeItem)) {
+                walkInstructions(codeItem.getInstructionList(), visitor);
+            }
+        }
+    }
+    private static void walkInstructions(InstructionList instructionList, DexVisitor visitor) {
+        int count = instructionList.getCount();
+        for(int i = 0; i < count; i++) {
+            Ins ins = instructionList.get(i);
+            visitor.visitInstruction(ins);
+            if(ins.getOpcode().isConstNumber()) {
+                visitor.visitInteger((ConstNumber) ins);
+            } else if(ins instanceof PayloadData) {
+                // payloads are few, their references are not worth an indexed variant
+                Iterator<IntegerReference> iterator = ((PayloadData) ins).getReferences();
+                while (iterator.hasNext()) {
+                    visitor.visitInteger(iterator.next());
+                }
+            }
+        }
+    }
+    private static void walkEncodedArrays(Section<EncodedArray> section, DexVisitor visitor) {
+        if(section == null) {
+            return;
+        }
+        int count = section.getCount();
+        for(int i = 0; i < count; i++) {
+            EncodedArray encodedArray = section.get(i);
+            if(!visitor.visitEncodedArray(encodedArray)) {
+                continue;
+            }
+            int size = encodedArray.size();
+            for(int j = 0; j < size; j++) {
+                walkValue(encodedArray.get(j), visitor);
+            }
+        }
+    }
+    private static void walkAnnotations(Section<AnnotationItem> section, DexVisitor visitor) {
+        if(section == null) {
+            return;
+        }
+        int count = section.getCount();
+        for(int i = 0; i < count; i++) {
+            AnnotationItem annotationItem = section.get(i);
+            if(visitor.visitAnnotation(annotationItem)) {
+                walkElements(annotationItem, visitor);
+            }
+        }
+    }
+    private static void walkElements(AnnotationItem annotationItem, DexVisitor visitor) {
+        int size = annotationItem.getElementsCount();
+        for(int i = 0; i < size; i++) {
+            walkValue(annotationItem.getElement(i).getValueBlock(), visitor);
+        }
+    }
+    private static void walkValue(DexValueBlock<?> valueBlock, DexVisitor visitor) {
+        if(valueBlock == null) {
+            return;
+        }
+        visitor.visitValue(valueBlock);
+        if(valueBlock instanceof IntValue) {
+            visitor.visitInteger((IntValue) valueBlock);
+        } else if(valueBlock instanceof ArrayValue) {
+            ArrayValue arrayValue = (ArrayValue) valueBlock;
+            int size = arrayValue.size();
+            for(int i = 0; i < size; i++) {
+                walkValue(arrayValue.get(i), visitor);
+            }
+        } else if(valueBlock instanceof AnnotationValue) {
+            walkElements(((AnnotationValue) valueBlock).get(), visitor);
+        }
+    }
+}
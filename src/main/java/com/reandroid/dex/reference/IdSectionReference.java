@@ -98,6 +98,14 @@ public abstract class IdSectionReference<T extends IdItem> implements
         this.item = getSectionTool().getSectionItem(getSectionType(), get());
         updateUsage();
     }
+    /**
+     * Same as {@link #pullItem()} for an item resolved earlier from the raw index value,
+     * the current index value is left as it is.
+     * */
+    public void pullItem(T item) {
+        this.item = item;
+        updateUsage();
+    }
 
     private void updateUsage(){
         T item = this.getItem();
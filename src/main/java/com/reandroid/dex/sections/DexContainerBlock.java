@@ -37,11 +37,23 @@ public class DexContainerBlock extends BlockList<DexLayoutBlock> implements
     private LayoutBlockChangedListener layoutBlockChangedListener;
     private Object mTag;
     private String mSimpleName;
+    private boolean mLazyInstructions;
 
     public DexContainerBlock() {
         super();
     }
 
+    public boolean isLazyInstructions() {
+        return mLazyInstructions;
+    }
+    /**
+     * When true, method instructions read afterwards are kept as raw bytes and decoded
+     * on first access. Referenced ids are still resolved and marked as used while reading.
+     * */
+    public void setLazyInstructions(boolean lazyInstructions) {
+        this.mLazyInstructions = lazyInstructions;
+    }
+
     public boolean isMultiLayout() {
         return size() > 1;
     }
@@ -191,6 +203,35 @@ public class DexContainerBlock extends BlockList<DexLayoutBlock> implements
         }
         return size;
     }
+    /**
+     * Refreshes and returns the serialized bytes, each layout is serialized only once
+     * for checksum, signature and the result.
+     * */
+    public byte[] refreshAndGetBytes() {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            get(i).setChecksumDeferred(true);
+        }
+        try {
+            refresh();
+        } finally {
+            for (int i = 0; i < size; i++) {
+                get(i).setChecksumDeferred(false);
+            }
+        }
+        if (size == 1) {
+            return get(0).updateChecksumAndSignatureBytes();
+        }
+        BytesOutputStream outputStream = new BytesOutputStream(getFileSize());
+        try {
+            for (int i = 0; i < size; i++) {
+                outputStream.write(get(i).updateChecksumAndSignatureBytes());
+            }
+            outputStream.close();
+        } catch (IOException ignored) {
+        }
+        return outputStream.toByteArray();
+    }
     @Override
     public byte[] getBytes() {
         BytesOutputStream outputStream = new BytesOutputStream(getFileSize());
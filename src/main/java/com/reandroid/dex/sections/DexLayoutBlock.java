@@ -45,6 +45,7 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
     private final MultiMap<TypeKey, ClassId> interfaceMap;
 
     private Object mTag;
+    private boolean mChecksumDeferred;
 
     public DexLayoutBlock() {
         super(1);
@@ -156,7 +157,25 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
     }
     @Override
     protected void onRefreshed() {
-        this.updateChecksumAndSignature();
+        if (!mChecksumDeferred) {
+            this.updateChecksumAndSignature();
+        }
+    }
+    /**
+     * Refreshes and returns the serialized bytes, checksum and signature are computed
+     * over the same bytes thus the layout is serialized only once.
+     * */
+    public byte[] refreshAndGetBytes() {
+        mChecksumDeferred = true;
+        try {
+            refresh();
+        } finally {
+            mChecksumDeferred = false;
+        }
+        return updateChecksumAndSignatureBytes();
+    }
+    void setChecksumDeferred(boolean checksumDeferred) {
+        this.mChecksumDeferred = checksumDeferred;
     }
 
     // Updating checksum/signature is expensive operation, but
@@ -185,6 +204,29 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
         }
         throw new RuntimeException("Failed to update checksums, trial = " + i);
     }
+    // Same logic as updateChecksumAndSignature(), but checksum and signature are computed over
+    // serialized bytes and patched back to the same bytes, thus the returned bytes are
+    // up-to-date without serializing again.
+    byte[] updateChecksumAndSignatureBytes() {
+        DexHeader dexHeader = getHeader();
+        SectionList sectionList = getSectionList();
+        int maximumTrials = 10;
+        int i = 0;
+        while (i < maximumTrials) {
+            byte[] bytes = getBytes();
+            if (dexHeader.updateChecksum(bytes)) {
+                sectionList.refresh();
+            } else {
+                if (i != 0) {
+                    dexHeader.updateSignature(bytes);
+                    dexHeader.updateChecksum(bytes);
+                }
+                return bytes;
+            }
+            i ++;
+        }
+        throw new RuntimeException("Failed to update checksums, trial = " + i);
+    }
     private void updateHeaderOffset() {
         DexLayoutBlock previousLayoutBlock = getPreviousLayoutBlock();
         int offset = 0;
@@ -217,6 +259,34 @@ public class DexLayoutBlock extends FixedBlockContainer implements FullRefresh {
         interfaceMap.clear();
         getSectionList().clearPoolMap();
     }
+    /**
+     * Loads all lazily built lookup maps, after this concurrent read-only access
+     * (e.g. writing smali on multiple threads) is safe until the next modification.
+     * */
+    public void loadPoolMap(){
+        if(extendingClassMap.size() == 0){
+            loadExtendingClassMap();
+        }
+        if(interfaceMap.size() == 0){
+            loadInterfacesMap();
+        }
+        getSectionList().loadPoolMap();
+    }
+    public boolean isConcurrentLookup(){
+        return extendingClassMap.isConcurrentReads();
+    }
+    /**
+     * Switches all lookup maps to lock-free reads and loads them, meant for a model shared
+     * by many reader threads. Sections created afterwards use the default locking pools.
+     * */
+    public void setConcurrentLookup(boolean concurrentLookup){
+        extendingClassMap.setConcurrentReads(concurrentLookup);
+        interfaceMap.setConcurrentReads(concurrentLookup);
+        getSectionList().setConcurrentPool(concurrentLookup);
+        if(concurrentLookup){
+            loadPoolMap();
+        }
+    }
     public boolean sortStrings(){
         return getSectionList().sortStrings();
     }
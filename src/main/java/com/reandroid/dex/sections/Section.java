@@ -39,6 +39,7 @@ public class Section<T extends SectionItem>  extends FixedDexContainer
     private final SectionArray<T> itemArray;
 
     private DexSectionPool<T> dexSectionPool;
+    private boolean concurrentPool;
 
     Section(SectionType<T> sectionType, SectionArray<T> itemArray){
         super(2);
@@ -132,11 +133,28 @@ public class Section<T extends SectionItem>  extends FixedDexContainer
         DexSectionPool<T> dexSectionPool = this.dexSectionPool;
         if(dexSectionPool == null){
             dexSectionPool = createPool();
+            dexSectionPool.setConcurrentReads(concurrentPool);
             this.dexSectionPool = dexSectionPool;
             dexSectionPool.load();
         }
         return dexSectionPool;
     }
+    public boolean isConcurrentPool() {
+        return concurrentPool;
+    }
+    /**
+     * When true, the pool is loaded now and its lookups run without locking, set it before
+     * sharing this section with multiple reader threads.
+     * */
+    public void setConcurrentPool(boolean concurrentPool) {
+        this.concurrentPool = concurrentPool;
+        DexSectionPool<T> dexSectionPool = this.getLoadedPool();
+        if(dexSectionPool != null){
+            dexSectionPool.setConcurrentReads(concurrentPool);
+        }else if(concurrentPool){
+            getPool();
+        }
+    }
     public DexSectionPool<T> getLoadedPool(){
         return dexSectionPool;
     }
@@ -284,6 +284,16 @@ public class SectionList extends FixedBlockContainer
             section.clearPoolMap();
         }
     }
+    public void loadPoolMap(){
+        for(Section<?> section : this){
+            section.getPool();
+        }
+    }
+    public void setConcurrentPool(boolean concurrentPool){
+        for(Section<?> section : this){
+            section.setConcurrentPool(concurrentPool);
+        }
+    }
     public void sortSection(SectionType<?>[] order){
         //WARN: DO NOT CALL refresh() HERE
         idSectionList.sort(SectionType.comparator(order, Section::getSectionType));
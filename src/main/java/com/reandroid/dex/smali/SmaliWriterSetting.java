@@ -44,6 +44,26 @@ public class SmaliWriterSetting {
         this.maximumCommentLines = 500;
     }
 
+    /**
+     * Returns a new setting with the same values, comment formatters are shared
+     * but the lists holding them are not.
+     * */
+    public SmaliWriterSetting copy() {
+        SmaliWriterSetting setting = new SmaliWriterSetting();
+        setting.resourceIdComment = this.resourceIdComment;
+        if(this.methodCommentList != null) {
+            setting.methodCommentList = new ArrayCollection<>(this.methodCommentList);
+        }
+        if(this.classCommentList != null) {
+            setting.classCommentList = new ArrayCollection<>(this.classCommentList);
+        }
+        setting.sequentialLabel = this.sequentialLabel;
+        setting.commentUnicodeStrings = this.commentUnicodeStrings;
+        setting.localRegistersCount = this.localRegistersCount;
+        setting.maximumCommentLines = this.maximumCommentLines;
+        return setting;
+    }
+
     public boolean isSequentialLabel() {
         return sequentialLabel;
     }
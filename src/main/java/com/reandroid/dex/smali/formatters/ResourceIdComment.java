@@ -44,7 +44,11 @@ public interface ResourceIdComment extends SmaliComment {
             if(!PackageBlock.isResourceId(resourceId)){
                 return;
             }
-            String comment = buildComment(resourceId);
+            String comment;
+            // resource table lookups are not thread safe while smali is written on multiple threads
+            synchronized (tableBlock) {
+                comment = buildComment(resourceId);
+            }
             if(comment != null){
                 writer.appendComment(comment);
             }
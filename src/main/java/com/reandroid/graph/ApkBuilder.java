@@ -22,6 +22,7 @@ import com.reandroid.arsc.model.ResourceName;
 import com.reandroid.arsc.refactor.ResourceBuilder;
 import com.reandroid.arsc.refactor.ResourceMergeOption;
 import com.reandroid.dex.model.DexClassRepository;
+import com.reandroid.graph.cleaners.InstructionReferenceIndex;
 import com.reandroid.graph.cleaners.UnusedAnnotationCleaner;
 import com.reandroid.graph.cleaners.UnusedClassesCleaner;
 import com.reandroid.graph.cleaners.UnusedFieldsCleaner;
@@ -88,15 +89,18 @@ public class ApkBuilder extends BaseApkModuleProcessor {
     }
     private int cyclicCleanDex() {
         int count = 0;
+        InstructionReferenceIndex referenceIndex = new InstructionReferenceIndex(getClassRepository());
         UnusedFieldsCleaner fieldsCleaner = new UnusedFieldsCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         fieldsCleaner.setReporter(getReporter());
+        fieldsCleaner.setReferenceIndex(referenceIndex);
         fieldsCleaner.apply();
         count += fieldsCleaner.getCount();
 
         UnusedMethodsCleaner methodsCleaner = new UnusedMethodsCleaner(getBuildOption(),
                 getApkModule(), getClassRepository());
         methodsCleaner.setReporter(getReporter());
+        methodsCleaner.setReferenceIndex(referenceIndex);
         methodsCleaner.apply();
         count += methodsCleaner.getCount();
 
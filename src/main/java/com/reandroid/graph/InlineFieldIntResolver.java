@@ -25,14 +25,18 @@ import com.reandroid.dex.key.TypeKey;
 import com.reandroid.dex.model.*;
 
 import java.util.Iterator;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 
 public class InlineFieldIntResolver extends BaseDexClassProcessor {
 
-    private final Predicate<Integer> resourceIdChecker;
+    private final IntPredicate resourceIdChecker;
     private int mResolvedCount;
 
     public InlineFieldIntResolver(DexClassRepository classRepository, Predicate<Integer> resourceIdChecker) {
+        this(classRepository, (IntPredicate) resourceIdChecker::test);
+    }
+    private InlineFieldIntResolver(DexClassRepository classRepository, IntPredicate resourceIdChecker) {
         super(classRepository);
         this.resourceIdChecker = resourceIdChecker;
     }
@@ -112,14 +116,11 @@ public class InlineFieldIntResolver extends BaseDexClassProcessor {
         this.mResolvedCount = 0;
     }
 
-    private static Predicate<Integer> createChecker(TableBlock tableBlock) {
-        return id -> {
-            int i = id;
-            return PackageBlock.isResourceId(i) &&
-                    tableBlock.getResource(i) != null;
-        };
+    private static IntPredicate createChecker(TableBlock tableBlock) {
+        return id -> PackageBlock.isResourceId(id) &&
+                tableBlock.getResource(id) != null;
     }
-    private static Predicate<Integer> createDefaultChecker() {
+    private static IntPredicate createDefaultChecker() {
         return PackageBlock::isResourceId;
     }
 }
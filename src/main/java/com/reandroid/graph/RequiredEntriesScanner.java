@@ -27,6 +27,7 @@ import com.reandroid.arsc.value.*;
 import com.reandroid.dex.model.DexClassRepository;
 import com.reandroid.utils.collection.ComputeIterator;
 import com.reandroid.utils.collection.FilterIterator;
+import com.reandroid.utils.collection.IntSet;
 
 import java.util.HashSet;
 import java.util.Iterator;
@@ -39,7 +40,7 @@ public class RequiredEntriesScanner extends BaseApkModuleProcessor{
     private final Set<ResourceName> requiredResources;
     private final Set<String> requiredFiles;
     private final Set<String> processedFiles;
-    private final Set<Integer> processedNumbers;
+    private final IntSet processedNumbers;
 
     public RequiredEntriesScanner(ApkBuildOption buildOption, ApkModule apkModule, DexClassRepository classRepository) {
         super(apkModule, classRepository);
@@ -48,7 +49,7 @@ public class RequiredEntriesScanner extends BaseApkModuleProcessor{
         this.requiredResources = new HashSet<>();
         this.requiredFiles = new HashSet<>();
         this.processedFiles = new HashSet<>();
-        this.processedNumbers = new HashSet<>();
+        this.processedNumbers = new IntSet();
     }
 
     @Override
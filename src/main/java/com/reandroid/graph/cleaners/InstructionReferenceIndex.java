@@ -0,0 +1,143 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.graph.cleaners;
+
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexClassRepository;
+import com.reandroid.dex.model.DexInstruction;
+import com.reandroid.dex.model.DexMethod;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Method and field references of all instructions, collected in a single sweep over the
+ * repository and shared by cleaners of the same cycle. Removed methods are subtracted
+ * incrementally, while const-strings are kept as collected (thus conservative).
+ */
+public class InstructionReferenceIndex {
+
+    private final DexClassRepository classRepository;
+    private final Map<MethodKey, Integer> methodReferences;
+    private final Map<FieldKey, Integer> fieldReferences;
+    private final Map<TypeKey, Set<String>> classStrings;
+    private boolean loaded;
+
+    public InstructionReferenceIndex(DexClassRepository classRepository) {
+        this.classRepository = classRepository;
+        this.methodReferences = new HashMap<>();
+        this.fieldReferences = new HashMap<>();
+        this.classStrings = new HashMap<>();
+    }
+
+    public boolean isReferenced(MethodKey methodKey) {
+        ensureLoaded();
+        return methodReferences.containsKey(methodKey);
+    }
+    public boolean isReferenced(FieldKey fieldKey) {
+        ensureLoaded();
+        return fieldReferences.containsKey(fieldKey);
+    }
+    public boolean containsString(TypeKey classKey, String text) {
+        ensureLoaded();
+        Set<String> strings = classStrings.get(classKey);
+        return strings != null && strings.contains(text);
+    }
+    public Iterator<MethodKey> getReferencedMethods() {
+        ensureLoaded();
+        return methodReferences.keySet().iterator();
+    }
+    public void removeReferences(DexMethod dexMethod) {
+        if(!loaded) {
+            return;
+        }
+        Iterator<DexInstruction> iterator = dexMethod.getInstructions();
+        while (iterator.hasNext()) {
+            DexInstruction instruction = iterator.next();
+            MethodKey methodKey = instruction.getMethodKey();
+            if(methodKey != null) {
+                decrement(methodReferences, methodKey);
+                continue;
+            }
+            FieldKey fieldKey = instruction.getFieldKey();
+            if(fieldKey != null) {
+                decrement(fieldReferences, fieldKey);
+            }
+        }
+    }
+    public void removeReferences(DexClass dexClass) {
+        if(!loaded) {
+            return;
+        }
+        Iterator<DexMethod> iterator = dexClass.getDeclaredMethods();
+        while (iterator.hasNext()) {
+            removeReferences(iterator.next());
+        }
+    }
+    private void ensureLoaded() {
+        if(!loaded) {
+            loaded = true;
+            load();
+        }
+    }
+    private void load() {
+        Iterator<DexClass> iterator = classRepository.getDexClasses();
+        while (iterator.hasNext()) {
+            DexClass dexClass = iterator.next();
+            Set<String> strings = null;
+            Iterator<DexInstruction> instructions = dexClass.getDexInstructions();
+            while (instructions.hasNext()) {
+                DexInstruction instruction = instructions.next();
+                MethodKey methodKey = instruction.getMethodKey();
+                if(methodKey != null) {
+                    increment(methodReferences, methodKey);
+                    continue;
+                }
+                FieldKey fieldKey = instruction.getFieldKey();
+                if(fieldKey != null) {
+                    increment(fieldReferences, fieldKey);
+                    continue;
+                }
+                String text = instruction.getString();
+                if(text != null) {
+                    if(strings == null) {
+                        strings = new HashSet<>();
+                        classStrings.put(dexClass.getKey(), strings);
+                    }
+                    strings.add(text);
+                }
+            }
+        }
+    }
+    private static <K> void increment(Map<K, Integer> map, K key) {
+        map.merge(key, 1, Integer::sum);
+    }
+    private static <K> void decrement(Map<K, Integer> map, K key) {
+        map.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Override
+    public String toString() {
+        return "methods = " + methodReferences.size()
+                + ", fields = " + fieldReferences.size();
+    }
+}
@@ -29,6 +29,8 @@ import java.util.function.Predicate;
 
 public abstract class UnusedClassComponentCleaner<T extends Dex> extends UnusedCleaner<T> {
 
+    private InstructionReferenceIndex referenceIndex;
+
     public UnusedClassComponentCleaner(ApkBuildOption buildOption, ApkModule apkModule,
                                        DexClassRepository classRepository) {
         super(buildOption, apkModule, classRepository);
@@ -45,6 +47,18 @@ public abstract class UnusedClassComponentCleaner<T extends Dex> extends UnusedC
         verbose("Cleaned: " + getCount());
     }
 
+    public InstructionReferenceIndex getReferenceIndex() {
+        InstructionReferenceIndex referenceIndex = this.referenceIndex;
+        if(referenceIndex == null) {
+            referenceIndex = new InstructionReferenceIndex(getClassRepository());
+            this.referenceIndex = referenceIndex;
+        }
+        return referenceIndex;
+    }
+    public void setReferenceIndex(InstructionReferenceIndex referenceIndex) {
+        this.referenceIndex = referenceIndex;
+    }
+
     protected abstract List<T> listUnusedInClass(DexClass dexClass);
     protected void cleanUnusedInCleanableClasses() {
         Iterator<DexClass> iterator = getCleanableClasses();
@@ -60,12 +74,16 @@ public abstract class UnusedClassComponentCleaner<T extends Dex> extends UnusedC
                 if(debugEnabled) {
                     debug(getDebugString(item));
                 }
+                onRemove(item);
                 item.removeSelf();
                 addCount();
             }
         }
     }
 
+    protected void onRemove(T item) {
+    }
+
     protected Iterator<DexClass> getCleanableClasses() {
         return getDexClasses(this::isCleanableClass);
     }
@@ -59,15 +59,9 @@ public class UnusedFieldsCleaner extends UnusedClassComponentCleaner<DexField> {
             return false;
         }
         FieldKey fieldKey = dexField.getKey();
-        String name = fieldKey.getName();
-        Iterator<DexInstruction> iterator = dexField.getDexClass().getDexInstructions();
-        while (iterator.hasNext()) {
-            DexInstruction instruction = iterator.next();
-            if(fieldKey.equals(instruction.getFieldKey()) || name.equals(instruction.getString())) {
-                return false;
-            }
-        }
-        return true;
+        InstructionReferenceIndex referenceIndex = getReferenceIndex();
+        return !referenceIndex.isReferenced(fieldKey) &&
+                !referenceIndex.containsString(fieldKey.getDeclaring(), fieldKey.getName());
     }
     private boolean isUnusedInstanceField(DexField dexField) {
         // TODO:
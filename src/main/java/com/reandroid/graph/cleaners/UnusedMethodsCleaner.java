@@ -19,7 +19,6 @@ import com.reandroid.apk.ApkModule;
 import com.reandroid.dex.key.MethodKey;
 import com.reandroid.dex.model.DexClass;
 import com.reandroid.dex.model.DexClassRepository;
-import com.reandroid.dex.model.DexInstruction;
 import com.reandroid.dex.model.DexMethod;
 import com.reandroid.graph.ApkBuildOption;
 import com.reandroid.utils.collection.ArrayCollection;
@@ -66,15 +65,7 @@ public class UnusedMethodsCleaner extends UnusedClassComponentCleaner<DexMethod>
         if(!dexMethod.isPrivate() || dexMethod.isConstructor()) {
             return false;
         }
-        MethodKey methodKey = dexMethod.getKey();
-        Iterator<DexInstruction> iterator = dexMethod.getDexClass().getDexInstructions();
-        while (iterator.hasNext()) {
-            DexInstruction instruction = iterator.next();
-            if(methodKey.equals(instruction.getMethodKey())) {
-                return false;
-            }
-        }
-        return true;
+        return !getReferenceIndex().isReferenced(dexMethod.getKey());
     }
     private boolean isUnusedVirtualMethod(DexMethod dexMethod) {
         // TODO:
@@ -117,23 +108,21 @@ public class UnusedMethodsCleaner extends UnusedClassComponentCleaner<DexMethod>
             return;
         }
         DexClassRepository repository = getClassRepository();
-        Iterator<DexClass> iterator = repository.getDexClasses();
+        Iterator<MethodKey> iterator = getReferenceIndex().getReferencedMethods();
         while (iterator.hasNext()) {
-            DexClass dexClass = iterator.next();
-            Iterator<DexInstruction> instructionIterator = dexClass.getDexInstructions();
-            while (instructionIterator.hasNext()) {
-                DexInstruction instruction = instructionIterator.next();
-                MethodKey key = instruction.getMethodKey();
-                if(key != null) {
-                   unusedInternalMethods.remove(key);
-                    Iterator<MethodKey> equivalents = repository.findEquivalentMethods(key);
-                    while (equivalents.hasNext()) {
-                        unusedInternalMethods.remove(equivalents.next());
-                    }
-                }
+            MethodKey key = iterator.next();
+            unusedInternalMethods.remove(key);
+            Iterator<MethodKey> equivalents = repository.findEquivalentMethods(key);
+            while (equivalents.hasNext()) {
+                unusedInternalMethods.remove(equivalents.next());
             }
         }
     }
+    @Override
+    protected void onRemove(DexMethod dexMethod) {
+        super.onRemove(dexMethod);
+        getReferenceIndex().removeReferences(dexMethod);
+    }
     private boolean isInternal(DexMethod dexMethod) {
         if(dexMethod.isConstructor()) {
             return false;
@@ -0,0 +1,210 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+/**
+ * Open addressing table of primitive int keys with linear probing. Key zero is kept on an
+ * extra slot after the table, so no key value is reserved. Subclasses keep their values on a
+ * parallel array of the length given to {@link #allocateValues(int)}.
+ * */
+abstract class IntHashTable {
+
+    private int[] keys;
+    private int mask;
+    private int shift;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+
+    IntHashTable(int initialCapacity) {
+        if(initialCapacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+        }
+        allocate(tableSize(initialCapacity));
+    }
+
+    public int size() {
+        if(hasZeroKey) {
+            return size + 1;
+        }
+        return size;
+    }
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    public void clear() {
+        int[] keys = this.keys;
+        int length = keys.length;
+        for(int i = 0; i < length; i++) {
+            keys[i] = 0;
+            clearValue(i);
+        }
+        this.size = 0;
+        this.hasZeroKey = false;
+    }
+    public int[] keys() {
+        int[] results = new int[size()];
+        int[] keys = this.keys;
+        int capacity = mask + 1;
+        int index = 0;
+        if(hasZeroKey) {
+            index ++;
+        }
+        for(int i = 0; i < capacity; i++) {
+            int key = keys[i];
+            if(key != 0) {
+                results[index] = key;
+                index ++;
+            }
+        }
+        return results;
+    }
+
+    int indexOf(int key) {
+        if(key == 0) {
+            if(hasZeroKey) {
+                return mask + 1;
+            }
+            return -1;
+        }
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int i = home(key);
+        while (true) {
+            int k = keys[i];
+            if(k == key) {
+                return i;
+            }
+            if(k == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+    // Returns the slot of the key if it exists, otherwise inserts the key and returns
+    // -(slot + 1); the caller stores the value on the returned slot
+    int insertIndex(int key) {
+        if(key == 0) {
+            int slot = mask + 1;
+            if(hasZeroKey) {
+                return slot;
+            }
+            hasZeroKey = true;
+            return -(slot + 1);
+        }
+        if(size >= threshold) {
+            rehash((mask + 1) << 1);
+        }
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int i = home(key);
+        while (true) {
+            int k = keys[i];
+            if(k == key) {
+                return i;
+            }
+            if(k == 0) {
+                keys[i] = key;
+                size ++;
+                return -(i + 1);
+            }
+            i = (i + 1) & mask;
+        }
+    }
+    void removeAt(int slot) {
+        if(slot == mask + 1) {
+            hasZeroKey = false;
+            clearValue(slot);
+            return;
+        }
+        size --;
+        int[] keys = this.keys;
+        int mask = this.mask;
+        int last;
+        int pos = slot;
+        while (true) {
+            last = pos;
+            pos = (pos + 1) & mask;
+            int k;
+            while (true) {
+                k = keys[pos];
+                if(k == 0) {
+                    keys[last] = 0;
+                    clearValue(last);
+                    return;
+                }
+                int home = home(k);
+                if(last <= pos ? (last >= home || home > pos) : (last >= home && home > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = k;
+            moveValue(pos, last);
+        }
+    }
+
+    abstract Object allocateValues(int length);
+    abstract void copyValue(Object oldValues, int oldSlot, int newSlot);
+    abstract void moveValue(int fromSlot, int toSlot);
+    abstract void clearValue(int slot);
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity + 1];
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        this.threshold = capacity >>> 1;
+        allocateValues(capacity + 1);
+    }
+    private void rehash(int capacity) {
+        int[] oldKeys = this.keys;
+        int oldCapacity = this.mask + 1;
+        Object oldValues = allocateValues(capacity + 1);
+        this.keys = new int[capacity + 1];
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        this.threshold = capacity >>> 1;
+        int[] keys = this.keys;
+        int mask = this.mask;
+        for(int i = 0; i < oldCapacity; i++) {
+            int key = oldKeys[i];
+            if(key == 0) {
+                continue;
+            }
+            int slot = home(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            copyValue(oldValues, i, slot);
+        }
+        if(hasZeroKey) {
+            copyValue(oldValues, oldCapacity, capacity);
+        }
+    }
+
+    // Fibonacci hashing, the high bits of the product are mixed from all key bits
+    private int home(int key) {
+        return (key * 0x9e3779b9) >>> shift;
+    }
+    private static int tableSize(int expected) {
+        int capacity = 4;
+        while (capacity < 1 << 30 && (capacity >>> 1) <= expected) {
+            capacity = capacity << 1;
+        }
+        return capacity;
+    }
+}
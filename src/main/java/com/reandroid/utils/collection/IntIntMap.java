@@ -0,0 +1,96 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+/**
+ * Map of primitive int keys to int values, used on hot id lookups where boxing
+ * every probe of a {@code Map<Integer, Integer>} dominates.
+ * */
+public class IntIntMap extends IntHashTable {
+
+    private int[] values;
+
+    public IntIntMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+    public IntIntMap() {
+        this(16);
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+    public int get(int key, int defaultValue) {
+        int slot = indexOf(key);
+        if(slot < 0) {
+            return defaultValue;
+        }
+        return values[slot];
+    }
+    public void put(int key, int value) {
+        int slot = insertIndex(key);
+        if(slot < 0) {
+            slot = -(slot + 1);
+        }
+        values[slot] = value;
+    }
+    public boolean remove(int key) {
+        int slot = indexOf(key);
+        if(slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    Object allocateValues(int length) {
+        int[] values = this.values;
+        this.values = new int[length];
+        return values;
+    }
+    @Override
+    void copyValue(Object oldValues, int oldSlot, int newSlot) {
+        this.values[newSlot] = ((int[]) oldValues)[oldSlot];
+    }
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+        int[] values = this.values;
+        values[toSlot] = values[fromSlot];
+    }
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append('{');
+        int[] keys = keys();
+        for(int i = 0; i < keys.length; i++) {
+            if(i != 0) {
+                builder.append(", ");
+            }
+            int key = keys[i];
+            builder.append(key);
+            builder.append('=');
+            builder.append(get(key, 0));
+        }
+        builder.append('}');
+        return builder.toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+import java.util.Iterator;
+
+/**
+ * Map of primitive int keys to object values, null values are not stored.
+ * */
+public class IntObjectMap<V> extends IntHashTable implements Iterable<V> {
+
+    private Object[] values;
+
+    public IntObjectMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = indexOf(key);
+        if(slot < 0) {
+            return null;
+        }
+        return (V) values[slot];
+    }
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if(value == null) {
+            return remove(key);
+        }
+        int slot = insertIndex(key);
+        if(slot < 0) {
+            values[-(slot + 1)] = value;
+            return null;
+        }
+        V old = (V) values[slot];
+        values[slot] = value;
+        return old;
+    }
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = indexOf(key);
+        if(slot < 0) {
+            return null;
+        }
+        V old = (V) values[slot];
+        removeAt(slot);
+        return old;
+    }
+    @Override
+    public Iterator<V> iterator() {
+        return ArrayIterator.of(values);
+    }
+
+    @Override
+    Object allocateValues(int length) {
+        Object[] values = this.values;
+        this.values = new Object[length];
+        return values;
+    }
+    @Override
+    void copyValue(Object oldValues, int oldSlot, int newSlot) {
+        this.values[newSlot] = ((Object[]) oldValues)[oldSlot];
+    }
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+        Object[] values = this.values;
+        values[toSlot] = values[fromSlot];
+    }
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+}
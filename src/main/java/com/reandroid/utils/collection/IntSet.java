@@ -0,0 +1,58 @@
+/*
+ *  Copyright (C) 2022 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.collection;
+
+/**
+ * Set of primitive int values.
+ * */
+public class IntSet extends IntHashTable {
+
+    public IntSet(int initialCapacity) {
+        super(initialCapacity);
+    }
+    public IntSet() {
+        this(16);
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+    public boolean add(int value) {
+        return insertIndex(value) < 0;
+    }
+    public boolean remove(int value) {
+        int slot = indexOf(value);
+        if(slot < 0) {
+            return false;
+        }
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    Object allocateValues(int length) {
+        return null;
+    }
+    @Override
+    void copyValue(Object oldValues, int oldSlot, int newSlot) {
+    }
+    @Override
+    void moveValue(int fromSlot, int toSlot) {
+    }
+    @Override
+    void clearValue(int slot) {
+    }
+}
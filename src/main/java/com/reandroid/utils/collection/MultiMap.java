@@ -16,20 +16,55 @@
 package com.reandroid.utils.collection;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
+/**
+ * Maps a key to one or more values. All modifications are serialized on an internal lock,
+ * lookups are serialized too unless {@link #setConcurrentReads(boolean)} is enabled; then the
+ * backing map is a {@link ConcurrentHashMap}, value lists are replaced instead of modified in
+ * place and lookups run without locking.
+ * */
 @SuppressWarnings("unchecked")
 public class MultiMap<K, V> {
 
     private final Object mLock = new Object();
-    private Map<K, Object> map;
+    private volatile Map<K, Object> map;
     private int initialSize;
     private Comparator<? super V> favouriteObjectsSorter;
+    private volatile boolean concurrentReads;
 
     public MultiMap() {
     }
+    public MultiMap(boolean concurrentReads) {
+        this.concurrentReads = concurrentReads;
+    }
+
+    public boolean isConcurrentReads() {
+        return concurrentReads;
+    }
+    /**
+     * Enables lock-free lookups for maps shared by many reader threads, should be set before
+     * the map is shared as the backing map is rebuilt on change.
+     * */
+    public void setConcurrentReads(boolean concurrentReads) {
+        synchronized (mLock) {
+            if(concurrentReads == this.concurrentReads) {
+                return;
+            }
+            Map<K, Object> map = this.map;
+            this.map = null;
+            this.concurrentReads = concurrentReads;
+            if(map != null && !map.isEmpty()) {
+                if(this.initialSize < map.size()) {
+                    this.initialSize = map.size();
+                }
+                getInitializedMap().putAll(map);
+            }
+        }
+    }
 
     public void findDuplicates(Comparator<? super V> comparator, Consumer<List<V>> consumer) {
         synchronized (mLock) {
@@ -121,14 +156,28 @@ public class MultiMap<K, V> {
         if(obj.getClass() == EntryList.class) {
             EntryList<Object> entryList = (EntryList<Object>) obj;
             if(!entryList.containsExact(value)) {
+                entryList = toEditable(entryList);
                 entryList.add(value);
                 sortFavourites(entryList);
+                map.put(key, entryList);
             }
         }else {
-            obj = map.remove(key);
-            obj = combine(obj, value);
-            map.put(key, obj);
+            replaceValue(map, key, combine(obj, value));
+        }
+    }
+    private void replaceValue(Map<K, Object> map, K key, Object value) {
+        // concurrent readers must not observe the key missing in between
+        if(!concurrentReads) {
+            map.remove(key);
+        }
+        map.put(key, value);
+    }
+    // Entry lists could be iterated by lock-free readers, thus copied before any change
+    private EntryList<Object> toEditable(EntryList<?> entryList) {
+        if(concurrentReads) {
+            return new EntryList<>(entryList);
         }
+        return (EntryList<Object>) entryList;
     }
     @SuppressWarnings("all")
     public V remove(Object key, Object value) {
@@ -150,15 +199,7 @@ public class MultiMap<K, V> {
                 if(i < 0) {
                     return null;
                 }
-                obj = entryList.remove(i);
-                if(entryList.isEmpty()) {
-                    map.remove(key);
-                }else if(entryList.size() == 1) {
-                    obj = entryList.get(0);
-                    map.remove(key);
-                    map.put((K) key, obj);
-                }
-                return (V) obj;
+                return (V) removeFromEntryList(map, (K) key, entryList, i);
             }
             if(obj == value) {
                 return (V) map.remove(key);
@@ -199,15 +240,7 @@ public class MultiMap<K, V> {
                 if(i < 0) {
                     return null;
                 }
-                obj = entryList.remove(i);
-                if(entryList.isEmpty()) {
-                    map.remove(key);
-                }else if(entryList.size() == 1) {
-                    obj = entryList.get(0);
-                    map.remove(key);
-                    map.put((K) key, obj);
-                }
-                return (V) obj;
+                return (V) removeFromEntryList(map, (K) key, entryList, i);
             }
             if(predicate.test((V) obj)) {
                 return (V) map.remove(key);
@@ -215,39 +248,64 @@ public class MultiMap<K, V> {
             return null;
         }
     }
+    private Object removeFromEntryList(Map<K, Object> map, K key, EntryList<?> entryList, int index) {
+        EntryList<Object> editable = toEditable(entryList);
+        Object obj = editable.remove(index);
+        if(editable.isEmpty()) {
+            map.remove(key);
+        }else if(editable.size() == 1) {
+            obj = editable.get(0);
+            replaceValue(map, key, obj);
+        }else if(editable != entryList) {
+            map.put(key, editable);
+        }
+        return obj;
+    }
     @SuppressWarnings("all")
     public boolean containsKey(Object key) {
+        if(concurrentReads) {
+            return containsKeyUnlocked(key);
+        }
         synchronized (mLock) {
-            if(key == null) {
-                return false;
-            }
-            Map<K, Object> map = this.map;
-            if(map == null) {
-                return false;
-            }
-            return map.containsKey(key);
+            return containsKeyUnlocked(key);
         }
     }
-    @SuppressWarnings("all")
+    private boolean containsKeyUnlocked(Object key) {
+        if(key == null) {
+            return false;
+        }
+        Map<K, Object> map = this.map;
+        if(map == null) {
+            return false;
+        }
+        return map.containsKey(key);
+    }
     public boolean containsValue(Object key, Predicate<? super V> predicate) {
+        if(concurrentReads) {
+            return containsValueUnlocked(key, predicate);
+        }
         synchronized (mLock) {
-            if(key == null) {
-                return false;
-            }
-            Map<K, Object> map = this.map;
-            if(map == null) {
-                return false;
-            }
-            Object obj = map.get(key);
-            if(obj == null) {
-                return false;
-            }
-            if(obj.getClass() == EntryList.class) {
-                EntryList<V> entryList = (EntryList<V>) obj;
-                return entryList.containsIf(predicate);
-            }
-            return predicate.test((V) obj);
+            return containsValueUnlocked(key, predicate);
+        }
+    }
+    @SuppressWarnings("all")
+    private boolean containsValueUnlocked(Object key, Predicate<? super V> predicate) {
+        if(key == null) {
+            return false;
+        }
+        Map<K, Object> map = this.map;
+        if(map == null) {
+            return false;
+        }
+        Object obj = map.get(key);
+        if(obj == null) {
+            return false;
+        }
+        if(obj.getClass() == EntryList.class) {
+            EntryList<V> entryList = (EntryList<V>) obj;
+            return entryList.containsIf(predicate);
         }
+        return predicate.test((V) obj);
     }
 
     public boolean updateKey(K old, K key, V value) {
@@ -256,12 +314,30 @@ public class MultiMap<K, V> {
                 return false;
             }
             Map<K, Object> map = getInitializedMap();
+            if(concurrentReads) {
+                updateKeyConcurrent(map, old, key, value);
+                return true;
+            }
             Object obj = combine(map.remove(old), map.remove(key));
             obj = combine(obj, value);
             map.put(key, obj);
             return true;
         }
     }
+    // Keeps values of the new key reachable while updating, null keys are not supported
+    // by the concurrent map
+    private void updateKeyConcurrent(Map<K, Object> map, K old, K key, V value) {
+        Object obj = null;
+        if(old != null && !old.equals(key)) {
+            obj = map.remove(old);
+        }
+        if(key == null) {
+            return;
+        }
+        obj = combine(obj, map.get(key));
+        obj = combine(obj, value);
+        map.put(key, obj);
+    }
     private Object combine(Object obj1, Object obj2) {
         if(obj1 == obj2) {
             return obj1;
@@ -282,6 +358,7 @@ public class MultiMap<K, V> {
         if(list1 && !list2) {
             EntryList<Object> entryList = (EntryList<Object>) obj1;
             if(!entryList.containsExact(obj2)) {
+                entryList = toEditable(entryList);
                 entryList.add(obj2);
                 sortFavourites(entryList);
             }
@@ -290,6 +367,7 @@ public class MultiMap<K, V> {
         if(!list1) {
             EntryList<Object> entryList = (EntryList<Object>) obj2;
             if(!entryList.containsExact(obj1)) {
+                entryList = toEditable(entryList);
                 entryList.add(obj1);
                 sortFavourites(entryList);
             }
@@ -300,6 +378,9 @@ public class MultiMap<K, V> {
         boolean added = false;
         for(Object obj : entryList2) {
             if(!entryList1.containsExact(obj)){
+                if(!added) {
+                    entryList1 = toEditable(entryList1);
+                }
                 entryList1.add(obj);
                 added = true;
             }
@@ -310,49 +391,61 @@ public class MultiMap<K, V> {
         return entryList1;
     }
     public Iterator<V> getAll(K key) {
+        if(concurrentReads) {
+            return getAllUnlocked(key);
+        }
         synchronized (mLock) {
-            if(key == null) {
-                return EmptyIterator.of();
-            }
-            Map<K, Object> map = this.map;
-            if(map == null) {
-                return EmptyIterator.of();
-            }
-            Object obj = map.get(key);
-            if(obj == null) {
-                return EmptyIterator.of();
-            }
-            if(obj.getClass() == EntryList.class) {
-                return ((EntryList<V>) obj).iterator();
-            }
-            return SingleIterator.of((V) obj);
+            return getAllUnlocked(key);
         }
     }
+    private Iterator<V> getAllUnlocked(K key) {
+        if(key == null) {
+            return EmptyIterator.of();
+        }
+        Map<K, Object> map = this.map;
+        if(map == null) {
+            return EmptyIterator.of();
+        }
+        Object obj = map.get(key);
+        if(obj == null) {
+            return EmptyIterator.of();
+        }
+        if(obj.getClass() == EntryList.class) {
+            return ((EntryList<V>) obj).iterator();
+        }
+        return SingleIterator.of((V) obj);
+    }
     public V get(K key) {
         return get(key, null);
     }
     public V get(K key, Predicate<? super V> predicate) {
+        if(concurrentReads) {
+            return getUnlocked(key, predicate);
+        }
         synchronized (mLock) {
-            if(key == null) {
-                return null;
-            }
-            Map<K, Object> map = this.map;
-            if(map == null) {
-                return null;
-            }
-            Object obj = map.get(key);
-            if(obj == null) {
-                return null;
-            }
-            if(obj.getClass() == EntryList.class) {
-                return getFromEntryList(key, (EntryList<?>) obj, predicate);
-            }
-            V value = (V) obj;
-            if(predicate != null && !predicate.test(value)) {
-                value = null;
-            }
-            return value;
+            return getUnlocked(key, predicate);
+        }
+    }
+    private V getUnlocked(K key, Predicate<? super V> predicate) {
+        if(key == null) {
+            return null;
+        }
+        Map<K, Object> map = this.map;
+        if(map == null) {
+            return null;
         }
+        Object obj = map.get(key);
+        if(obj == null) {
+            return null;
+        }
+        if(obj.getClass() == EntryList.class) {
+            return getFromEntryList(map, key, (EntryList<?>) obj, predicate);
+        }
+        V value = (V) obj;
+        if(predicate != null && !predicate.test(value)) {
+            value = null;
+        }
+        return value;
     }
     public void clear() {
         synchronized (mLock) {
@@ -367,19 +460,27 @@ public class MultiMap<K, V> {
         }
     }
     public int size() {
+        if(concurrentReads) {
+            return sizeUnlocked();
+        }
         synchronized (mLock) {
-            Map<K, Object> map = this.map;
-            if(map == null) {
-                return 0;
-            }
-            return map.size();
+            return sizeUnlocked();
+        }
+    }
+    private int sizeUnlocked() {
+        Map<K, Object> map = this.map;
+        if(map == null) {
+            return 0;
         }
+        return map.size();
     }
     private Map<K, Object> getInitializedMap() {
         Map<K, Object> map = this.map;
         if(map == null) {
             int size = this.initialSize;
-            if(size == 0) {
+            if(concurrentReads) {
+                map = size == 0 ? new ConcurrentHashMap<>() : new ConcurrentHashMap<>(size);
+            }else if(size == 0) {
                 map = new HashMap<>();
             }else {
                 map = new HashMap<>(size);
@@ -415,9 +516,9 @@ public class MultiMap<K, V> {
             }
         }
     }
-    private V getFromEntryList(K key, EntryList<?> entryList, Predicate<? super V> predicate) {
+    private V getFromEntryList(Map<K, Object> map, K key, EntryList<?> entryList, Predicate<? super V> predicate) {
         if(entryList.isEmpty()) {
-            this.map.remove(key);
+            map.remove(key, entryList);
             return null;
         }
         EntryList<V> list = (EntryList<V>) entryList;
@@ -435,5 +536,8 @@ public class MultiMap<K, V> {
         public EntryList(Object item1, Object item2) {
             super(new Object[]{item1, item2});
         }
+        public EntryList(EntryList<?> entryList) {
+            super((Collection<? extends T>) entryList);
+        }
     }
 }
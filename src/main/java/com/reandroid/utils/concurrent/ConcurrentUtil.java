@@ -0,0 +1,71 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentUtil {
+
+    public static int resolveThreadCount(int threadCount) {
+        if(threadCount <= 0) {
+            threadCount = availableProcessors();
+        }
+        return threadCount;
+    }
+    public static int availableProcessors() {
+        int count = Runtime.getRuntime().availableProcessors();
+        if(count < 1) {
+            count = 1;
+        }
+        return count;
+    }
+    public static ExecutorService newFixedPool(int threadCount, String name) {
+        return Executors.newFixedThreadPool(resolveThreadCount(threadCount),
+                newThreadFactory(name));
+    }
+    public static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    public static IOException toIOException(ExecutionException exception) {
+        Throwable cause = exception.getCause();
+        if(cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if(cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if(cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new IOException(cause);
+    }
+    public static IOException toIOException(InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        IOException ioException = new IOException("Interrupted");
+        ioException.initCause(exception);
+        return ioException;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright (C) 2024 github.com/REAndroid
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.reandroid.utils.concurrent;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs tasks on an executor and hands back results in submission order.
+ * At most {@link #getMaxPending()} tasks are kept in flight, callers are
+ * expected to drain with {@link #takeNext()} whenever {@link #isFull()}.
+ */
+public class OrderedTaskQueue<T> {
+
+    private final Executor executor;
+    private final int maxPending;
+    private final ArrayDeque<FutureTask<T>> pending;
+
+    public OrderedTaskQueue(Executor executor, int maxPending) {
+        if(maxPending < 1) {
+            maxPending = 1;
+        }
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.pending = new ArrayDeque<>(maxPending);
+    }
+
+    public void submit(Callable<T> callable) {
+        FutureTask<T> task = new FutureTask<>(callable);
+        pending.addLast(task);
+        executor.execute(task);
+    }
+    public T takeNext() throws IOException {
+        FutureTask<T> task = pending.pollFirst();
+        if(task == null) {
+            return null;
+        }
+        try {
+            return task.get();
+        } catch (ExecutionException exception) {
+            cancelAll();
+            throw ConcurrentUtil.toIOException(exception);
+        } catch (InterruptedException exception) {
+            cancelAll();
+            throw ConcurrentUtil.toIOException(exception);
+        }
+    }
+    public boolean isFull() {
+        return pending.size() >= maxPending;
+    }
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+    public int getMaxPending() {
+        return maxPending;
+    }
+    public void cancelAll() {
+        FutureTask<T> task;
+        while ((task = pending.pollFirst()) != null) {
+            task.cancel(true);
+        }
+    }
+}
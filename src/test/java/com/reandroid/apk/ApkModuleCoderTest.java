@@ -5,14 +5,18 @@ import com.reandroid.arsc.base.BlockDiff;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
 import com.reandroid.arsc.value.ResConfig;
+import com.reandroid.utils.io.FileIterator;
 import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
 import org.junit.Assert;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class ApkModuleCoderTest {
@@ -89,6 +93,70 @@ public class ApkModuleCoderTest {
         Assert.assertFalse("Failed to delete: " + mDir_json, mDir_json.exists());
         compare(apkModule, apkModule_encoded);
     }
+    @Test
+    public void e_testParallelDecodeToXml() throws IOException {
+        File dir = TestUtils.getTempDir();
+        File sequential = decodeXml(new File(dir, "decode_sequential"), 1);
+        File parallel = decodeXml(new File(dir, "decode_parallel"), 4);
+        int count = compareDirectories(sequential, parallel);
+        Assert.assertTrue("Files = " + count, count > 2);
+        FileUtil.deleteDirectory(parallel);
+        mDir_xml = sequential;
+    }
+    @Test
+    public void f_testParallelEncodeXml() throws IOException {
+        // more xml sources than threads
+        File layout = new File(mDir_xml, "resources/package_1/res/layout/activity_main.xml"
+                .replace('/', File.separatorChar));
+        Assert.assertTrue("Missing: " + layout, layout.isFile());
+        File publicXml = new File(layout.getParentFile().getParentFile(),
+                "values" + File.separator + "public.xml");
+        byte[] bytes = IOUtil.readFully(layout);
+        StringBuilder publics = new StringBuilder();
+        for(int i = 0; i < 8; i++) {
+            String name = "activity_copy_" + i;
+            IOUtil.writeAll(new ByteArrayInputStream(bytes),
+                    new File(layout.getParentFile(), name + ".xml"));
+            publics.append("  <public id=\"0x7f06000").append(i + 1)
+                    .append("\" type=\"layout\" name=\"").append(name).append("\" />\n");
+        }
+        String xml = new String(IOUtil.readFully(publicXml), StandardCharsets.UTF_8);
+        xml = xml.replace("</resources>", publics + "</resources>");
+        IOUtil.writeUtf8(xml, publicXml);
+        ApkModuleXmlEncoder encoder = new ApkModuleXmlEncoder();
+        encoder.scanDirectory(mDir_xml);
+        byte[] sequential = encoder.getApkModule().writeApkBytes();
+
+        encoder = new ApkModuleXmlEncoder();
+        encoder.setThreadCount(4);
+        encoder.scanDirectory(mDir_xml);
+        byte[] parallel = encoder.getApkModule().writeApkBytes();
+
+        FileUtil.deleteDirectory(mDir_xml);
+        Assert.assertArrayEquals(sequential, parallel);
+    }
+    private File decodeXml(File dir, int threadCount) throws IOException {
+        FileUtil.deleteDirectory(dir);
+        // decoding renames res paths of the module, thus each run gets its own
+        ApkModule apkModule = new ApkModuleTest().createApkModule();
+        ApkModuleXmlDecoder decoder = new ApkModuleXmlDecoder(apkModule);
+        decoder.setThreadCount(threadCount);
+        decoder.decode(dir);
+        return dir;
+    }
+    private int compareDirectories(File dir1, File dir2) throws IOException {
+        int count = 0;
+        FileIterator iterator = new FileIterator(dir1);
+        while (iterator.hasNext()) {
+            File file = iterator.next();
+            String path = file.getAbsolutePath().substring(dir1.getAbsolutePath().length());
+            File file2 = new File(dir2, path);
+            Assert.assertTrue("Missing: " + path, file2.isFile());
+            Assert.assertArrayEquals(path, IOUtil.readFully(file), IOUtil.readFully(file2));
+            count ++;
+        }
+        return count;
+    }
     private void compare(ApkModule module1, ApkModule module2) throws IOException {
         Assert.assertEquals(module1.getZipEntryMap().size(), module2.getZipEntryMap().size());
 
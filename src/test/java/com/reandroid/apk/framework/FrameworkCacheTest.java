@@ -0,0 +1,113 @@
+package com.reandroid.apk.framework;
+
+import com.reandroid.apk.FrameworkApk;
+import com.reandroid.archive.ZipEntryMap;
+import com.reandroid.arsc.model.FrameworkTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FrameworkCacheTest {
+
+    @Test
+    public void testLoadOncePerVersion() throws Exception {
+        FrameworkCache cache = new FrameworkCache(2);
+        AtomicInteger loads = new AtomicInteger();
+        FrameworkCache.Loader loader = version -> {
+            loads.incrementAndGet();
+            return newFrameworkApk();
+        };
+        FrameworkApk frameworkApk = cache.get(30, loader);
+        Assert.assertNotNull(frameworkApk);
+        Assert.assertSame(frameworkApk, cache.get(30, loader));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        // destroyed frameworks are reloaded
+        frameworkApk.destroy();
+        Assert.assertNotSame(frameworkApk, cache.get(30, loader));
+        Assert.assertEquals(2, loads.get());
+    }
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception {
+        FrameworkCache cache = new FrameworkCache(2);
+        FrameworkApk apk30 = newFrameworkApk();
+        FrameworkApk apk31 = newFrameworkApk();
+        FrameworkApk apk32 = newFrameworkApk();
+        cache.put(30, apk30);
+        cache.put(31, apk31);
+        Assert.assertSame(apk30, cache.getCached(30));
+        cache.put(32, apk32);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertSame(apk30, cache.getCached(30));
+        Assert.assertSame(apk32, cache.getCached(32));
+
+        // evicted one is still softly reachable and promoted back on hit
+        FrameworkApk soft = cache.getCached(31);
+        if(soft != null) {
+            Assert.assertSame(apk31, soft);
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(2, cache.getEvictionCount());
+        }
+
+        cache.setMaxSize(1);
+        Assert.assertEquals(1, cache.size());
+        cache.remove(30);
+        cache.remove(31);
+        cache.remove(32);
+        Assert.assertNull(cache.getCached(30));
+        Assert.assertNull(cache.getCached(31));
+        Assert.assertNull(cache.getCached(32));
+    }
+    @Test
+    public void testConcurrentGetLoadsOnce() throws Exception {
+        FrameworkCache cache = new FrameworkCache();
+        AtomicInteger loads = new AtomicInteger();
+        FrameworkCache.Loader loader = version -> {
+            loads.incrementAndGet();
+            try {
+                // keep the other threads waiting on the version lock
+                Thread.sleep(20);
+            } catch (InterruptedException exception) {
+                throw new IOException(exception);
+            }
+            return newFrameworkApk();
+        };
+        int threads = 8;
+        List<Callable<FrameworkApk>> tasks = new ArrayList<>();
+        for(int i = 0; i < threads; i++) {
+            tasks.add(() -> cache.get(34, loader));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            FrameworkApk first = null;
+            for(Future<FrameworkApk> future : executor.invokeAll(tasks)) {
+                FrameworkApk frameworkApk = future.get();
+                if(first == null) {
+                    first = frameworkApk;
+                }
+                Assert.assertSame(first, frameworkApk);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+    }
+
+    private static FrameworkApk newFrameworkApk() {
+        FrameworkApk frameworkApk = new FrameworkApk(new ZipEntryMap());
+        frameworkApk.setTableBlock(new FrameworkTable());
+        return frameworkApk;
+    }
+}
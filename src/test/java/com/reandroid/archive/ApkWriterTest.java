@@ -1,14 +1,29 @@
 package com.reandroid.archive;
 
+import com.reandroid.TestUtils;
 import com.reandroid.apk.ApkModule;
 import com.reandroid.apk.ApkModuleTest;
+import com.reandroid.archive.io.ZipMappedInput;
+import com.reandroid.archive.writer.ApkFileWriter;
 import com.reandroid.arsc.chunk.TableBlock;
 import com.reandroid.arsc.chunk.xml.AndroidManifestBlock;
+import com.reandroid.utils.io.IOUtil;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ApkWriterTest {
     @Test
@@ -41,6 +56,245 @@ public class ApkWriterTest {
         Assert.assertNotNull("Missing classes.dex", inputSource);
     }
 
+    @Test
+    public void testParallelFileWriterOutputIdentical() throws IOException {
+        File dir = TestUtils.getTempDir();
+        File sequential = new File(dir, "writer_sequential.apk");
+        File parallel = new File(dir, "writer_parallel.apk");
+
+        ApkFileWriter writer = getApkModule().createApkFileWriter(sequential);
+        writer.write();
+
+        writer = getApkModule().createApkFileWriter(parallel);
+        writer.setThreadCount(4);
+        writer.write();
+
+        Assert.assertArrayEquals("Parallel compressed apk bytes differ",
+                IOUtil.readFully(sequential), IOUtil.readFully(parallel));
+    }
+
+    @Test
+    public void testParallelFileWriterProgress() throws IOException {
+        File dir = TestUtils.getTempDir();
+        File source = new File(dir, "writer_progress.apk");
+        getApkModule().writeApk(source);
+        // entries of a loaded archive are copied without re-compressing
+        ApkModule apkModule = ApkModule.loadApkFile(source);
+
+        List<String> sequential = new ArrayList<>();
+        ApkFileWriter writer = apkModule.createApkFileWriter(
+                new File(dir, "writer_progress_sequential.apk"));
+        writer.setWriteProgress((path, mode, writtenBytes) -> sequential.add(path));
+        writer.write();
+
+        List<String> parallel = new ArrayList<>();
+        writer = apkModule.createApkFileWriter(new File(dir, "writer_progress_parallel.apk"));
+        writer.setThreadCount(4);
+        writer.setWriteProgress((path, mode, writtenBytes) -> parallel.add(path));
+        writer.write();
+        apkModule.close();
+
+        Assert.assertTrue("No progress", sequential.size() > 1);
+        sequential.sort(null);
+        parallel.sort(null);
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testMappedInputConcurrentRead() throws Exception {
+        File file = new File(TestUtils.getTempDir(), "writer_mapped.apk");
+        getApkModule().writeApk(file);
+        byte[] expected = IOUtil.readFully(file);
+
+        // small chunks so that reads cross chunk boundaries
+        ZipMappedInput zipInput = new ZipMappedInput(file, 4096);
+        int threads = 4;
+        List<Callable<byte[]>> tasks = new ArrayList<>();
+        for(int i = 0; i < threads; i++){
+            int step = 1000 + i * 333;
+            tasks.add(() -> {
+                byte[] result = new byte[(int) zipInput.getLength()];
+                for(int offset = 0; offset < result.length; offset += step){
+                    int length = Math.min(step, result.length - offset);
+                    ByteBuffer buffer = zipInput.getByteBuffer(offset, length);
+                    buffer.get(result, offset, length);
+                }
+                return result;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for(Future<byte[]> future : executor.invokeAll(tasks)){
+                Assert.assertArrayEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+            zipInput.close();
+        }
+        ArchiveMapped archive = new ArchiveMapped(file);
+        Assert.assertNotNull(archive.getEntrySource("AndroidManifest.xml"));
+        archive.close();
+    }
+
+    @Test
+    public void testArchiveGetEntryByName() throws IOException {
+        File file = new File(TestUtils.getTempDir(), "writer_names.apk");
+        getApkModule().writeApk(file);
+        ArchiveFile archive = new ArchiveFile(file);
+        int count = 0;
+        Iterator<ArchiveEntry> iterator = archive.iterator();
+        while (iterator.hasNext()){
+            ArchiveEntry entry = iterator.next();
+            if(entry.isDirectory()){
+                continue;
+            }
+            Assert.assertSame(entry.getName(), firstEntry(archive, entry.getName()),
+                    archive.getEntry(entry.getName()));
+            count ++;
+        }
+        Assert.assertTrue("No entries", count > 0);
+        Assert.assertNull(archive.getEntry("missing/entry.bin"));
+        Assert.assertNull(archive.getEntrySource(null));
+
+        ArchiveEntry entry = archive.getEntry("AndroidManifest.xml");
+        Assert.assertNotNull(entry);
+        entry.setName("renamed/AndroidManifest.xml");
+        Assert.assertNull(archive.getEntry("AndroidManifest.xml"));
+        Assert.assertSame(entry, archive.getEntry("renamed/AndroidManifest.xml"));
+        archive.close();
+    }
+    @Test
+    public void testArchiveGetEntryLocalNameDiffers() throws IOException {
+        File file = new File(TestUtils.getTempDir(), "writer_local_name.apk");
+        getApkModule().writeApk(file);
+        // local headers come first, rename only the local one
+        byte[] bytes = IOUtil.readFully(file);
+        int offset = indexOf(bytes, "AndroidManifest.xml".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue("Missing local name", offset > 0);
+        bytes[offset + "AndroidManifest".length() - 1] = 'T';
+        IOUtil.writeAll(new ByteArrayInputStream(bytes), file);
+
+        ArchiveFile archive = new ArchiveFile(file);
+        ArchiveEntry entry = archive.getEntry("AndroidManifesT.xml");
+        Assert.assertNotNull(entry);
+        Assert.assertEquals("AndroidManifesT.xml", entry.getName());
+        Assert.assertNull(archive.getEntry("AndroidManifest.xml"));
+        Assert.assertNotNull(archive.getEntry("classes.dex"));
+        archive.close();
+
+        // central name until the local header is read
+        ArchiveFile lazy = new ArchiveFile(file, true);
+        entry = lazy.getEntry("AndroidManifest.xml");
+        Assert.assertNotNull(entry);
+        Assert.assertNull(lazy.getEntry("AndroidManifesT.xml"));
+        Assert.assertTrue(entry.getFileOffset() > 0);
+        Assert.assertEquals("AndroidManifesT.xml", entry.getName());
+        Assert.assertSame(entry, lazy.getEntry("AndroidManifesT.xml"));
+        Assert.assertNull(lazy.getEntry("AndroidManifest.xml"));
+        lazy.close();
+    }
+    @Test
+    public void testCentralDirectoryOnlyEntries() throws IOException {
+        File file = new File(TestUtils.getTempDir(), "writer_lazy.apk");
+        getApkModule().writeApk(file);
+        ArchiveFile archive = new ArchiveFile(file);
+        ArchiveFile lazy = new ArchiveFile(file, true);
+        Assert.assertEquals(archive.size(), lazy.size());
+
+        ArchiveEntry manifest = lazy.getEntry("AndroidManifest.xml");
+        Assert.assertNotNull(manifest);
+        Assert.assertNotNull(lazy.getEntrySource("classes.dex"));
+        Assert.assertNull(lazy.getEntry("missing/entry.bin"));
+        int files = 0;
+        Iterator<ArchiveEntry> filesIterator = lazy.getFiles();
+        while (filesIterator.hasNext()){
+            filesIterator.next();
+            files ++;
+        }
+        Assert.assertTrue("No files", files > 1);
+        Assert.assertEquals(files, lazy.mapEntrySource().size());
+        Iterator<ArchiveEntry> unresolved = lazy.iterator();
+        while (unresolved.hasNext()){
+            ArchiveEntry entry = unresolved.next();
+            Assert.assertFalse("Resolved: " + entry.getName(),
+                    ((LazyArchiveEntry) entry).isResolved());
+        }
+        Assert.assertArrayEquals(IOUtil.readFully(archive.openInputStream(
+                archive.getEntry("AndroidManifest.xml"))),
+                IOUtil.readFully(lazy.openInputStream(manifest)));
+        Assert.assertTrue(((LazyArchiveEntry) manifest).isResolved());
+
+        Iterator<ArchiveEntry> iterator = archive.iterator();
+        Iterator<ArchiveEntry> lazyIterator = lazy.iterator();
+        while (iterator.hasNext()){
+            ArchiveEntry entry = iterator.next();
+            ArchiveEntry lazyEntry = lazyIterator.next();
+            String name = lazyEntry.getName();
+            Assert.assertEquals(entry.getName(), name);
+            Assert.assertEquals(entry.getFileOffset(), lazyEntry.getFileOffset());
+            Assert.assertEquals(name, lazyEntry.getName());
+            Assert.assertEquals(entry.getCrc(), lazyEntry.getCrc());
+            if(!entry.isDirectory()){
+                Assert.assertArrayEquals(IOUtil.readFully(archive.openInputStream(entry)),
+                        IOUtil.readFully(lazy.openInputStream(lazyEntry)));
+            }
+        }
+        Assert.assertNotNull(lazy.getEntry("AndroidManifest.xml"));
+        lazy.close();
+        archive.close();
+    }
+    @Test
+    public void testParallelExtractAll() throws IOException {
+        File dir = TestUtils.getTempDir();
+        File file = new File(dir, "writer_extract.apk");
+        getApkModule().writeApk(file);
+        File sequential = new File(dir, "extract_sequential");
+        File parallel = new File(dir, "extract_parallel");
+
+        ArchiveFile archive = new ArchiveFile(file);
+        int count = archive.extractAll(sequential, null, null, 1);
+        Assert.assertEquals(count, archive.extractAll(parallel, null, null, 4));
+        Assert.assertTrue("No entries", count > 0);
+
+        Iterator<ArchiveEntry> iterator = archive.iterator();
+        while (iterator.hasNext()){
+            ArchiveEntry entry = iterator.next();
+            if(entry.isDirectory()){
+                continue;
+            }
+            byte[] expected = IOUtil.readFully(archive.openInputStream(entry));
+            String path = entry.getName().replace('/', File.separatorChar);
+            Assert.assertArrayEquals(entry.getName(), expected,
+                    IOUtil.readFully(new File(sequential, path)));
+            Assert.assertArrayEquals(entry.getName(), expected,
+                    IOUtil.readFully(new File(parallel, path)));
+        }
+        archive.close();
+    }
+    private static int indexOf(byte[] bytes, byte[] search){
+        int end = bytes.length - search.length;
+        for(int i = 0; i <= end; i++){
+            int j = 0;
+            while (j < search.length && bytes[i + j] == search[j]){
+                j++;
+            }
+            if(j == search.length){
+                return i;
+            }
+        }
+        return -1;
+    }
+    private static ArchiveEntry firstEntry(Archive<?> archive, String name){
+        Iterator<ArchiveEntry> iterator = archive.iterator();
+        while (iterator.hasNext()){
+            ArchiveEntry entry = iterator.next();
+            if(!entry.isDirectory() && name.equals(entry.getName())){
+                return entry;
+            }
+        }
+        return null;
+    }
+
     private ApkModule getApkModule() throws IOException {
         ApkModuleTest apkModuleTest = new ApkModuleTest();
         return apkModuleTest.createApkModule();
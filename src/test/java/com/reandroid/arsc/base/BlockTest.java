@@ -0,0 +1,53 @@
+package com.reandroid.arsc.base;
+
+import com.reandroid.arsc.container.FixedBlockContainer;
+import com.reandroid.arsc.item.ByteArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class BlockTest {
+
+    @Test
+    public void testContainerGetBytes() {
+        FixedBlockContainer container = new FixedBlockContainer(3);
+        container.addChild(0, newByteArray(1, 2, 3));
+        container.addChild(1, newByteArray());
+        container.addChild(2, newByteArray(4, 5));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, container.getBytes());
+
+        container.getChildes()[0].setNull(true);
+        Assert.assertArrayEquals(new byte[]{4, 5}, container.getBytes());
+        container.getChildes()[2].setNull(true);
+        Assert.assertNull(container.getBytes());
+    }
+    @Test
+    public void testGetBytesWriteFailure() {
+        FixedBlockContainer container = new FixedBlockContainer(2);
+        container.addChild(0, newByteArray(1, 2));
+        container.addChild(1, new ByteArray(2) {
+            @Override
+            protected int onWriteBytes(OutputStream stream) throws IOException {
+                throw new IOException("Write failure");
+            }
+        });
+        try {
+            container.getBytes();
+            Assert.fail("Write failure ignored");
+        } catch (IllegalStateException exception) {
+            Assert.assertTrue(exception.getCause() instanceof IOException);
+        }
+    }
+
+    private static ByteArray newByteArray(int ... values) {
+        byte[] bytes = new byte[values.length];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        ByteArray byteArray = new ByteArray();
+        byteArray.set(bytes);
+        return byteArray;
+    }
+}
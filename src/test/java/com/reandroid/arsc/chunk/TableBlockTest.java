@@ -0,0 +1,86 @@
+package com.reandroid.arsc.chunk;
+
+import com.reandroid.arsc.container.SpecTypePair;
+import com.reandroid.arsc.value.ValueType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+public class TableBlockTest {
+
+    @Test
+    public void testChunkSizesAfterRefresh() throws IOException {
+        TableBlock tableBlock = createTable();
+        tableBlock.refresh();
+        assertChunkSizes(tableBlock);
+        byte[] bytes = tableBlock.getBytes();
+
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(bytes));
+        loaded.refresh();
+        Assert.assertArrayEquals(bytes, loaded.getBytes());
+
+        // sizes computed during the previous refresh must not be served after edits
+        editTable(tableBlock);
+        Assert.assertEquals(tableBlock.getBytes().length, tableBlock.countBytes());
+        tableBlock.refresh();
+        assertChunkSizes(tableBlock);
+
+        editTable(loaded);
+        loaded.refresh();
+        Assert.assertArrayEquals(tableBlock.getBytes(), loaded.getBytes());
+
+        TableBlock reloaded = TableBlock.load(new ByteArrayInputStream(loaded.getBytes()));
+        reloaded.refresh();
+        Assert.assertArrayEquals(loaded.getBytes(), reloaded.getBytes());
+        Assert.assertEquals("edited-value-0 with a longer text", reloaded.getPackageBlockById(0x7f)
+                .getOrCreate("", "string", "name_0").getResValue().getValueAsString());
+    }
+
+    private static TableBlock createTable() {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.test");
+        String[] qualifiers = new String[]{"", "en", "fr-rCA", "night"};
+        for(int i = 0; i < 20; i++) {
+            for(String qualifier : qualifiers) {
+                packageBlock.getOrCreate(qualifier, "string", "name_" + i)
+                        .setValueAsString("value-" + i + qualifier);
+            }
+            packageBlock.getOrCreate("", "integer", "number_" + i).setValueAsRaw(ValueType.DEC, i);
+        }
+        return tableBlock;
+    }
+    // Changes leaf sizes only, none of them notifies the enclosing chunks
+    private static void editTable(TableBlock tableBlock) {
+        PackageBlock packageBlock = tableBlock.getPackageBlockById(0x7f);
+        packageBlock.getOrCreate("", "string", "name_0")
+                .setValueAsString("edited-value-0 with a longer text");
+        packageBlock.getOrCreate("en", "string", "name_3").setNull(true);
+        packageBlock.getOrCreate("night", "string", "name_25").setValueAsString("added");
+        packageBlock.getOrCreate("land", "integer", "number_2").setValueAsRaw(ValueType.DEC, 2);
+    }
+    private static void assertChunkSizes(TableBlock tableBlock) {
+        assertChunkSize(tableBlock);
+        assertChunkSize(tableBlock.getTableStringPool());
+        for(PackageBlock packageBlock : tableBlock) {
+            assertChunkSize(packageBlock);
+            assertChunkSize(packageBlock.getTypeStringPool());
+            assertChunkSize(packageBlock.getSpecStringPool());
+            for(SpecTypePair specTypePair : packageBlock.listSpecTypePairs()) {
+                assertChunkSize(specTypePair.getSpecBlock());
+                Iterator<TypeBlock> iterator = specTypePair.getTypeBlocks();
+                while (iterator.hasNext()) {
+                    assertChunkSize(iterator.next());
+                }
+            }
+        }
+    }
+    private static void assertChunkSize(Chunk<?> chunk) {
+        Assert.assertEquals(chunk.getClass().getSimpleName(),
+                chunk.getBytes().length, chunk.getHeaderBlock().getChunkSize());
+        Assert.assertEquals(chunk.getClass().getSimpleName(),
+                chunk.countBytes(), chunk.getHeaderBlock().getChunkSize());
+    }
+}
@@ -1,8 +1,10 @@
 package com.reandroid.arsc.chunk.xml;
 
+import android.content.res.XmlResourceParser;
 import com.reandroid.apk.AndroidFrameworks;
 import com.reandroid.apk.ApkModule;
 import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.io.BlockReader;
 import com.reandroid.arsc.model.ResourceLibrary;
 import com.reandroid.xml.XMLFactory;
 import org.junit.Assert;
@@ -13,6 +15,8 @@ import org.xmlpull.v1.XmlSerializer;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
 
 public class ResXmlDocumentTest {
     @Test
@@ -142,6 +146,110 @@ public class ResXmlDocumentTest {
         decoded = decoded.replaceAll("\\s+", "");
         Assert.assertEquals(org, decoded);
     }
+    @Test
+    public void testStreamParserEvents() throws XmlPullParserException, IOException {
+        Assert.assertEquals(10, compareStreamParserEvents(encodeXml(XML_STRING)));
+        Assert.assertEquals(11, compareStreamParserEvents(encodeXml(XML_STRING_TEXT)));
+    }
+    private static int compareStreamParserEvents(byte[] bytes) throws XmlPullParserException, IOException {
+        ResXmlDocument loaded = new ResXmlDocument();
+        loaded.readBytes(new BlockReader(bytes));
+
+        XmlResourceParser expected = new ResXmlPullParser(loaded);
+        XmlResourceParser parser = new ResXmlStreamParser(bytes);
+        // tree parser reports START_DOCUMENT on first next()
+        expected.next();
+        Assert.assertEquals(expected.getEventType(), parser.getEventType());
+        int events = 0;
+        int type;
+        do {
+            type = expected.next();
+            Assert.assertEquals("Event type", type, parser.next());
+            String description = parser.getPositionDescription();
+            Assert.assertEquals(description, expected.getDepth(), parser.getDepth());
+            if (type != XmlPullParser.END_DOCUMENT) {
+                Assert.assertEquals(description, expected.getLineNumber(), parser.getLineNumber());
+            }
+            Assert.assertEquals(description, expected.getName(), parser.getName());
+            Assert.assertEquals(description, expected.getNamespace(), parser.getNamespace());
+            Assert.assertEquals(description, expected.getPrefix(), parser.getPrefix());
+            Assert.assertEquals(description, expected.getText(), parser.getText());
+            if (type != XmlPullParser.START_TAG) {
+                events ++;
+                continue;
+            }
+            int count = expected.getAttributeCount();
+            Assert.assertEquals(description, count, parser.getAttributeCount());
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(description, expected.getAttributeName(i), parser.getAttributeName(i));
+                Assert.assertEquals(description, expected.getAttributeNamespace(i),
+                        parser.getAttributeNamespace(i));
+                Assert.assertEquals(description, expected.getAttributeNameResource(i),
+                        parser.getAttributeNameResource(i));
+                int reference = expected.getAttributeResourceValue(i, 0);
+                Assert.assertEquals(description, reference, parser.getAttributeResourceValue(i, 0));
+                if (reference == 0) {
+                    // references are decoded only with package block on tree parser
+                    Assert.assertEquals(description, expected.getAttributeValue(i),
+                            parser.getAttributeValue(i));
+                }
+            }
+            events ++;
+        } while (type != XmlPullParser.END_DOCUMENT);
+        return events;
+    }
+    @Test
+    public void testStreamParserMalformed() throws XmlPullParserException, IOException {
+        byte[] bytes = encodeXml(XML_STRING_TEXT);
+        for (int length = 0; length < bytes.length; length++) {
+            parseAll(Arrays.copyOf(bytes, length));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            byte[] corrupted = bytes.clone();
+            int changes = 1 + random.nextInt(4);
+            for (int j = 0; j < changes; j++) {
+                corrupted[random.nextInt(corrupted.length)] = (byte) random.nextInt();
+            }
+            parseAll(corrupted);
+        }
+    }
+    // Reads every event and attribute, malformed input must fail only by XmlPullParserException
+    private static void parseAll(byte[] bytes) throws IOException {
+        try {
+            ResXmlStreamParser parser = new ResXmlStreamParser(bytes);
+            int type;
+            do {
+                type = parser.next();
+                parser.getName();
+                parser.getNamespace();
+                parser.getPrefix();
+                parser.getText();
+                parser.getPositionDescription();
+                parser.isEmptyElementTag();
+                parser.getIdAttribute();
+                parser.getClassAttribute();
+                parser.getStyleAttribute();
+                int count = parser.getAttributeCount();
+                for (int i = 0; i < count; i++) {
+                    parser.getAttributeName(i);
+                    parser.getAttributeNamespace(i);
+                    parser.getAttributeValue(i);
+                    parser.getAttributeNameResource(i);
+                    parser.getAttributeIntValue(i, 0);
+                }
+                parser.getAttributeValue(ResourceLibrary.URI_ANDROID, "name");
+            } while (type != XmlPullParser.END_DOCUMENT);
+        } catch (XmlPullParserException ignored) {
+        }
+    }
+    private static byte[] encodeXml(String xml) throws XmlPullParserException, IOException {
+        ResXmlDocument document = new ResXmlDocument();
+        document.setApkFile(createEmptyApkModule());
+        document.parse(XMLFactory.newPullParser(xml));
+        document.refreshFull();
+        return document.getBytes();
+    }
     private static ApkModule createEmptyApkModule() throws IOException {
         ApkModule apkModule = new ApkModule();
         apkModule.setTableBlock(createEmptyTable());
@@ -175,4 +283,15 @@ public class ResXmlDocumentTest {
             "                   android:maxSdkVersion=\"28\" />\n" +
             "  <uses-permission android:name=\"android.permission.READ_EXTERNAL_STORAGE\" />\n" +
             "</manifest>";
+    private static final String XML_STRING_TEXT = "<?xml version='1.0' encoding='utf-8' ?>\n" +
+            "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\"\n" +
+            "          package=\"com.example.package\">\n" +
+            "  <application android:label=\"@android:string/ok\"\n" +
+            "               android:debuggable=\"true\"\n" +
+            "               android:name=\".App\">\n" +
+            "    <meta-data android:name=\"key\" android:value=\"1.5\"/>\n" +
+            "    <!--Comment Text2-->\n" +
+            "    <text-node>Text \u00e9 value</text-node>\n" +
+            "  </application>\n" +
+            "</manifest>";
 }
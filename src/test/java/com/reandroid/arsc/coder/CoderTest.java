@@ -1,5 +1,7 @@
 package com.reandroid.arsc.coder;
 
+import com.reandroid.arsc.value.AttributeDataFormat;
+import com.reandroid.arsc.value.ValueType;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -13,6 +15,155 @@ public class CoderTest {
             Assert.assertEquals(decoded, decoded2);
         }
     }
+    @Test
+    public void testEncodeFallback(){
+        // expected values are results of trying every coder in order, before text was lexed
+        assertEncode("1.5f", ValueType.FLOAT, 0x3fc00000);
+        assertEncode("1.5 ", ValueType.FLOAT, 0x3fc00000);
+        assertEncode("1.5\t", ValueType.FLOAT, 0x3fc00000);
+        assertEncode(" 1.5", null, 0);
+        assertEncode("-", null, 0);
+        assertEncode("0x", null, 0);
+        assertEncode("0X", null, 0);
+        assertEncode("0xg1", null, 0);
+        assertEncode("0x1g", null, 0);
+        assertEncode("10dpx", ValueType.DIMENSION, 0xa00);
+        assertEncode("10 dp", ValueType.DIMENSION, 0xa01);
+        assertEncode("10d", null, 0);
+        assertEncode("10dip", ValueType.DIMENSION, 0xa01);
+        assertEncode("1.5e3", ValueType.FLOAT, 0x44bb8000);
+        assertEncode("1e", null, 0);
+        assertEncode("1.", ValueType.FLOAT, 0x3f800000);
+        assertEncode("-.5", ValueType.FLOAT, 0xbf000000);
+        assertEncode(".5", null, 0);
+        assertEncode("3 items", null, 0);
+        assertEncode("1st", null, 0);
+        assertEncode("12abc", null, 0);
+        assertEncode("5%", ValueType.FRACTION, 0x6666630);
+        assertEncode("5%p", ValueType.FRACTION, 0x6666631);
+        assertEncode("5%x", null, 0);
+        assertEncode("-0", ValueType.DEC, 0x0);
+        assertEncode("00012", ValueType.DEC, 0xc);
+        assertEncode("2147483648", null, 0);
+        assertEncode("4294967295", null, 0);
+        assertEncode("4294967296", null, 0);
+        assertEncode("-2147483649", null, 0);
+        assertEncode("0x7fffffff", ValueType.HEX, 0x7fffffff);
+        assertEncode("0xffffffff", ValueType.HEX, 0xffffffff);
+        assertEncode("0x100000000", null, 0);
+        assertEncode("#fff", ValueType.COLOR_RGB4, 0xffffffff);
+        assertEncode("#ffg", null, 0);
+        assertEncode("#ffff", ValueType.COLOR_ARGB4, 0xffffffff);
+        assertEncode("#12345", null, 0);
+        assertEncode("#1234567", null, 0);
+        assertEncode("#12345678", ValueType.COLOR_ARGB8, 0x12345678);
+        assertEncode("#123456789", null, 0);
+        assertEncode("true ", null, 0);
+        assertEncode("True", null, 0);
+        assertEncode("falsey", null, 0);
+        assertEncode("@null ", null, 0);
+        assertEncode("@nul", null, 0);
+        assertEncode("@empty", ValueType.NULL, 0x1);
+        assertEncode("1.5.5", null, 0);
+        assertEncode("1..5", null, 0);
+        assertEncode("--1", null, 0);
+        assertEncode("+1", null, 0);
+        assertEncode("+1.5", null, 0);
+        assertEncode("NaN", null, 0);
+        assertEncode("Infinity", null, 0);
+        assertEncode("1e40", null, 0);
+        assertEncode("1.0E-50", ValueType.FLOAT, 0x0);
+        assertEncode("10.5sp", ValueType.DIMENSION, 0x5400022);
+        assertEncode("10.5SP", null, 0);
+        assertEncode("10px", ValueType.DIMENSION, 0xa00);
+        assertEncode("-10mm", ValueType.DIMENSION, 0xfffff605);
+        assertEncode("0.5in", ValueType.DIMENSION, 0x40000034);
+        assertEncode("100pt", ValueType.DIMENSION, 0x6403);
+    }
+    @Test
+    public void testEncodeExpectedTypes(){
+        assertEncodeTypes("1.5f", ValueType.FLOAT, 0x3fc00000, ValueType.FLOAT, 0x3fc00000);
+        assertEncodeTypes("1.5 ", ValueType.FLOAT, 0x3fc00000, ValueType.FLOAT, 0x3fc00000);
+        assertEncodeTypes("1.5\t", ValueType.FLOAT, 0x3fc00000, ValueType.FLOAT, 0x3fc00000);
+        assertEncodeTypes(" 1.5", null, 0, null, 0);
+        assertEncodeTypes("-", null, 0, null, 0);
+        assertEncodeTypes("0x", null, 0, null, 0);
+        assertEncodeTypes("0X", null, 0, null, 0);
+        assertEncodeTypes("0xg1", null, 0, null, 0);
+        assertEncodeTypes("0x1g", null, 0, null, 0);
+        assertEncodeTypes("10dpx", ValueType.DIMENSION, 0xa00, ValueType.DIMENSION, 0xa00);
+        assertEncodeTypes("10 dp", ValueType.DIMENSION, 0xa01, ValueType.DIMENSION, 0xa01);
+        assertEncodeTypes("10d", null, 0, null, 0);
+        assertEncodeTypes("10dip", ValueType.DIMENSION, 0xa01, ValueType.DIMENSION, 0xa01);
+        assertEncodeTypes("1.5e3", ValueType.FLOAT, 0x44bb8000, ValueType.FLOAT, 0x44bb8000);
+        assertEncodeTypes("1e", null, 0, null, 0);
+        assertEncodeTypes("1.", ValueType.FLOAT, 0x3f800000, ValueType.FLOAT, 0x3f800000);
+        assertEncodeTypes("-.5", ValueType.FLOAT, 0xbf000000, ValueType.FLOAT, 0xbf000000);
+        assertEncodeTypes(".5", null, 0, null, 0);
+        assertEncodeTypes("3 items", null, 0, null, 0);
+        assertEncodeTypes("1st", null, 0, null, 0);
+        assertEncodeTypes("12abc", null, 0, null, 0);
+        assertEncodeTypes("5%", null, 0, null, 0);
+        assertEncodeTypes("5%p", null, 0, null, 0);
+        assertEncodeTypes("5%x", null, 0, null, 0);
+        assertEncodeTypes("-0", ValueType.DEC, 0x0, ValueType.DEC, 0x0);
+        assertEncodeTypes("00012", ValueType.DEC, 0xc, ValueType.DEC, 0xc);
+        assertEncodeTypes("2147483648", null, 0, null, 0);
+        assertEncodeTypes("4294967295", null, 0, null, 0);
+        assertEncodeTypes("4294967296", null, 0, null, 0);
+        assertEncodeTypes("-2147483649", null, 0, null, 0);
+        assertEncodeTypes("0x7fffffff", null, 0, ValueType.HEX, 0x7fffffff);
+        assertEncodeTypes("0xffffffff", null, 0, ValueType.HEX, 0xffffffff);
+        assertEncodeTypes("0x100000000", null, 0, null, 0);
+        assertEncodeTypes("#fff", null, 0, ValueType.COLOR_RGB4, 0xffffffff);
+        assertEncodeTypes("#ffg", null, 0, null, 0);
+        assertEncodeTypes("#ffff", null, 0, ValueType.COLOR_ARGB4, 0xffffffff);
+        assertEncodeTypes("#12345", null, 0, null, 0);
+        assertEncodeTypes("#1234567", null, 0, null, 0);
+        assertEncodeTypes("#12345678", null, 0, ValueType.COLOR_ARGB8, 0x12345678);
+        assertEncodeTypes("#123456789", null, 0, null, 0);
+        assertEncodeTypes("true ", null, 0, null, 0);
+        assertEncodeTypes("True", null, 0, null, 0);
+        assertEncodeTypes("falsey", null, 0, null, 0);
+        assertEncodeTypes("@null ", null, 0, null, 0);
+        assertEncodeTypes("@nul", null, 0, null, 0);
+        assertEncodeTypes("@empty", null, 0, null, 0);
+        assertEncodeTypes("1.5.5", null, 0, null, 0);
+        assertEncodeTypes("1..5", null, 0, null, 0);
+        assertEncodeTypes("--1", null, 0, null, 0);
+        assertEncodeTypes("+1", null, 0, null, 0);
+        assertEncodeTypes("+1.5", null, 0, null, 0);
+        assertEncodeTypes("NaN", null, 0, null, 0);
+        assertEncodeTypes("Infinity", null, 0, null, 0);
+        assertEncodeTypes("1e40", null, 0, null, 0);
+        assertEncodeTypes("1.0E-50", ValueType.FLOAT, 0x0, ValueType.FLOAT, 0x0);
+        assertEncodeTypes("10.5sp", ValueType.DIMENSION, 0x5400022, ValueType.DIMENSION, 0x5400022);
+        assertEncodeTypes("10.5SP", null, 0, null, 0);
+        assertEncodeTypes("10px", ValueType.DIMENSION, 0xa00, ValueType.DIMENSION, 0xa00);
+        assertEncodeTypes("-10mm", ValueType.DIMENSION, 0xfffff605, ValueType.DIMENSION, 0xfffff605);
+        assertEncodeTypes("0.5in", ValueType.DIMENSION, 0x40000034, ValueType.DIMENSION, 0x40000034);
+        assertEncodeTypes("100pt", ValueType.DIMENSION, 0x6403, ValueType.DIMENSION, 0x6403);
+    }
+    private static void assertEncode(String text, ValueType valueType, int value){
+        assertResult(text, valueType, value, ValueCoder.encode(text));
+    }
+    private static void assertEncodeTypes(String text, ValueType byType, int byTypeValue,
+                                          ValueType byFormat, int byFormatValue){
+        assertResult(text, byType, byTypeValue, ValueCoder.encode(text,
+                ValueType.DEC, ValueType.FLOAT, ValueType.DIMENSION));
+        assertResult(text, byFormat, byFormatValue, ValueCoder.encode(text,
+                AttributeDataFormat.INTEGER, AttributeDataFormat.FLOAT,
+                AttributeDataFormat.DIMENSION, AttributeDataFormat.COLOR));
+    }
+    private static void assertResult(String text, ValueType valueType, int value, EncodeResult encodeResult){
+        if(valueType == null){
+            Assert.assertNull("Encoded: \"" + text + "\"", encodeResult);
+            return;
+        }
+        Assert.assertNotNull("Fail to encode: \"" + text + "\"", encodeResult);
+        Assert.assertEquals(text, valueType, encodeResult.valueType);
+        Assert.assertEquals(text, value, encodeResult.value);
+    }
     private static final String[] DECODED_VALUES = new String[]{
             "10.1dp",
             "-10.1dp",
@@ -0,0 +1,67 @@
+package com.reandroid.arsc.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+public class BlockReaderTest {
+
+    private static final byte[] BYTES = new byte[]{
+            1, 2, 3, 4, 5, (byte) 0xf6, (byte) 0xf7, (byte) 0xf8, (byte) 0x89
+    };
+
+    @Test
+    public void testReadPeeks() throws IOException {
+        BlockReader reader = new BlockReader(BYTES);
+        reader.seek(2);
+        Assert.assertEquals(0xf6050403, reader.readInteger());
+        Assert.assertEquals((short) 0x0403, reader.readShort());
+        Assert.assertEquals(0x0403, reader.readUnsignedShort());
+        Assert.assertEquals("Position moved", 2, reader.getPosition());
+
+        reader.seek(5);
+        Assert.assertEquals(0x89f8f7f6, reader.readInteger());
+        Assert.assertEquals((short) 0xf7f6, reader.readShort());
+        Assert.assertEquals(0xf7f6, reader.readUnsignedShort());
+
+        // bytes beyond the end are read as zero
+        reader.seek(7);
+        Assert.assertEquals(0x89f8, reader.readInteger());
+        reader.seek(8);
+        Assert.assertEquals(0x89, reader.readInteger());
+        Assert.assertEquals((short) 0x89, reader.readShort());
+
+        reader.seek(BYTES.length);
+        try {
+            reader.readInteger();
+            Assert.fail("Read beyond end");
+        } catch (EOFException ignored) {
+        }
+        try {
+            reader.readShort();
+            Assert.fail("Read beyond end");
+        } catch (EOFException ignored) {
+        }
+    }
+    @Test
+    public void testPositionalGets() throws IOException {
+        BlockReader reader = new BlockReader(BYTES);
+        Assert.assertEquals(0x04030201, reader.getInteger(0));
+        Assert.assertEquals((short) 0xf605, reader.getShort(4));
+        Assert.assertEquals(0xf605, reader.getShortUnsigned(4));
+        Assert.assertEquals((byte) 0x89, reader.getByte(8));
+        Assert.assertEquals(0x89, reader.getByteUnsigned(8));
+        Assert.assertEquals(0, reader.getByteUnsigned(9));
+        Assert.assertEquals(0, reader.getByteUnsigned(-1));
+        Assert.assertEquals(0, reader.getPosition());
+
+        // positions are relative to the start of a sub reader
+        reader.seek(2);
+        BlockReader subReader = reader.create(4);
+        Assert.assertEquals(0xf6050403, subReader.getInteger(0));
+        Assert.assertEquals(0xf60504, subReader.getInteger(1));
+        Assert.assertEquals(0xf6050403, subReader.readInteger());
+    }
+}
@@ -10,6 +10,8 @@ import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
@@ -190,6 +192,80 @@ public class TableStringPoolTest {
 
         Assert.assertSame("Styled string out of order \"item-1\"", item_1_styled, stringPool.get(0));
     }
+    @Test
+    public void lazyDecodeTest() throws IOException {
+        lazyDecodeTest(true);
+        lazyDecodeTest(false);
+    }
+    private void lazyDecodeTest(boolean utf8) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+        String[] values = new String[]{
+                "item-0",
+                "",
+                "caf\u00e9",
+                "\u4e2d\u6587",
+                "emoji \ud83d\ude00 end",
+                builder.toString()
+        };
+        TableBlock tableBlock = newTableBlock();
+        TableStringPool stringPool = tableBlock.getStringPool();
+        stringPool.setUtf8(utf8);
+        for (String value : values) {
+            stringPool.getOrCreate(value).addReference(StringPoolTestUtil.newFakeReference());
+        }
+        tableBlock.refresh();
+
+        TableBlock loaded = TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes()));
+        TableStringPool loadedPool = loaded.getStringPool();
+        Assert.assertEquals("Pool size", stringPool.size(), loadedPool.size());
+
+        int size = loadedPool.size();
+        for (int i = 0; i < size; i++) {
+            TableString tableString = loadedPool.get(i);
+            Assert.assertTrue("Decoded on load", tableString.isDecodePending());
+            // hash while still encoded must match hash of decoded value
+            int hash = tableString.hashXml();
+            Assert.assertEquals("Decoded value", stringPool.get(i).getXml(), tableString.getXml());
+            Assert.assertEquals("Hash of " + tableString.getXml(),
+                    tableString.getXml().hashCode(), hash);
+        }
+        for (String value : values) {
+            Iterator<TableString> iterator = loadedPool.getAll(value);
+            Assert.assertTrue("Missing \"" + value + "\"", iterator.hasNext());
+            Assert.assertEquals(value, iterator.next().get());
+        }
+
+        loaded = TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes()));
+        loadedPool = loaded.getStringPool();
+        TableString tableString = loadedPool.getAll("item-0").next();
+        tableString.set("item-0-changed");
+        Assert.assertFalse("Stale key", loadedPool.getAll("item-0").hasNext());
+        Assert.assertSame(tableString, loadedPool.getAll("item-0-changed").next());
+
+        // switch encoding of undecoded items, then back
+        loaded = TableBlock.load(new ByteArrayInputStream(tableBlock.getBytes()));
+        loadedPool = loaded.getStringPool();
+        Assert.assertTrue("Decoded on load", loadedPool.get(0).isDecodePending());
+        loadedPool.setUtf8(!utf8);
+        assertValues(stringPool, loadedPool);
+        loaded.refresh();
+        loaded = TableBlock.load(new ByteArrayInputStream(loaded.getBytes()));
+        loadedPool = loaded.getStringPool();
+        Assert.assertEquals(!utf8, loadedPool.isUtf8());
+        Assert.assertTrue("Decoded on load", loadedPool.get(0).isDecodePending());
+        loadedPool.setUtf8(utf8);
+        assertValues(stringPool, loadedPool);
+    }
+    private void assertValues(TableStringPool expected, TableStringPool stringPool) {
+        int size = expected.size();
+        Assert.assertEquals("Pool size", size, stringPool.size());
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(expected.get(i).get(), stringPool.get(i).get());
+        }
+    }
     public TableStringPool newStringPool() {
         return newTableBlock().getStringPool();
     }
@@ -1,5 +1,8 @@
 package com.reandroid.arsc.value;
 
+import com.reandroid.arsc.chunk.PackageBlock;
+import com.reandroid.arsc.chunk.TableBlock;
+import com.reandroid.arsc.model.ResourceResolver;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,6 +31,171 @@ public class ResConfigTest {
 
         }
     }
+    @Test
+    public void testMatch(){
+        assertMatch("", "en-rUS-xhdpi-v30", true);
+        assertMatch("-en", "en-rUS-xhdpi-v30", true);
+        // same script, regions need not match
+        assertMatch("-en-rGB", "en-rUS", true);
+        assertMatch("-zh-rTW", "zh-rCN", false);
+        assertMatch("-fr", "en-rUS", false);
+        assertMatch("-v26", "v24", false);
+        assertMatch("-v21", "v24", true);
+        assertMatch("-sw600dp", "sw480dp", false);
+        assertMatch("-sw600dp", "sw720dp", true);
+        assertMatch("-land", "port", false);
+        assertMatch("-night", "notnight", false);
+        assertMatch("-ldrtl", "ldrtl", true);
+        // density never excludes a config
+        assertMatch("-xxhdpi", "mdpi", true);
+    }
+    @Test
+    public void testIsBetterThan(){
+        assertBetter("-en", "", "en-rUS");
+        assertBetter("-en-rGB", "-en", "en-rGB");
+        // the language alone is an ancestor of en-AU but en-GB is not
+        assertBetter("-en", "-en-rGB", "en-rAU");
+        assertBetter("-fr-rCA", "-fr", "fr-rCA");
+        assertBetter("-es-rUS", "-es", "es-rMX");
+        assertBetter("-es", "-es-rUS", "es-rES");
+        assertBetter("-xhdpi", "-mdpi", "hdpi");
+        assertBetter("-mdpi", "-xhdpi", "ldpi");
+        assertBetter("-anydpi", "-xxhdpi", "xhdpi");
+        assertBetter("-v21", "", "v24");
+        assertBetter("-sw720dp", "-sw600dp", "sw800dp");
+        assertBetter("-night", "", "night");
+    }
+    @Test
+    public void testComputeLocaleScript(){
+        assertLocaleScript("zh-rTW", "Hant");
+        assertLocaleScript("zh-rCN", "Hans");
+        assertLocaleScript("sr-rRS", "Cyrl");
+        assertLocaleScript("en-rUS", "Latn");
+
+        ResConfig resConfig = ResConfig.parse("b+sr+Latn");
+        resConfig.computeLocaleScript();
+        Assert.assertEquals("Latn", resConfig.getLocaleScript());
+    }
+    @Test
+    public void testResourceResolver(){
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.test");
+        int string = addEntries(packageBlock, "string", "s", "", "en", "en-rGB", "fr", "fr-rCA",
+                "zh-rCN", "zh-rTW", "es", "es-rUS", "pt", "pt-rPT", "night", "de-night");
+        int drawable = addEntries(packageBlock, "drawable", "d", "mdpi", "xhdpi", "xxhdpi");
+        int anydpi = addEntries(packageBlock, "drawable", "d2", "mdpi", "xhdpi", "anydpi-v26");
+        int bool = addEntries(packageBlock, "bool", "v", "", "v21", "v26", "sw600dp", "sw720dp",
+                "land", "ldrtl");
+
+        assertResolved(tableBlock, string, "en-rUS", "en");
+        assertResolved(tableBlock, string, "en-rGB", "en-rGB");
+        assertResolved(tableBlock, string, "en-rAU", "en");
+        assertResolved(tableBlock, string, "fr-rCA", "fr-rCA");
+        assertResolved(tableBlock, string, "fr-rBE", "fr");
+        assertResolved(tableBlock, string, "zh-rTW", "zh-rTW");
+        assertResolved(tableBlock, string, "zh-rCN", "zh-rCN");
+        assertResolved(tableBlock, string, "zh-rSG", "zh-rCN");
+        assertResolved(tableBlock, string, "es-rMX", "es-rUS");
+        assertResolved(tableBlock, string, "es-rES", "es");
+        assertResolved(tableBlock, string, "pt-rBR", "pt");
+        assertResolved(tableBlock, string, "ja-rJP", "(default)");
+        assertResolved(tableBlock, string, "ja-rJP-night", "night");
+        assertResolved(tableBlock, string, "fr-night", "fr");
+        assertResolved(tableBlock, string, "de-rDE-night", "de-night");
+        assertResolved(tableBlock, drawable, "hdpi", "xhdpi");
+        assertResolved(tableBlock, drawable, "ldpi", "mdpi");
+        assertResolved(tableBlock, drawable, "xxxhdpi", "xxhdpi");
+        assertResolved(tableBlock, drawable, "", "mdpi");
+        assertResolved(tableBlock, anydpi, "xhdpi-v24", "xhdpi");
+        assertResolved(tableBlock, anydpi, "xhdpi-v26", "anydpi-v26");
+        assertResolved(tableBlock, bool, "v24", "v21");
+        assertResolved(tableBlock, bool, "v19", "(default)");
+        assertResolved(tableBlock, bool, "sw650dp-v30", "sw600dp");
+        assertResolved(tableBlock, bool, "sw800dp-v30", "sw720dp");
+        assertResolved(tableBlock, bool, "land-v30", "land");
+        assertResolved(tableBlock, bool, "ldrtl-land-v30", "ldrtl");
+        assertResolved(tableBlock, bool, "sw700dp-land-v30", "sw600dp");
+
+        Entry reference = packageBlock.getOrCreate("", "string", "ref");
+        reference.setValueAsReference(string);
+        Entry reference2 = packageBlock.getOrCreate("", "string", "ref2");
+        reference2.setValueAsReference(reference.getResourceId());
+        Entry loop = packageBlock.getOrCreate("", "string", "loop");
+        loop.setValueAsReference(loop.getResourceId());
+
+        ResourceResolver resolver = new ResourceResolver(tableBlock, ResConfig.parse("fr-rCA"));
+        Assert.assertEquals("fr-rCA", resolver.resolve(reference2.getResourceId())
+                .getResValue().getValueAsString());
+        Assert.assertSame(loop, resolver.resolve(loop.getResourceId()));
+        Assert.assertNull(resolver.getEntry(0x7f7f0000));
+    }
+    @Test
+    public void testResourceResolverConcurrent() throws InterruptedException {
+        TableBlock tableBlock = new TableBlock();
+        PackageBlock packageBlock = tableBlock.newPackage(0x7f, "com.test");
+        int[] resourceIds = new int[64];
+        for(int i = 0; i < resourceIds.length; i++){
+            resourceIds[i] = addEntries(packageBlock, "string", "s" + i, "", "fr", "fr-rCA", "de");
+        }
+        final ResourceResolver resolver = new ResourceResolver(tableBlock, ResConfig.parse("fr-rBE"));
+        final Entry[][] results = new Entry[8][resourceIds.length];
+        Thread[] threads = new Thread[results.length];
+        for(int i = 0; i < threads.length; i++){
+            final Entry[] result = results[i];
+            threads[i] = new Thread(() -> {
+                for(int j = 0; j < resourceIds.length; j++){
+                    result[j] = resolver.getEntry(resourceIds[j]);
+                }
+            });
+            threads[i].start();
+        }
+        for(Thread thread : threads){
+            thread.join();
+        }
+        for(Entry[] result : results){
+            for(int j = 0; j < resourceIds.length; j++){
+                Assert.assertNotNull(result[j]);
+                Assert.assertEquals("fr", result[j].getResValue().getValueAsString());
+                Assert.assertSame(results[0][j], result[j]);
+            }
+        }
+    }
+
+    private static void assertMatch(String qualifiers, String device, boolean expected){
+        ResConfig resConfig = ResConfig.parse(qualifiers);
+        ResConfig settings = ResConfig.parse(device);
+        settings.computeLocaleScript();
+        Assert.assertEquals("'" + qualifiers + "' on '" + device + "'",
+                expected, resConfig.match(settings));
+    }
+    private static void assertBetter(String better, String other, String device){
+        ResConfig betterConfig = ResConfig.parse(better);
+        ResConfig otherConfig = ResConfig.parse(other);
+        ResConfig requested = ResConfig.parse(device);
+        requested.computeLocaleScript();
+        String message = "'" + better + "' vs '" + other + "' on '" + device + "'";
+        Assert.assertTrue(message, betterConfig.isBetterThan(otherConfig, requested));
+        Assert.assertFalse(message, otherConfig.isBetterThan(betterConfig, requested));
+    }
+    private static void assertLocaleScript(String device, String expected){
+        ResConfig resConfig = ResConfig.parse(device);
+        resConfig.computeLocaleScript();
+        Assert.assertEquals(device, expected, resConfig.getLocaleScript());
+    }
+    private static int addEntries(PackageBlock packageBlock, String type, String name, String ... qualifiers){
+        Entry entry = null;
+        for(String qualifier : qualifiers){
+            entry = packageBlock.getOrCreate(qualifier, type, name);
+            entry.setValueAsString(qualifier.length() == 0 ? "(default)" : qualifier);
+        }
+        return entry.getResourceId();
+    }
+    private static void assertResolved(TableBlock tableBlock, int resourceId, String device, String expected){
+        ResourceResolver resolver = new ResourceResolver(tableBlock, ResConfig.parse(device));
+        Entry entry = resolver.getEntry(resourceId);
+        Assert.assertNotNull(device, entry);
+        Assert.assertEquals(device, expected, entry.getResValue().getValueAsString());
+    }
 
     private static final String[] QUALIFIERS = new String[]{
             "",
@@ -0,0 +1,391 @@
+package com.reandroid.dex;
+
+import com.reandroid.TestUtils;
+import com.reandroid.arsc.io.BlockReader;
+import com.reandroid.arsc.item.IntegerReference;
+import com.reandroid.dex.base.UsageMarker;
+import com.reandroid.dex.id.ClassId;
+import com.reandroid.dex.id.StringId;
+import com.reandroid.dex.ins.Ins;
+import com.reandroid.dex.ins.InsBlockList;
+import com.reandroid.dex.key.StringKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexDirectory;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.model.DexMethod;
+import com.reandroid.dex.model.DexVisitor;
+import com.reandroid.dex.sections.Section;
+import com.reandroid.dex.sections.SectionList;
+import com.reandroid.dex.sections.SectionType;
+import com.reandroid.dex.smali.SmaliReader;
+import com.reandroid.dex.smali.SmaliWriter;
+import com.reandroid.utils.io.FileIterator;
+import com.reandroid.utils.io.FileUtil;
+import com.reandroid.utils.io.IOUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Adler32;
+
+public class DexFileTest {
+
+    @Test
+    public void testRefreshAndGetBytes() throws IOException {
+        DexFile dexFile = createDexFile();
+        dexFile.getOrCreateFirst().getOrCreateClass(TypeKey.parse("com.test.Extra"));
+
+        byte[] bytes = dexFile.refreshAndGetBytes();
+        assertChecksumAndSignature(bytes);
+        Assert.assertArrayEquals("Header not updated", bytes, dexFile.getBytes());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        dexFile.write(outputStream);
+        Assert.assertArrayEquals("Written bytes", bytes, outputStream.toByteArray());
+
+        DexFile loaded = DexFile.read(bytes);
+        loaded.refresh();
+        byte[] refreshed = loaded.getBytes();
+        assertChecksumAndSignature(refreshed);
+        Assert.assertArrayEquals("Plain refresh", bytes, refreshed);
+    }
+
+    @Test
+    public void testBranchTargetsAfterLayout() throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        DexClass dexClass = dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(branchesSmali()));
+        dexFile.refresh();
+        String smali = dexClass.toSmali();
+
+        DexFile loaded = DexFile.read(dexFile.getBytes());
+        DexClass loadedClass = loaded.getDexClass(dexClass.getKey());
+        Assert.assertEquals(smali, loadedClass.toSmali());
+        // goto over 200 code units is widened while updating targets
+        Assert.assertTrue(smali, smali.contains("goto/16 :goto_d5"));
+        Assert.assertTrue(smali, smali.contains("goto :goto_1"));
+        Assert.assertTrue(smali, smali.contains(":pswitch_8"));
+
+        // shift every address by one code unit
+        DexMethod dexMethod = loadedClass.getDeclaredMethods().next();
+        dexMethod.parseInstruction(0, SmaliReader.of("const/4 v1, 0x0"));
+        loaded.refresh();
+        smali = loadedClass.toSmali();
+        Assert.assertEquals(smali, DexFile.read(loaded.getBytes())
+                .getDexClass(dexClass.getKey()).toSmali());
+        Assert.assertTrue(smali, smali.contains("goto/16 :goto_d6"));
+        Assert.assertTrue(smali, smali.contains("goto :goto_2"));
+        Assert.assertTrue(smali, smali.contains(":pswitch_9"));
+    }
+
+    @Test
+    public void testLazyInstructionsSameAsEager() throws IOException {
+        DexFile dexFile = createDexFile();
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(branchesSmali()));
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(referencesSmali()));
+        byte[] bytes = dexFile.refreshAndGetBytes();
+
+        DexFile eager = readDexFile(bytes, false);
+        DexFile lazy = readDexFile(bytes, true);
+        Assert.assertTrue(lazy.isLazyInstructions());
+        TypeKey typeKey = TypeKey.parse("com.test.References");
+        Assert.assertTrue("Not read lazily", isLazy(lazy.getDexClass(typeKey)));
+
+        renameInstructionStrings(eager);
+        renameInstructionStrings(lazy);
+        eager.clearUnused();
+        lazy.clearUnused();
+        eager.refresh();
+        lazy.refresh();
+        Assert.assertTrue("Decoded on refresh", isLazy(lazy.getDexClass(typeKey)));
+        byte[] expected = eager.getBytes();
+        Assert.assertArrayEquals(expected, lazy.getBytes());
+
+        String smali = eager.getDexClass(typeKey).toSmali();
+        Assert.assertTrue(smali, smali.contains("const-string v0, \"renamed-hello\""));
+        Assert.assertEquals(smali, lazy.getDexClass(typeKey).toSmali());
+        Assert.assertEquals(smali, DexFile.read(expected).getDexClass(typeKey).toSmali());
+    }
+
+    @Test
+    public void testVisitorSameAsIterators() throws IOException {
+        DexFile dexFile = createDexFile();
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(branchesSmali()));
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(referencesSmali()));
+        dexFile.refresh();
+
+        Set<IntegerReference> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        Iterator<IntegerReference> iterator = dexFile.visitIntegers();
+        while (iterator.hasNext()) {
+            expected.add(iterator.next());
+        }
+        Set<IntegerReference> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        int[] instructions = new int[1];
+        dexFile.accept(new DexVisitor() {
+            @Override
+            public boolean visitClass(ClassId classId) {
+                return false;
+            }
+            @Override
+            public void visitInstruction(Ins ins) {
+                instructions[0] ++;
+            }
+            @Override
+            public void visitInteger(IntegerReference reference) {
+                Assert.assertTrue("Visited twice " + reference, visited.add(reference));
+            }
+        });
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, visited);
+
+        int count = 0;
+        Iterator<DexClass> classes = dexFile.getDexClasses();
+        while (classes.hasNext()) {
+            Iterator<DexMethod> methods = classes.next().getDeclaredMethods();
+            while (methods.hasNext()) {
+                count += methods.next().getDefinition().getInstructionList().getCount();
+            }
+        }
+        Assert.assertEquals(count, instructions[0]);
+    }
+
+    @Test
+    public void testDistributeClasses() throws IOException {
+        DexDirectory dexDirectory = new DexDirectory();
+        DexFile dexFile = dexDirectory.createDefault();
+        Map<TypeKey, String> expected = new HashMap<>();
+        for (int i = 0; i < 25; i++) {
+            DexClass dexClass = dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(numberedSmali(i)));
+            expected.put(dexClass.getKey(), dexClass.toSmali());
+        }
+        Assert.assertEquals("Moved classes", 15, dexDirectory.distributeClasses(10));
+        Assert.assertEquals(3, dexDirectory.size());
+        Assert.assertEquals(expected.size(), dexDirectory.getDexClassesCount());
+        // leading classes stay in the first dex
+        Assert.assertNotNull(dexFile.getDexClass(TypeKey.parse("com.test.Numbered0")));
+        for (int i = 0; i < dexDirectory.size(); i++) {
+            DexFile file = dexDirectory.get(i);
+            int count = file.getDexClassesCount();
+            Assert.assertTrue("Classes count = " + count, count > 0 && count <= 10);
+            file.refresh();
+            DexFile loaded = DexFile.read(file.getBytes());
+            Iterator<DexClass> iterator = loaded.getDexClasses();
+            while (iterator.hasNext()) {
+                DexClass dexClass = iterator.next();
+                Assert.assertEquals(expected.remove(dexClass.getKey()), dexClass.toSmali());
+            }
+        }
+        Assert.assertTrue("Missing classes " + expected.keySet(), expected.isEmpty());
+    }
+
+    @Test
+    public void testParallelSmaliParse() throws IOException {
+        DexFile dexFile = createSmaliDexFile();
+        File dir = new File(TestUtils.getTempDir(), "smali_parse");
+        FileUtil.deleteDirectory(dir);
+        dexFile.writeSmali(new SmaliWriter(), dir);
+
+        DexFile sequential = DexFile.createDefault();
+        sequential.parseSmaliDirectory(dir, 1);
+        sequential.refresh();
+        DexFile parallel = DexFile.createDefault();
+        parallel.parseSmaliDirectory(dir, 4);
+        parallel.refresh();
+        Assert.assertEquals(dexFile.getDexClassesCount(), parallel.getDexClassesCount());
+        Assert.assertArrayEquals(sequential.getBytes(), parallel.getBytes());
+    }
+
+    @Test
+    public void testParallelSmaliWrite() throws IOException {
+        DexFile dexFile = createSmaliDexFile();
+        int total = dexFile.getDexClassesCount();
+        File dir = TestUtils.getTempDir();
+        File sequential = new File(dir, "smali_sequential");
+        File parallel = new File(dir, "smali_parallel");
+        FileUtil.deleteDirectory(sequential);
+        FileUtil.deleteDirectory(parallel);
+
+        dexFile.writeSmali(new SmaliWriter(), sequential, 1, null);
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger lastCount = new AtomicInteger();
+        // progress is reported from worker threads, checked after writing
+        dexFile.writeSmali(new SmaliWriter(), parallel, 4, (typeKey, count, all, elapsed) -> {
+            if (all == total) {
+                written.incrementAndGet();
+            }
+            lastCount.set(count);
+        });
+        Assert.assertEquals(total, written.get());
+        Assert.assertEquals(total, lastCount.get());
+
+        int files = 0;
+        FileIterator iterator = new FileIterator(sequential);
+        while (iterator.hasNext()) {
+            File file = iterator.next();
+            String path = file.getAbsolutePath().substring(sequential.getAbsolutePath().length());
+            Assert.assertArrayEquals(path, IOUtil.readFully(file),
+                    IOUtil.readFully(new File(parallel, path)));
+            files ++;
+        }
+        Assert.assertTrue("Files = " + files, files >= total);
+        Assert.assertEquals(files, countFiles(parallel));
+    }
+
+    private static int countFiles(File dir) {
+        int count = 0;
+        FileIterator iterator = new FileIterator(dir);
+        while (iterator.hasNext()) {
+            iterator.next();
+            count ++;
+        }
+        return count;
+    }
+    // Renames strings used by instructions and adds strings sorting first, thus every
+    // string index referenced by instructions changes
+    private static void renameInstructionStrings(DexFile dexFile) {
+        SectionList sectionList = dexFile.getContainerBlock().get(0).getSectionList();
+        Section<StringId> section = sectionList.getSection(SectionType.STRING_ID);
+        for (StringId stringId : section) {
+            if (stringId.containsUsage(UsageMarker.USAGE_INSTRUCTION)
+                    && stringId.getString().startsWith("hello")) {
+                stringId.setString("renamed-" + stringId.getString());
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            section.getOrCreate(StringKey.create("\u0001first" + i));
+        }
+    }
+    private static DexFile readDexFile(byte[] bytes, boolean lazy) throws IOException {
+        DexFile dexFile = DexFile.createNew();
+        dexFile.setLazyInstructions(lazy);
+        dexFile.readBytes(new BlockReader(bytes));
+        return dexFile;
+    }
+    private static boolean isLazy(DexClass dexClass) {
+        Iterator<DexMethod> iterator = dexClass.getDeclaredMethods();
+        while (iterator.hasNext()) {
+            DexMethod dexMethod = iterator.next();
+            InsBlockList insBlockList = (InsBlockList) dexMethod.getDefinition()
+                    .getInstructionList().getChildes()[0];
+            if (!insBlockList.isLazy()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    static DexFile createSmaliDexFile() throws IOException {
+        DexFile dexFile = createDexFile();
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(branchesSmali()));
+        dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(referencesSmali()));
+        for (int i = 0; i < 40; i++) {
+            dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(numberedSmali(i)));
+        }
+        dexFile.refresh();
+        return dexFile;
+    }
+    static String numberedSmali(int number) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(".class public Lcom/test/Numbered").append(number).append(";\n");
+        builder.append(".super Ljava/lang/Object;\n");
+        builder.append(".field public static sField").append(number).append(":I\n");
+        builder.append(".method public static run()Ljava/lang/String;\n");
+        builder.append("    .registers 2\n");
+        builder.append("    const-string v0, \"string-").append(number).append("\"\n");
+        builder.append("    sget v1, Lcom/test/Numbered").append(number).append(";->sField")
+                .append(number).append(":I\n");
+        builder.append("    return-object v0\n");
+        builder.append(".end method\n");
+        return builder.toString();
+    }
+    static String referencesSmali() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(".class public Lcom/test/References;\n");
+        builder.append(".super Ljava/lang/Object;\n");
+        builder.append(".field public static sField:Ljava/lang/String;\n");
+        builder.append(".method public static run(Ljava/lang/Object;)Ljava/lang/String;\n");
+        builder.append("    .registers 8\n");
+        builder.append("    const-string v0, \"hello\"\n");
+        builder.append("    const-string/jumbo v1, \"hello-jumbo\"\n");
+        builder.append("    const-string v2, \"unchanged\"\n");
+        builder.append("    sput-object v0, Lcom/test/References;->sField:Ljava/lang/String;\n");
+        builder.append("    const-class v3, Ljava/lang/StringBuilder;\n");
+        builder.append("    new-instance v3, Ljava/lang/StringBuilder;\n");
+        builder.append("    invoke-direct {v3}, Ljava/lang/StringBuilder;-><init>()V\n");
+        builder.append("    invoke-virtual {v3, v0}, Ljava/lang/StringBuilder;->append(Ljava/lang/String;)Ljava/lang/StringBuilder;\n");
+        builder.append("    invoke-virtual/range {v3 .. v3}, Ljava/lang/StringBuilder;->toString()Ljava/lang/String;\n");
+        builder.append("    move-result-object v4\n");
+        builder.append("    instance-of v5, p0, Ljava/lang/String;\n");
+        builder.append("    sget-object v6, Lcom/test/References;->sField:Ljava/lang/String;\n");
+        builder.append("    return-object v4\n");
+        builder.append(".end method\n");
+        return builder.toString();
+    }
+    static String branchesSmali() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(".class public Lcom/test/Branches;\n");
+        builder.append(".super Ljava/lang/Object;\n");
+        builder.append(".method public static run(I)I\n");
+        builder.append("    .registers 3\n");
+        builder.append("    const/4 v0, 0x0\n");
+        builder.append("    :try_start_0\n");
+        builder.append("    :loop\n");
+        builder.append("    if-eqz p0, :end\n");
+        builder.append("    packed-switch p0, :pswitch_data\n");
+        builder.append("    goto :far\n");
+        builder.append("    :pswitch_0\n");
+        builder.append("    add-int/lit8 v0, v0, 0x1\n");
+        builder.append("    :pswitch_1\n");
+        builder.append("    add-int/lit8 p0, p0, -0x1\n");
+        builder.append("    goto :loop\n");
+        for (int i = 0; i < 200; i++) {
+            builder.append("    const/4 v1, 0x").append(i & 7).append('\n');
+        }
+        builder.append("    :far\n");
+        builder.append("    add-int/lit8 p0, p0, -0x1\n");
+        builder.append("    goto :loop\n");
+        builder.append("    :try_end_0\n");
+        builder.append("    .catch Ljava/lang/Exception; {:try_start_0 .. :try_end_0} :catch_0\n");
+        builder.append("    :end\n");
+        builder.append("    return v0\n");
+        builder.append("    :catch_0\n");
+        builder.append("    move-exception v1\n");
+        builder.append("    return v0\n");
+        builder.append("    :pswitch_data\n");
+        builder.append("    .packed-switch 0x1\n");
+        builder.append("        :pswitch_0\n");
+        builder.append("        :pswitch_1\n");
+        builder.append("    .end packed-switch\n");
+        builder.append(".end method\n");
+        return builder.toString();
+    }
+    static DexFile createDexFile() throws IOException {
+        return SampleDexFileCreator.createApplicationClass("com.test.App",
+                "com.test.Main", 0x7f010000);
+    }
+    static void assertChecksumAndSignature(byte[] bytes) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(bytes, 12, bytes.length - 12);
+        int checksum = (bytes[8] & 0xff) | (bytes[9] & 0xff) << 8
+                | (bytes[10] & 0xff) << 16 | (bytes[11] & 0xff) << 24;
+        Assert.assertEquals("Checksum", (int) adler32.getValue(), checksum);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(bytes, 32, bytes.length - 32);
+            Assert.assertArrayEquals("Signature", digest.digest(), Arrays.copyOfRange(bytes, 12, 32));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+}
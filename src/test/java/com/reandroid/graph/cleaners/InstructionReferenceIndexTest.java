@@ -0,0 +1,77 @@
+package com.reandroid.graph.cleaners;
+
+import com.reandroid.dex.key.FieldKey;
+import com.reandroid.dex.key.MethodKey;
+import com.reandroid.dex.key.TypeKey;
+import com.reandroid.dex.model.DexClass;
+import com.reandroid.dex.model.DexFile;
+import com.reandroid.dex.smali.SmaliReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class InstructionReferenceIndexTest {
+
+    @Test
+    public void testReferenceCounts() throws IOException {
+        DexFile dexFile = DexFile.createDefault();
+        DexClass dexClass = dexFile.getOrCreateFirst().fromSmali(SmaliReader.of(SMALI));
+        MethodKey first = MethodKey.parse("Lcom/test/Caller;->first()V");
+        MethodKey second = MethodKey.parse("Lcom/test/Caller;->second()V");
+        MethodKey target = MethodKey.parse("Lcom/test/Caller;->target()V");
+        MethodKey once = MethodKey.parse("Lcom/test/Caller;->once()V");
+        FieldKey field = FieldKey.parse("Lcom/test/Caller;->value:I");
+        TypeKey typeKey = TypeKey.parse("com.test.Caller");
+
+        InstructionReferenceIndex referenceIndex = new InstructionReferenceIndex(dexFile);
+        // not loaded yet, nothing to subtract
+        referenceIndex.removeReferences(dexClass.getDeclaredMethod(second));
+
+        Assert.assertTrue(referenceIndex.isReferenced(target));
+        Assert.assertTrue(referenceIndex.isReferenced(once));
+        Assert.assertTrue(referenceIndex.isReferenced(field));
+        Assert.assertFalse(referenceIndex.isReferenced(first));
+        Assert.assertFalse(referenceIndex.isReferenced(FieldKey.parse("Lcom/test/Caller;->other:I")));
+        Assert.assertTrue(referenceIndex.containsString(typeKey, "value"));
+        Assert.assertFalse(referenceIndex.containsString(typeKey, "missing"));
+        Assert.assertFalse(referenceIndex.containsString(TypeKey.parse("com.test.Other"), "value"));
+
+        referenceIndex.removeReferences(dexClass.getDeclaredMethod(second));
+        Assert.assertTrue("Still called from first()", referenceIndex.isReferenced(target));
+        Assert.assertFalse(referenceIndex.isReferenced(once));
+        Assert.assertTrue(referenceIndex.isReferenced(field));
+
+        referenceIndex.removeReferences(dexClass.getDeclaredMethod(first));
+        Assert.assertFalse(referenceIndex.isReferenced(target));
+        Assert.assertFalse(referenceIndex.isReferenced(field));
+        // const-strings are kept as collected
+        Assert.assertTrue(referenceIndex.containsString(typeKey, "value"));
+    }
+
+    private static final String SMALI = "" +
+            ".class public Lcom/test/Caller;\n" +
+            ".super Ljava/lang/Object;\n" +
+            ".field public static value:I\n" +
+            ".method public static first()V\n" +
+            "    .registers 1\n" +
+            "    invoke-static {}, Lcom/test/Caller;->target()V\n" +
+            "    sget v0, Lcom/test/Caller;->value:I\n" +
+            "    const-string v0, \"value\"\n" +
+            "    return-void\n" +
+            ".end method\n" +
+            ".method public static second()V\n" +
+            "    .registers 0\n" +
+            "    invoke-static {}, Lcom/test/Caller;->target()V\n" +
+            "    invoke-static {}, Lcom/test/Caller;->once()V\n" +
+            "    return-void\n" +
+            ".end method\n" +
+            ".method public static target()V\n" +
+            "    .registers 0\n" +
+            "    return-void\n" +
+            ".end method\n" +
+            ".method public static once()V\n" +
+            "    .registers 0\n" +
+            "    return-void\n" +
+            ".end method\n";
+}
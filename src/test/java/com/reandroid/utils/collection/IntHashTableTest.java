@@ -0,0 +1,127 @@
+package com.reandroid.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class IntHashTableTest {
+
+    @Test
+    public void testIntIntMap() {
+        IntIntMap intMap = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(24);
+        for(int step = 0; step < 50000; step++) {
+            int key = nextKey(random);
+            String message = "step = " + step + ", key = " + key;
+            int op = random.nextInt(4);
+            if(op < 2) {
+                int value = random.nextInt();
+                intMap.put(key, value);
+                expected.put(key, value);
+            }else if(op == 2) {
+                Assert.assertEquals(message, expected.remove(key) != null, intMap.remove(key));
+            }else {
+                Integer value = expected.get(key);
+                Assert.assertEquals(message, value != null, intMap.containsKey(key));
+                Assert.assertEquals(message, value == null ? -1 : value, intMap.get(key, -1));
+            }
+            Assert.assertEquals(message, expected.size(), intMap.size());
+        }
+        assertKeys(expected.keySet(), intMap);
+        for(Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Assert.assertEquals((int) entry.getValue(), intMap.get(entry.getKey(), -1));
+        }
+        intMap.clear();
+        Assert.assertTrue(intMap.isEmpty());
+        Assert.assertFalse(intMap.containsKey(0));
+    }
+    @Test
+    public void testIntObjectMap() {
+        IntObjectMap<String> intMap = new IntObjectMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(24);
+        for(int step = 0; step < 50000; step++) {
+            int key = nextKey(random);
+            String message = "step = " + step + ", key = " + key;
+            int op = random.nextInt(4);
+            if(op < 2) {
+                String value = "value-" + random.nextInt(100);
+                Assert.assertEquals(message, expected.put(key, value), intMap.put(key, value));
+            }else if(op == 2) {
+                Assert.assertEquals(message, expected.remove(key), intMap.remove(key));
+            }else {
+                Assert.assertEquals(message, expected.containsKey(key), intMap.containsKey(key));
+                Assert.assertEquals(message, expected.get(key), intMap.get(key));
+            }
+            Assert.assertEquals(message, expected.size(), intMap.size());
+        }
+        assertKeys(expected.keySet(), intMap);
+        List<String> values = new ArrayList<>();
+        Iterator<String> iterator = intMap.iterator();
+        while (iterator.hasNext()) {
+            values.add(iterator.next());
+        }
+        List<String> expectedValues = new ArrayList<>(expected.values());
+        values.sort(null);
+        expectedValues.sort(null);
+        Assert.assertEquals(expectedValues, values);
+    }
+    @Test
+    public void testIntSet() {
+        IntSet intSet = new IntSet(4);
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(24);
+        for(int step = 0; step < 50000; step++) {
+            int value = nextKey(random);
+            String message = "step = " + step + ", value = " + value;
+            int op = random.nextInt(3);
+            if(op == 0) {
+                Assert.assertEquals(message, expected.add(value), intSet.add(value));
+            }else if(op == 1) {
+                Assert.assertEquals(message, expected.remove(value), intSet.remove(value));
+            }else {
+                Assert.assertEquals(message, expected.contains(value), intSet.contains(value));
+            }
+            Assert.assertEquals(message, expected.size(), intSet.size());
+        }
+        assertKeys(expected, intSet);
+    }
+
+    // Mostly resource ids sharing the low bits plus zero and extreme values, thus probe
+    // chains get long and removals shift entries back
+    private static int nextKey(Random random) {
+        int i = random.nextInt(10);
+        if(i == 0) {
+            return 0;
+        }
+        if(i == 1) {
+            return random.nextBoolean() ? Integer.MIN_VALUE : -1;
+        }
+        if(i == 2) {
+            return random.nextInt(64) << 16;
+        }
+        return 0x7f010000 | (random.nextInt(512) << 4);
+    }
+    private static void assertKeys(Set<Integer> expected, IntHashTable hashTable) {
+        int[] keys = hashTable.keys();
+        Assert.assertEquals(expected.size(), keys.length);
+        int[] expectedKeys = new int[expected.size()];
+        int i = 0;
+        for(int key : expected) {
+            expectedKeys[i++] = key;
+        }
+        Arrays.sort(keys);
+        Arrays.sort(expectedKeys);
+        Assert.assertArrayEquals(expectedKeys, keys);
+    }
+}
@@ -0,0 +1,133 @@
+package com.reandroid.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class MultiMapTest {
+
+    @Test
+    public void testConcurrentReadsSameAsLocking() {
+        MultiMap<Integer, String> locking = new MultiMap<>();
+        MultiMap<Integer, String> concurrent = new MultiMap<>();
+        concurrent.setConcurrentReads(true);
+        Assert.assertTrue(concurrent.isConcurrentReads());
+
+        String[] values = new String[48];
+        for(int i = 0; i < values.length; i++) {
+            values[i] = "value-" + i;
+        }
+        Random random = new Random(20);
+        for(int step = 0; step < 20000; step++) {
+            Integer key = random.nextInt(16);
+            String value = values[random.nextInt(values.length)];
+            int op = random.nextInt(7);
+            String message = "step = " + step + ", op = " + op + ", key = " + key;
+            switch (op) {
+                case 0:
+                case 1:
+                    locking.put(key, value);
+                    concurrent.put(key, value);
+                    break;
+                case 2:
+                    Assert.assertSame(message, locking.remove(key, value),
+                            concurrent.remove(key, value));
+                    break;
+                case 3:
+                    Assert.assertSame(message, locking.removeIf(key, value::equals),
+                            concurrent.removeIf(key, value::equals));
+                    break;
+                case 4:
+                    Integer update = random.nextInt(16);
+                    Assert.assertEquals(message, locking.updateKey(key, update, value),
+                            concurrent.updateKey(key, update, value));
+                    break;
+                case 5:
+                    if(random.nextInt(20) == 0) {
+                        // removed raw value could be an entry list copy, compare presence only
+                        Assert.assertEquals(message, locking.remove(key) == null,
+                                concurrent.remove(key) == null);
+                    }
+                    break;
+                default:
+                    Assert.assertSame(message, locking.get(key, value::equals),
+                            concurrent.get(key, value::equals));
+                    Assert.assertEquals(message, locking.containsValue(key, value::equals),
+                            concurrent.containsValue(key, value::equals));
+                    break;
+            }
+            assertSameContent(message, locking, concurrent);
+        }
+    }
+    @Test
+    public void testSetConcurrentReadsKeepsValues() {
+        MultiMap<Integer, String> multiMap = new MultiMap<>();
+        multiMap.put(1, "a");
+        multiMap.put(1, "b");
+        multiMap.put(2, "c");
+        multiMap.setConcurrentReads(true);
+        Assert.assertEquals(2, multiMap.size());
+        Assert.assertEquals(toList(new ArrayIterator<>(new String[]{"a", "b"})),
+                toList(multiMap.getAll(1)));
+        multiMap.setConcurrentReads(false);
+        Assert.assertFalse(multiMap.isConcurrentReads());
+        Assert.assertEquals("c", multiMap.get(2));
+        Assert.assertEquals(2, multiMap.size());
+    }
+    @Test
+    public void testConcurrentReadsIteratorIsSnapshot() {
+        MultiMap<Integer, String> multiMap = new MultiMap<>(true);
+        multiMap.put(1, "a");
+        multiMap.put(1, "b");
+        multiMap.put(1, "c");
+        Iterator<String> iterator = multiMap.getAll(1);
+        multiMap.remove(1, "b");
+        multiMap.put(1, "d");
+        Assert.assertEquals(toList(new ArrayIterator<>(new String[]{"a", "b", "c"})),
+                toList(iterator));
+        Assert.assertEquals(toList(new ArrayIterator<>(new String[]{"a", "c", "d"})),
+                toList(multiMap.getAll(1)));
+    }
+    @Test
+    public void testConcurrentReadsDuringWrites() throws InterruptedException {
+        MultiMap<Integer, String> multiMap = new MultiMap<>(true);
+        String stable = "stable";
+        multiMap.put(1, stable);
+        Thread writer = new Thread(() -> {
+            for(int i = 0; i < 20000; i++) {
+                String value = "value-" + (i % 8);
+                multiMap.put(1, value);
+                multiMap.remove(1, value);
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            Assert.assertTrue(multiMap.containsKey(1));
+            Assert.assertTrue(multiMap.containsValue(1, stable::equals));
+            Assert.assertSame(stable, multiMap.get(1, stable::equals));
+        }
+        writer.join();
+        Assert.assertSame(stable, multiMap.get(1));
+    }
+
+    private static void assertSameContent(String message, MultiMap<Integer, String> expected,
+                                          MultiMap<Integer, String> actual) {
+        Assert.assertEquals(message, expected.size(), actual.size());
+        for(int key = 0; key < 16; key++) {
+            Assert.assertEquals(message, expected.containsKey(key), actual.containsKey(key));
+            Assert.assertEquals(message + ", get " + key, toList(expected.getAll(key)),
+                    toList(actual.getAll(key)));
+        }
+    }
+    private static List<String> toList(Iterator<String> iterator) {
+        List<String> results = new ArrayList<>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        return results;
+    }
+}